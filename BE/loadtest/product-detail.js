@@ -0,0 +1,37 @@
+// 商品詳細 API の負荷試験（外部依存が遅い状態での同時接続数を見る）
+//   k6 run -e BASE_URL=http://localhost:8080 -e ITEM_CODES=shop:item1,shop:item2 loadtest/product-detail.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const ITEM_CODES = (__ENV.ITEM_CODES || '').split(',').filter((s) => s.length > 0);
+
+export const options = {
+  scenarios: {
+    ramp: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: 50 },
+        { duration: '1m', target: 200 },
+        { duration: '1m', target: 400 },
+        { duration: '30s', target: 0 },
+      ],
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.05'],
+    http_req_duration: ['p(95)<5000'],
+  },
+};
+
+export default function () {
+  if (ITEM_CODES.length === 0) {
+    throw new Error('ITEM_CODES を指定してください');
+  }
+  const code = ITEM_CODES[Math.floor(Math.random() * ITEM_CODES.length)];
+  const res = http.get(`${BASE_URL}/api/products/${encodeURIComponent(code)}`, {
+    tags: { name: 'GET /api/products/{itemCode}' },
+  });
+  check(res, { 'status is 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,65 @@
+// レビュー投稿 API の負荷試験（投稿可否チェックのクエリ数・待ち時間を見る）
+//   k6 run -e BASE_URL=http://localhost:8080 -e USERS=a@example.com,b@example.com -e PASSWORD=password1 \
+//          -e ITEM_CODES=shop:item1,shop:item2 loadtest/review-post.js
+//
+// 2 回目以降の投稿は「投稿済み」「未購入」などで 400 になるが、投稿可否チェックは毎回すべて通るため、
+// 200 / 400 の両方を正常応答として扱う（INSERT を伴う 200 は tags.status で分けて見る）
+import http from 'k6/http';
+import { check, fail } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const USERS = (__ENV.USERS || '').split(',').filter((s) => s.length > 0);
+const PASSWORD = __ENV.PASSWORD || '';
+const ITEM_CODES = (__ENV.ITEM_CODES || '').split(',').filter((s) => s.length > 0);
+
+export const options = {
+  scenarios: {
+    steady: {
+      executor: 'constant-arrival-rate',
+      rate: Number(__ENV.RATE || 50),
+      timeUnit: '1s',
+      duration: __ENV.DURATION || '2m',
+      preAllocatedVUs: 50,
+      maxVUs: 200,
+    },
+  },
+  thresholds: {
+    'http_req_failed{name:POST /api/reviews}': ['rate<0.01'],
+    'http_req_duration{name:POST /api/reviews}': ['p(95)<300'],
+  },
+};
+
+// VU ごとに 1 回ログインし、以降はクッキー（セッション）を使い回す
+let loggedIn = false;
+
+function login() {
+  const email = USERS[(__VU - 1) % USERS.length];
+  const res = http.post(`${BASE_URL}/api/login`, JSON.stringify({ email, password: PASSWORD }), {
+    headers: { 'Content-Type': 'application/json' },
+    tags: { name: 'POST /api/login' },
+  });
+  if (res.status !== 200) fail(`login failed: ${email} status=${res.status}`);
+  loggedIn = true;
+}
+
+export default function () {
+  if (USERS.length === 0 || ITEM_CODES.length === 0) {
+    throw new Error('USERS と ITEM_CODES を指定してください');
+  }
+  if (!loggedIn) login();
+
+  const itemCode = ITEM_CODES[Math.floor(Math.random() * ITEM_CODES.length)];
+  const body = JSON.stringify({
+    itemCode,
+    rating: 1 + Math.floor(Math.random() * 5),
+    title: 'k6 load test',
+    comment: 'k6 によるレビュー投稿の負荷試験',
+    imageList: [],
+  });
+  const res = http.post(`${BASE_URL}/api/reviews`, body, {
+    headers: { 'Content-Type': 'application/json' },
+    tags: { name: 'POST /api/reviews' },
+    responseCallback: http.expectedStatuses(200, 400),
+  });
+  check(res, { 'status is 200 or 400': (r) => r.status === 200 || r.status === 400 });
+}
@@ -4,6 +4,7 @@ import java.io.File;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
@@ -13,7 +14,13 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableScheduling
 public class CalmallApplication {
 
+    // 起動タイムラインとして保持するステップ数の上限
+    private static final int STARTUP_STEP_CAPACITY = 4096;
+
     public static void main(String[] args) {
-        SpringApplication.run(CalmallApplication.class, args);
+        SpringApplication app = new SpringApplication(CalmallApplication.class);
+        // 起動タイムライン（/actuator/startup で各ステップの所要時間を確認できる）
+        app.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        app.run(args);
     }
 }
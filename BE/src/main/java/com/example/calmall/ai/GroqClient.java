@@ -1,36 +1,68 @@
 package com.example.calmall.ai;
 
+import com.example.calmall.global.resilience.DependencyGuard;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import okhttp3.*;
+import okio.BufferedSource;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Groq の OpenAI 互換 /chat/completions を叩く最小クライアント。
  * - OkHttp + Jackson
  * - 最初の choice の content を文字列で返すだけの薄い実装
+ * - chatStream は SSE で逐次受信し、StreamGuard で早期打ち切りできる
+ * - chatAsync は OkHttp の enqueue による非ブロッキング版
+ * - DependencyGuard を渡すとサーキットブレーカー / 同時実行制限の内側で呼び出す
  */
 public class GroqClient {
 
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE = "[DONE]";
+
     private final OkHttpClient http;
     private final ObjectMapper om;
     private final String apiKey;
     private final String base;
+    private final MeterRegistry meterRegistry;
+    private final DependencyGuard guard;
 
     public GroqClient(String base, String apiKey, int timeoutMs) {
+        this(base, apiKey, timeoutMs, Metrics.globalRegistry);
+    }
+
+    public GroqClient(String base, String apiKey, int timeoutMs, MeterRegistry meterRegistry) {
+        this(base, apiKey, timeoutMs, meterRegistry, null);
+    }
+
+    public GroqClient(String base, String apiKey, int timeoutMs, MeterRegistry meterRegistry, DependencyGuard guard) {
+        this(base, apiKey, timeoutMs, new OkHttpClient(), meterRegistry, guard);
+    }
+
+    /**
+     * @param shared 共有 OkHttpClient（Dispatcher / ConnectionPool / EventListener を引き継ぎ、タイムアウトのみ上書き）
+     */
+    public GroqClient(String base, String apiKey, int timeoutMs, OkHttpClient shared,
+                      MeterRegistry meterRegistry, DependencyGuard guard) {
         this.base = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
         this.apiKey = apiKey;
+        this.meterRegistry = meterRegistry;
+        this.guard = guard;
 
         this.om = new ObjectMapper()
                 .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
                 .setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
-        this.http = new OkHttpClient.Builder()
+        this.http = shared.newBuilder()
                 .callTimeout(Duration.ofMillis(timeoutMs))
                 .connectTimeout(timeoutMs, TimeUnit.MILLISECONDS)
                 .readTimeout(timeoutMs, TimeUnit.MILLISECONDS)
@@ -45,39 +77,206 @@ public class GroqClient {
      * @param maxTokens 最大トークン
      * @return 最初の choice.content
      * @throws IOException 通信 or パース失敗時
+     * @throws com.example.calmall.global.resilience.CallNotPermittedException サーキット OPEN / 同時実行上限時
      */
     public String chat(String model, List<Message> messages, Integer maxTokens) throws IOException {
+        if (guard == null) return doChat(model, messages, maxTokens);
+        return guard.execute(() -> doChat(model, messages, maxTokens), GroqClient::outputCost);
+    }
+
+    // 同時実行リミッターの遅延判定用コスト（出力 100 文字を 1 とする。生成時間は出力量にほぼ比例する）
+    private static long outputCost(String content) {
+        return content == null ? 1 : 1 + content.length() / 100;
+    }
+
+    private String doChat(String model, List<Message> messages, Integer maxTokens) throws IOException {
         ChatRequest req = new ChatRequest(model, messages, maxTokens);
+        Timer.Sample total = Timer.start(meterRegistry);
+        String outcome = "error";
 
-        Request httpReq = new Request.Builder()
-                .url(base + "/chat/completions")
-                .addHeader("Authorization", "Bearer " + apiKey)
-                .addHeader("Content-Type", "application/json")
-                .post(RequestBody.create(om.writeValueAsBytes(req), MediaType.parse("application/json")))
-                .build();
+        try (Response resp = http.newCall(buildRequest(req)).execute()) {
+            String content = readContent(resp);
+            outcome = "success";
+            return content;
+        } finally {
+            total.stop(latencyTimer("blocking", outcome));
+        }
+    }
+
+    // 非ストリーミング応答から最初の choice.content を取り出す
+    private String readContent(Response resp) throws IOException {
+        if (!resp.isSuccessful()) {
+            String errBody = (resp.body() != null) ? resp.body().string() : "";
+            throw new IOException("Groq HTTP " + resp.code() + " - " + errBody);
+        }
+
+        try (ResponseBody body = resp.body()) {
+            if (body == null) throw new IOException("Groq response body is null");
+            ChatResponse cr = om.readValue(body.bytes(), ChatResponse.class);
+
+            if (cr.choices == null || cr.choices.isEmpty()) {
+                throw new IOException("Groq response has no choices");
+            }
+            ChatResponse.Choice choice = cr.choices.get(0);
+            if (choice.message == null || choice.message.content == null || choice.message.content.isBlank()) {
+                throw new IOException("Groq response has empty message content");
+            }
+            return choice.message.content.trim();
+        }
+    }
+
+    /**
+     * LLMに問い合わせ（SSE ストリーミング）
+     * - delta.content を逐次連結し、チャンク受信ごとに guard で検査する
+     * - guard が中断理由を返した時点で接続を切断し、残りの生成を待たない
+     *
+     * @param model     Groqモデル名
+     * @param messages  system/user メッセージ列
+     * @param maxTokens 最大トークン
+     * @param guard     途中検査（null 可）
+     * @return 連結した content
+     * @throws StreamAbortedException guard により中断した場合
+     * @throws IOException            通信 or パース失敗時
+     * @throws com.example.calmall.global.resilience.CallNotPermittedException サーキット OPEN / 同時実行上限時
+     */
+    public String chatStream(String model, List<Message> messages, Integer maxTokens, StreamGuard streamGuard) throws IOException {
+        if (guard == null) return doChatStream(model, messages, maxTokens, streamGuard);
+        return guard.execute(() -> doChatStream(model, messages, maxTokens, streamGuard), GroqClient::outputCost);
+    }
+
+    /**
+     * LLMに問い合わせ（非ブロッキング）
+     * - OkHttp の enqueue で送信し、応答待ちの間は呼び出しスレッドを占有しない
+     * - future をキャンセルすると HTTP 呼び出しも中断する
+     *
+     * @return 最初の choice.content で完了する future（失敗時は IOException / CallNotPermittedException）
+     */
+    public CompletableFuture<String> chatAsync(String model, List<Message> messages, Integer maxTokens) {
+        if (guard == null) return doChatAsync(model, messages, maxTokens);
+        return guard.executeAsync(() -> doChatAsync(model, messages, maxTokens), GroqClient::outputCost);
+    }
+
+    private CompletableFuture<String> doChatAsync(String model, List<Message> messages, Integer maxTokens) {
+        final Request request;
+        try {
+            request = buildRequest(new ChatRequest(model, messages, maxTokens));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        Timer.Sample total = Timer.start(meterRegistry);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Call call = http.newCall(request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call c, IOException e) {
+                total.stop(latencyTimer("async", "error"));
+                result.completeExceptionally(e);
+            }
 
-        try (Response resp = http.newCall(httpReq).execute()) {
+            @Override
+            public void onResponse(Call c, Response resp) {
+                try (resp) {
+                    String content = readContent(resp);
+                    total.stop(latencyTimer("async", "success"));
+                    result.complete(content);
+                } catch (IOException e) {
+                    total.stop(latencyTimer("async", "error"));
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) call.cancel();
+        });
+        return result;
+    }
+
+    /**
+     * サーキットが OPEN なら即時に CallNotPermittedException を投げる。
+     * レート制御の待機など、呼び出し前の準備を無駄にしないために使う。
+     */
+    public void ensureAvailable() {
+        if (guard != null) guard.ensureAvailable();
+    }
+
+    private String doChatStream(String model, List<Message> messages, Integer maxTokens, StreamGuard guard) throws IOException {
+        ChatRequest req = new ChatRequest(model, messages, maxTokens);
+        req.stream = true;
+
+        Timer.Sample total = Timer.start(meterRegistry);
+        Timer.Sample firstToken = Timer.start(meterRegistry);
+        boolean firstTokenSeen = false;
+        String outcome = "error";
+
+        Call call = http.newCall(buildRequest(req));
+        try (Response resp = call.execute()) {
             if (!resp.isSuccessful()) {
                 String errBody = (resp.body() != null) ? resp.body().string() : "";
                 throw new IOException("Groq HTTP " + resp.code() + " - " + errBody);
             }
+            ResponseBody body = resp.body();
+            if (body == null) throw new IOException("Groq response body is null");
 
-            try (ResponseBody body = resp.body()) {
-                if (body == null) throw new IOException("Groq response body is null");
-                ChatResponse cr = om.readValue(body.bytes(), ChatResponse.class);
+            StringBuilder content = new StringBuilder(1024);
+            BufferedSource source = body.source();
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                if (!line.startsWith(SSE_DATA_PREFIX)) continue; // 空行・コメント行
+                String data = line.substring(SSE_DATA_PREFIX.length()).trim();
+                if (SSE_DONE.equals(data)) break;
 
-                if (cr.choices == null || cr.choices.isEmpty()) {
-                    throw new IOException("Groq response has no choices");
+                ChatChunk chunk = om.readValue(data, ChatChunk.class);
+                if (chunk.choices == null || chunk.choices.isEmpty()) continue;
+                ChatChunk.Delta delta = chunk.choices.get(0).delta;
+                if (delta == null || delta.content == null || delta.content.isEmpty()) continue;
+
+                if (!firstTokenSeen) {
+                    firstTokenSeen = true;
+                    firstToken.stop(Timer.builder("groq.chat.ttft")
+                            .description("Groq ストリーミングの最初のトークン到着までの時間")
+                            .register(meterRegistry));
                 }
-                ChatResponse.Choice choice = cr.choices.get(0);
-                if (choice.message == null || choice.message.content == null || choice.message.content.isBlank()) {
-                    throw new IOException("Groq response has empty message content");
+                content.append(delta.content);
+
+                String reason = (guard != null) ? guard.check(content) : null;
+                if (reason != null) {
+                    call.cancel();
+                    outcome = "aborted";
+                    throw new StreamAbortedException(reason, content.length());
                 }
-                return choice.message.content.trim();
             }
+
+            if (content.toString().isBlank()) {
+                throw new IOException("Groq response has empty message content");
+            }
+            outcome = "success";
+            return content.toString().trim();
+        } finally {
+            total.stop(latencyTimer("stream", outcome));
         }
     }
 
+    private Request buildRequest(ChatRequest req) throws IOException {
+        Request.Builder b = new Request.Builder()
+                .url(base + "/chat/completions")
+                .addHeader("Authorization", "Bearer " + apiKey)
+                .addHeader("Content-Type", "application/json")
+                .post(RequestBody.create(om.writeValueAsBytes(req), MediaType.parse("application/json")));
+        if (Boolean.TRUE.equals(req.stream)) {
+            b.addHeader("Accept", "text/event-stream");
+        }
+        return b.build();
+    }
+
+    private Timer latencyTimer(String mode, String outcome) {
+        return Timer.builder("groq.chat.latency")
+                .description("Groq chat/completions の全体レイテンシ")
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     // --- 型 ---
     public record Message(String role, String content) {
         public static Message sys(String c) {
@@ -94,6 +293,7 @@ public class GroqClient {
         public Integer max_tokens;
         public Double temperature = 0.0; // 決定論
         public Double top_p = 0.0;       // 可能なら 0 に（互換 OK）
+        public Boolean stream;           // SSE 時のみ true（null は送信しない）
 
         public ChatRequest() {}
         public ChatRequest(String model, List<Message> messages, Integer maxTokens) {
@@ -108,4 +308,65 @@ public class GroqClient {
         public static class Choice { public Message message; }
         public static class Message { public String role; public String content; }
     }
+
+    // --- ストリーミング用 ---
+    public static class ChatChunk {
+        public java.util.List<Choice> choices;
+        public static class Choice { public Delta delta; }
+        public static class Delta { public String content; }
+    }
+
+    /**
+     * ストリーミング中の途中検査。
+     * 受信済み content を受け取り、中断すべきなら理由を、継続なら null を返す。
+     */
+    @FunctionalInterface
+    public interface StreamGuard {
+        String check(CharSequence content);
+
+        /**
+         * 最初の '<' から lookahead 文字以内に prefix が現れなければ中断。
+         * '<' より前の前置き（"Here is the formatted HTML:" など）は maxPreamble 文字まで許す
+         */
+        static StreamGuard requirePrefixWithin(String prefix, int maxPreamble, int lookahead) {
+            return content -> {
+                String head = content.subSequence(0, Math.min(content.length(), maxPreamble + lookahead)).toString();
+                int start = head.indexOf('<');
+                if (start < 0) {
+                    return content.length() > maxPreamble ? "no markup within " + maxPreamble + " chars" : null;
+                }
+                if (start > maxPreamble) return "no markup within " + maxPreamble + " chars";
+                int found = head.indexOf(prefix, start);
+                if (found >= 0 && found < start + lookahead) return null;
+                return content.length() < start + lookahead ? null
+                        : "prefix '" + prefix + "' not found within " + lookahead + " chars";
+            };
+        }
+
+        /** maxChars 文字を超えたら中断 */
+        static StreamGuard maxChars(int maxChars) {
+            return content -> content.length() > maxChars ? "output exceeded " + maxChars + " chars" : null;
+        }
+
+        default StreamGuard and(StreamGuard other) {
+            return content -> {
+                String r = check(content);
+                return (r != null) ? r : other.check(content);
+            };
+        }
+    }
+
+    /** StreamGuard により受信を打ち切ったことを示す例外 */
+    public static class StreamAbortedException extends IOException {
+        private final int receivedChars;
+
+        public StreamAbortedException(String reason, int receivedChars) {
+            super("Groq stream aborted: " + reason);
+            this.receivedChars = receivedChars;
+        }
+
+        public int getReceivedChars() {
+            return receivedChars;
+        }
+    }
 }
@@ -0,0 +1,121 @@
+package com.example.calmall.ai;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OkHttp の 1 コールごとのフェーズ時間を計測する EventListener。
+ * - dns / connect / tls / ttfb（リクエスト送信開始 → レスポンスヘッダ到着）/ body
+ * - {metric}.phase（tag: client, phase）に Percentile ヒストグラム付きで記録
+ * - {metric}.connection（tag: client, reused）で接続再利用の割合を見る
+ *
+ * ストリーミング時の body は生成完了までの時間になる点に注意。
+ */
+public class HttpPhaseEventListener extends EventListener {
+
+    private final MeterRegistry registry;
+    private final String metric;
+    private final String client;
+
+    private long dnsStart;
+    private long connectStart;
+    private long tlsStart;
+    private long requestStart;
+    private long bodyStart;
+    private boolean connected;
+
+    private HttpPhaseEventListener(MeterRegistry registry, String metric, String client) {
+        this.registry = registry;
+        this.metric = metric;
+        this.client = client;
+    }
+
+    /** コールごとに新しいリスナーを作るファクトリ */
+    public static EventListener.Factory factory(MeterRegistry registry, String metric, String client) {
+        return call -> new HttpPhaseEventListener(registry, metric, client);
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        record("dns", dnsStart);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+        connected = true;
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        tlsStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        record("tls", tlsStart);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        record("connect", connectStart);
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                              Protocol protocol, IOException ioe) {
+        record("connect_failed", connectStart);
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        registry.counter(metric + ".connection",
+                "client", client,
+                "reused", String.valueOf(!connected),
+                "protocol", connection.protocol().toString()).increment();
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        record("ttfb", requestStart);
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        bodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        record("body", bodyStart);
+    }
+
+    private void record(String phase, long startNanos) {
+        if (startNanos == 0L) return;
+        Timer.builder(metric + ".phase")
+                .description("外部 HTTP 呼び出しのフェーズ別所要時間")
+                .tag("client", client)
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -6,7 +6,7 @@ import com.example.calmall.cartitem.dto.CartListResponseDto;
 import com.example.calmall.cartitem.entity.CartItem;
 import com.example.calmall.cartitem.service.CartItemService;
 import com.example.calmall.global.dto.ApiResponseDto;
-import com.example.calmall.user.entity.User;
+import com.example.calmall.user.session.SessionUser;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
@@ -37,14 +37,14 @@ public class CartController {
         }
 
         // セッションからユーザー情報を取得
-        User user = (User) session.getAttribute("user");
+        SessionUser user = SessionUser.of(session);
         if (user == null) {
             log.warn("セッションにユーザー情報が存在しません。");
             return null;
         }
 
         // ユーザーIDを取得
-        String userId = user.getUserId();
+        String userId = user.userId();
         if (userId == null) {
             log.warn("セッションにユーザーIDが見つかりませんでした。");
             return null;
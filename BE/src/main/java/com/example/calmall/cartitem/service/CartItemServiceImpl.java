@@ -8,6 +8,7 @@ import com.example.calmall.cartitem.entity.CartItem;
 import com.example.calmall.cartitem.repository.CartItemRepository;
 import com.example.calmall.product.dto.ProductDetailResponseDto; // ProductDetailResponseDto をインポート
 import com.example.calmall.product.service.ProductService; // ProductService をインポート
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j; // ロギングを追加
@@ -15,8 +16,12 @@ import org.springframework.http.ResponseEntity; // ResponseEntity を使用す
 
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,6 +42,7 @@ public class CartItemServiceImpl implements CartItemService {
      */
     @Override
     @Transactional // トランザクション管理
+    @Timed(value = "cart.operation", extraTags = {"op", "add"}, histogram = true)
     public Optional<CartItem> addOrUpdateCartItem(String userId, CartAddRequestDto requestDto) {
         // バリデーション (Controllerで@Validを使わないため、Serviceで手動チェック)
         if (requestDto.getQuantity() < 0) {
@@ -101,33 +107,20 @@ public class CartItemServiceImpl implements CartItemService {
      * @return カートアイテムのリストを含むCartListResponseDto
      */
     @Override
+    @Timed(value = "cart.operation", extraTags = {"op", "list"}, histogram = true)
     public CartListResponseDto getCartItemsForUser(String userId) {
         //データベースから検索
         List<CartItem> entityCartItems = cartItemRepository.findAll().stream()
                 .filter(ci -> ci.getUserId().equals(userId))
                 .collect(Collectors.toList());
 
+        // 商品詳細はまとめて非同期で取得する（1 件ずつ順に待たない）
+        Map<String, ProductDetailResponseDto.ProductDto> products = fetchProducts(entityCartItems);
+
         // CartItemエンティティとProductServiceからの商品詳細情報を組み合わせてDTOリストを作成
         List<CartListResponseDto.CartItemDto> dtoList = entityCartItems.stream()
                 .map(entity -> {
-                    // ProductServiceを使用して商品詳細を取得
-                    ResponseEntity<ProductDetailResponseDto> productDetailResponse = productService.getProductDetail(entity.getItemCode());
-                    ProductDetailResponseDto.ProductDto productDto = null;
-
-                    // 商品詳細が正常に取得できたかチェック
-                    if (productDetailResponse.getStatusCode().is2xxSuccessful() && productDetailResponse.getBody() != null && productDetailResponse.getBody().getProduct() != null) {
-                        productDto = productDetailResponse.getBody().getProduct();
-                        log.debug("商品詳細取得成功: itemCode={}", entity.getItemCode());
-                    } else {
-                        // 商品詳細が取得できなかった場合のフォールバック
-                        log.warn("商品詳細が取得できませんでした。itemCode={}, HTTP Status={}", entity.getItemCode(), productDetailResponse.getStatusCode());
-                        productDto = ProductDetailResponseDto.ProductDto.builder()
-                                .itemCode(entity.getItemCode())
-                                .itemName("不明な商品") 
-                                .price(0) 
-                                .imageUrls(List.of("https://placehold.co/100x100/CCCCCC/000000?text=NoImage"))
-                                .build();
-                    }
+                    ProductDetailResponseDto.ProductDto productDto = products.get(entity.getItemCode());
 
                     // CartItemDtoをビルドして返す 
                     return CartListResponseDto.CartItemDto.builder()
@@ -158,6 +151,7 @@ public class CartItemServiceImpl implements CartItemService {
      */
     @Override
     @Transactional // トランザクション管理
+    @Timed(value = "cart.operation", extraTags = {"op", "remove"}, histogram = true)
     public boolean removeCartItemById(String userId, Long cartItemId) {
         Optional<CartItem> cartItemOptional = cartItemRepository.findById(cartItemId);
 
@@ -184,6 +178,7 @@ public class CartItemServiceImpl implements CartItemService {
      */
     @Override
     @Transactional // トランザクション管理
+    @Timed(value = "cart.operation", extraTags = {"op", "clear"}, histogram = true)
     public void clearCart(String userId) {
         List<CartItem> userCartItems = cartItemRepository.findAll().stream()
                 .filter(ci -> ci.getUserId().equals(userId))
@@ -209,6 +204,7 @@ public class CartItemServiceImpl implements CartItemService {
 
     @Override
     @Transactional
+    @Timed(value = "cart.operation", extraTags = {"op", "remove_selected"}, histogram = true)
     public void removeSelectedCartItems(String userId, List<Long> cartItemIds) {
         if (cartItemIds == null || cartItemIds.isEmpty()) {
             return;
@@ -227,6 +223,7 @@ public class CartItemServiceImpl implements CartItemService {
 
     @Override
     @Transactional
+    @Timed(value = "cart.operation", extraTags = {"op", "update_quantity"}, histogram = true)
     public boolean updateCartItemQuantity(String userId, Long cartItemId, int newQuantity) {
         if (newQuantity <= 0) {
             // 数量が0以下の場合は削除する
@@ -248,6 +245,7 @@ public class CartItemServiceImpl implements CartItemService {
 
     @Override
     @Transactional
+    @Timed(value = "cart.operation", extraTags = {"op", "change_quantity"}, histogram = true)
     public boolean changeCartItemQuantity(String userId, Long cartItemId, int change) {
         Optional<CartItem> optionalCartItem = cartItemRepository.findByUserIdAndId(userId, cartItemId);
         if (optionalCartItem.isPresent()) {
@@ -288,6 +286,7 @@ public class CartItemServiceImpl implements CartItemService {
      * @return 注文ページ用のカートアイテムリストを含むDTO
      */
     @Override
+    @Timed(value = "cart.operation", extraTags = {"op", "list_for_order"}, histogram = true)
     public CartListForOrderResponseDto getCartItemsForOrderPage(String userId, List<Long> cartItemIds) {
         if (cartItemIds == null || cartItemIds.isEmpty()) {
             // IDリストが空の場合は、空のリストを返す
@@ -308,22 +307,13 @@ public class CartItemServiceImpl implements CartItemService {
                     .build();
         }
 
+        // 商品詳細はまとめて非同期で取得する（1 件ずつ順に待たない）
+        Map<String, ProductDetailResponseDto.ProductDto> products = fetchProducts(entityCartItems);
+
         // CartItemエンティティをCartItemForOrderPageDtoに変換
         List<CartItemForOrderPageDto> dtoList = entityCartItems.stream()
             .map(entity -> {
-                ResponseEntity<ProductDetailResponseDto> productDetailResponse = productService.getProductDetail(entity.getItemCode());
-                ProductDetailResponseDto.ProductDto productDto = null;
-                if (productDetailResponse.getStatusCode().is2xxSuccessful() && productDetailResponse.getBody() != null && productDetailResponse.getBody().getProduct() != null) {
-                    productDto = productDetailResponse.getBody().getProduct();
-                } else {
-                    log.warn("商品詳細が取得できませんでした。itemCode={}, HTTP Status={}", entity.getItemCode(), productDetailResponse.getStatusCode());
-                    productDto = ProductDetailResponseDto.ProductDto.builder()
-                            .itemCode(entity.getItemCode())
-                            .itemName("不明な商品")
-                            .price(0)
-                            .imageUrls(List.of("https://placehold.co/100x100/CCCCCC/000000?text=NoImage"))
-                            .build();
-                }
+                ProductDetailResponseDto.ProductDto productDto = products.get(entity.getItemCode());
                 return CartItemForOrderPageDto.builder()
                         .id(entity.getId())
                         .itemCode(entity.getItemCode())
@@ -341,5 +331,43 @@ public class CartItemServiceImpl implements CartItemService {
                 .cartList(dtoList)
                 .build();
     }
+
+    /**
+     * カート内の商品詳細をまとめて取得する（商品コードごとに 1 回）。
+     * 楽天 API 取得・LLM 整形は全商品分を並行して待ち、取得できなかった商品は代替表示にする
+     */
+    private Map<String, ProductDetailResponseDto.ProductDto> fetchProducts(List<CartItem> cartItems) {
+        Map<String, CompletableFuture<ProductDetailResponseDto.ProductDto>> futures = new LinkedHashMap<>();
+        for (CartItem cartItem : cartItems) {
+            futures.computeIfAbsent(cartItem.getItemCode(), itemCode -> productService.getProductDetailAsync(itemCode)
+                    .handle((response, error) -> toProductDto(itemCode, response, error)));
+        }
+        CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+
+        Map<String, ProductDetailResponseDto.ProductDto> products = new HashMap<>();
+        futures.forEach((itemCode, future) -> products.put(itemCode, future.join()));
+        return products;
+    }
+
+    private static ProductDetailResponseDto.ProductDto toProductDto(
+            String itemCode, ResponseEntity<ProductDetailResponseDto> response, Throwable error) {
+        // 商品詳細が正常に取得できたかチェック
+        if (error == null && response.getStatusCode().is2xxSuccessful()
+                && response.getBody() != null && response.getBody().getProduct() != null) {
+            log.debug("商品詳細取得成功: itemCode={}", itemCode);
+            return response.getBody().getProduct();
+        }
+        // 商品詳細が取得できなかった場合のフォールバック
+        if (error != null) {
+            log.warn("商品詳細が取得できませんでした。itemCode={}, error={}", itemCode, error.toString());
+        } else {
+            log.warn("商品詳細が取得できませんでした。itemCode={}, HTTP Status={}", itemCode, response.getStatusCode());
+        }
+        return ProductDetailResponseDto.ProductDto.builder()
+                .itemCode(itemCode)
+                .itemName("不明な商品")
+                .price(0)
+                .imageUrls(List.of("https://placehold.co/100x100/CCCCCC/000000?text=NoImage"))
+                .build();
+    }
 }
-    
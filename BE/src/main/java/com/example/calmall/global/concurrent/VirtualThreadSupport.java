@@ -0,0 +1,59 @@
+package com.example.calmall.global.concurrent;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 仮想スレッド対応の Executor を作る。
+ * - Java 21 以上かつ有効化時: タスクごとに仮想スレッド（ブロッキング I/O 待ちでキャリアを占有しない）
+ * - それ以外: 従来通りの固定長プラットフォームスレッドプール
+ * ビルドは Java 17 でも通るよう、仮想スレッドの生成は Spring の SimpleAsyncTaskExecutor に任せる。
+ */
+public final class VirtualThreadSupport {
+
+    private VirtualThreadSupport() {}
+
+    /** 実行中の JVM で仮想スレッドが使えるか */
+    public static boolean isAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * @param namePrefix       スレッド名の接頭辞
+     * @param virtualEnabled   仮想スレッドを使うか（spring.threads.virtual.enabled）
+     * @param platformPoolSize 仮想スレッドを使えない場合のプールサイズ
+     */
+    public static Executor newExecutor(String namePrefix, boolean virtualEnabled, int platformPoolSize) {
+        if (virtualEnabled && isAvailable()) {
+            SimpleAsyncTaskExecutor vt = new SimpleAsyncTaskExecutor(namePrefix);
+            vt.setVirtualThreads(true);
+            return vt;
+        }
+        return Executors.newFixedThreadPool(Math.max(1, platformPoolSize), daemonFactory(namePrefix));
+    }
+
+    /**
+     * newExecutor と同じだが、仮想スレッドの場合も同時実行数を maxConcurrency までに制限する
+     * （上限に達すると投入側が空きを待つ。外部サービスへの同時接続数を抑えたい場合に使う）
+     */
+    public static Executor newBoundedExecutor(String namePrefix, boolean virtualEnabled, int maxConcurrency) {
+        Executor executor = newExecutor(namePrefix, virtualEnabled, maxConcurrency);
+        if (executor instanceof SimpleAsyncTaskExecutor vt) {
+            vt.setConcurrencyLimit(Math.max(1, maxConcurrency));
+        }
+        return executor;
+    }
+
+    private static ThreadFactory daemonFactory(String namePrefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, namePrefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
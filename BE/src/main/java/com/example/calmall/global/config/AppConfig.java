@@ -1,9 +1,16 @@
 package com.example.calmall.global.config;
 
+import com.example.calmall.global.concurrent.VirtualThreadSupport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
 /**
  * アプリケーション共通設定クラス
  */
@@ -12,9 +19,78 @@ public class AppConfig {
 
     /**
      * RestTemplateのBeanを登録
+     * - RestTemplateBuilder 経由で作成し、http.client.requests メトリクスを自動計測させる
+     */
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+        return builder
+                .connectTimeout(Duration.ofSeconds(5))
+                .readTimeout(Duration.ofSeconds(15))
+                .build();
+    }
+
+    /**
+     * 楽天 API 向けの非ブロッキング HTTP クライアント（sendAsync 用）
+     * - 応答待ちの間スレッドを占有しない
+     */
+    @Bean
+    public HttpClient rakutenHttpClient() {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * 商品詳細（非同期版）で整形結果の反映・DB 保存を行う Executor
+     * - 仮想スレッド有効時は仮想スレッド、無効時は固定サイズのプール
+     */
+    @Bean
+    public Executor productDetailExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${calmall.product-detail.threads:16}") int threads
+    ) {
+        return VirtualThreadSupport.newExecutor("product-detail-", virtualThreads, threads);
+    }
+
+    /**
+     * レビュー画像のアップロードを並列に行う Executor（同時アップロード数の上限付き）
+     */
+    @Bean
+    public Executor reviewImageUploadExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${calmall.review-image.upload-threads:6}") int threads
+    ) {
+        return VirtualThreadSupport.newBoundedExecutor("review-image-", virtualThreads, threads);
+    }
+
+    /**
+     * レビュー画像の縮小・再エンコード用 Executor（CPU 処理のためコア数分のプラットフォームスレッド）
+     * - calmall.review-image.process-threads=0 のときはコア数
+     */
+    @Bean
+    public Executor reviewImageProcessExecutor(
+            @Value("${calmall.review-image.process-threads:0}") int threads
+    ) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return VirtualThreadSupport.newExecutor("review-image-cpu-", false, size);
+    }
+
+    /**
+     * 商品一括取り込み（楽天 API のページング）用 Executor
+     * - ページ間の待機を含むため API のリクエストスレッドから外して実行する
+     * - 楽天 API のレート制限（アプリIDあたり 1 秒 1 回）に合わせ、ジョブは 1 スレッドで順に処理する
+     */
+    @Bean
+    public Executor productIngestExecutor() {
+        return VirtualThreadSupport.newExecutor("ingest-", false, 1);
+    }
+
+    /**
+     * 取り込んだ商品の説明文を LLM でバッチ整形する Executor（LLM のレート制限があるため 1 スレッド）
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public Executor productIngestCleanExecutor() {
+        return VirtualThreadSupport.newExecutor("ingest-clean-", false, 1);
     }
 }
@@ -5,11 +5,13 @@ import com.cloudinary.utils.ObjectUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 import java.util.Map;
 
 /**
  * Cloudinary の設定クラス
+ * - 画像アップロード時にしか使わないため遅延生成し、起動時間に含めない
  */
 @Configuration
 public class CloudinaryConfig {
@@ -24,8 +26,9 @@ public class CloudinaryConfig {
     private String apiSecret;
 
     @Bean
+    @Lazy
     public Cloudinary cloudinary() {
-        Map<String, String> config = ObjectUtils.asMap(
+        Map<?, ?> config = ObjectUtils.asMap(
                 "cloud_name", cloudName,
                 "api_key", apiKey,
                 "api_secret", apiSecret
@@ -1,21 +1,65 @@
 package com.example.calmall.global.config;
 
 import com.example.calmall.ai.GroqClient;
+import com.example.calmall.ai.HttpPhaseEventListener;
+import com.example.calmall.global.concurrent.VirtualThreadSupport;
+import com.example.calmall.global.resilience.DependencyGuard;
 import com.example.calmall.product.text.LlmDescriptionFormatter;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class GroqConfig {
 
+    /**
+     * Groq 向けの共有 OkHttpClient。
+     * - HTTP/2 では並行チャンク呼び出しを 1 本の接続上で多重化する
+     * - 既定の Dispatcher（ホストあたり 5 並列）では待ち行列ができるため上限を設定可能にする
+     * - フェーズ別（dns/connect/tls/ttfb/body）の所要時間を groq.http.phase に記録
+     */
+    @Bean
+    public OkHttpClient groqHttpClient(
+            MeterRegistry meterRegistry,
+            @Value("${groq.http.max-requests:64}") int maxRequests,
+            @Value("${groq.http.max-requests-per-host:16}") int maxRequestsPerHost,
+            @Value("${groq.http.pool.max-idle:8}") int maxIdleConnections,
+            @Value("${groq.http.pool.keep-alive-ms:300000}") long keepAliveMs,
+            @Value("${groq.http.http2:true}") boolean http2
+    ) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMs, TimeUnit.MILLISECONDS))
+                .protocols(http2 ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .retryOnConnectionFailure(true)
+                .eventListenerFactory(HttpPhaseEventListener.factory(meterRegistry, "groq.http", "groq"))
+                .build();
+    }
+
     @Bean
     public GroqClient groqClient(
             @Value("${groq.base:https://api.groq.com/openai/v1}") String base,
             @Value("${groq.api.key}") String apiKey,
-            @Value("${groq.timeout.ms:20000}") int timeoutMs
+            @Value("${groq.timeout.ms:20000}") int timeoutMs,
+            @Qualifier("groqHttpClient") OkHttpClient groqHttpClient,
+            MeterRegistry meterRegistry,
+            @Qualifier("groqGuard") DependencyGuard groqGuard
     ) {
-        return new GroqClient(base, apiKey, timeoutMs);
+        return new GroqClient(base, apiKey, timeoutMs, groqHttpClient, meterRegistry, groqGuard);
     }
 
     @Bean
@@ -23,10 +67,17 @@ public class GroqConfig {
             GroqClient client,
             @Value("${groq.model:llama-3.3-70b-versatile}") String model,
             @Value("${groq.max.tokens:1024}") int maxTokens,
-            @Value("${groq.parallelism:2}") int parallel
+            @Value("${groq.parallelism:2}") int parallel,
+            @Value("${groq.stream.enabled:true}") boolean streaming,
+            @Value("${groq.batch.size:8}") int batchSize,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
     ) {
-
-        return new LlmDescriptionFormatter(client, model, maxTokens, Math.max(1, parallel));
+        // チャンク並行呼び出し: Java 21 + 仮想スレッド有効時は共有の仮想スレッド Executor（タスクごとにスレッドを作るので待ち行列ができない）
+        // それ以外は null を渡し、呼び出しごとにプールを作る（共有の固定長プールだと別リクエストのチャンクの後ろに並んでしまう）
+        Executor fanOut = (virtualThreads && VirtualThreadSupport.isAvailable())
+                ? VirtualThreadSupport.newExecutor("groq-fanout-", true, Math.max(1, parallel))
+                : null;
+        return new LlmDescriptionFormatter(client, model, maxTokens, Math.max(1, parallel), streaming, batchSize, fanOut);
         // return new LlmDescriptionFormatter(client, model, maxTokens);
     }
 }
@@ -0,0 +1,80 @@
+package com.example.calmall.global.config;
+
+import com.example.calmall.ai.GroqClient;
+import com.example.calmall.global.resilience.AimdLimiter;
+import com.example.calmall.global.resilience.DependencyGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.InterruptedIOException;
+import java.net.http.HttpTimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * 外部依存（Groq / 楽天 API）ごとの DependencyGuard を定義する。
+ * - 失敗率が閾値を超えたら一定時間 OPEN にして即時フォールバックさせる
+ * - 同時実行上限は 429・タイムアウト・遅延悪化を見て AIMD で自動調整する（上限到達時は acquire-timeout-ms まで待つ）
+ * - Groq の遅延は出力量に比例するため、出力文字数あたりの遅延で悪化を判定する（GroqClient 側でコストを渡す）
+ */
+@Configuration
+public class ResilienceConfig {
+
+    // GroqClient の例外メッセージ "Groq HTTP <code> - ..." からステータスを拾う
+    private static final Pattern GROQ_OVERLOAD = Pattern.compile("HTTP (429|503)\\b");
+    private static final Pattern GROQ_CLIENT_ERROR = Pattern.compile("HTTP 4(?!29)\\d\\d\\b");
+
+    @Bean
+    public DependencyGuard groqGuard(
+            MeterRegistry meterRegistry,
+            @Value("${resilience.groq.failure-rate:0.5}") double failureRate,
+            @Value("${resilience.groq.window-size:20}") int windowSize,
+            @Value("${resilience.groq.minimum-calls:10}") int minimumCalls,
+            @Value("${resilience.groq.open-duration-ms:30000}") long openDurationMs,
+            @Value("${resilience.groq.half-open-calls:2}") int halfOpenCalls,
+            @Value("${resilience.groq.initial-limit:4}") int initialLimit,
+            @Value("${resilience.groq.max-limit:16}") int maxLimit,
+            @Value("${resilience.groq.acquire-timeout-ms:10000}") long acquireTimeoutMs
+    ) {
+        return new DependencyGuard("groq",
+                new DependencyGuard.CircuitBreakerSettings(windowSize, minimumCalls, failureRate, openDurationMs, halfOpenCalls),
+                new AimdLimiter(initialLimit, 1, maxLimit, 0.7, 3.0),
+                acquireTimeoutMs,
+                t -> t instanceof InterruptedIOException
+                        || (t.getMessage() != null && GROQ_OVERLOAD.matcher(t.getMessage()).find()),
+                // ストリームの早期打ち切りやリクエスト不正は Groq 側の障害ではない
+                t -> t instanceof GroqClient.StreamAbortedException
+                        || (t.getMessage() != null && GROQ_CLIENT_ERROR.matcher(t.getMessage()).find()),
+                meterRegistry);
+    }
+
+    @Bean
+    public DependencyGuard rakutenGuard(
+            MeterRegistry meterRegistry,
+            @Value("${resilience.rakuten.failure-rate:0.5}") double failureRate,
+            @Value("${resilience.rakuten.window-size:20}") int windowSize,
+            @Value("${resilience.rakuten.minimum-calls:10}") int minimumCalls,
+            @Value("${resilience.rakuten.open-duration-ms:15000}") long openDurationMs,
+            @Value("${resilience.rakuten.half-open-calls:2}") int halfOpenCalls,
+            @Value("${resilience.rakuten.initial-limit:8}") int initialLimit,
+            @Value("${resilience.rakuten.max-limit:32}") int maxLimit,
+            @Value("${resilience.rakuten.acquire-timeout-ms:2000}") long acquireTimeoutMs
+    ) {
+        return new DependencyGuard("rakuten",
+                new DependencyGuard.CircuitBreakerSettings(windowSize, minimumCalls, failureRate, openDurationMs, halfOpenCalls),
+                new AimdLimiter(initialLimit, 1, maxLimit, 0.7, 3.0),
+                acquireTimeoutMs,
+                t -> t instanceof HttpClientErrorException.TooManyRequests
+                        || t instanceof HttpServerErrorException.ServiceUnavailable
+                        || t instanceof ResourceAccessException
+                        || t instanceof HttpTimeoutException,
+                // 429 以外の 4xx（存在しない商品コード等）は楽天側の障害ではない
+                t -> t instanceof HttpClientErrorException
+                        && !(t instanceof HttpClientErrorException.TooManyRequests),
+                meterRegistry);
+    }
+}
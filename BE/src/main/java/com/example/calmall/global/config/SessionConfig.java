@@ -0,0 +1,66 @@
+package com.example.calmall.global.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP セッションの保存先を calmall.session.store で切り替える。
+ * - jdbc   … spring_session テーブルに保存（複数ノードで共有。期限切れは expiry_time の索引で定期削除）
+ *            Spring Boot の自動構成（spring.session.jdbc.*）をそのまま使う
+ * - memory … ノード内のメモリに保存（単一ノード・ローカル開発用）
+ *            MapSessionRepository は期限切れを参照時にしか消さないため、定期的にまとめて削除する
+ * AOT 処理済みで起動した場合、この切り替えはビルド時に固定される。
+ */
+@Configuration(proxyBeanMethods = false)
+public class SessionConfig {
+
+    @Slf4j
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "calmall.session.store", havingValue = "memory", matchIfMissing = true)
+    @EnableSpringHttpSession
+    static class InMemorySessionConfig {
+
+        // MapSessionRepository の保存先（期限切れの掃除用に参照を持つ）
+        final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+        // SessionRepository を定義すると JDBC の自動構成は無効になる
+        @Bean
+        public MapSessionRepository sessionRepository(
+                @Value("${server.servlet.session.timeout:30m}") Duration timeout
+        ) {
+            MapSessionRepository repository = new MapSessionRepository(sessions);
+            repository.setDefaultMaxInactiveInterval(timeout);
+            return repository;
+        }
+
+        // 既定は 5 分ごと（jdbc の spring.session.jdbc.cleanup-cron と同じ間隔）
+        // 期限切れの判定はキー単位で原子的に行う（判定の直前に保存し直されたセッションは消さない）
+        @Scheduled(initialDelayString = "${calmall.session.memory.cleanup-interval-ms:300000}",
+                fixedDelayString = "${calmall.session.memory.cleanup-interval-ms:300000}")
+        public void purgeExpiredSessions() {
+            AtomicInteger removed = new AtomicInteger();
+            for (String id : sessions.keySet()) {
+                sessions.computeIfPresent(id, (k, session) -> {
+                    if (!session.isExpired()) return session;
+                    removed.incrementAndGet();
+                    return null;
+                });
+            }
+            if (removed.get() > 0) {
+                log.debug("[Session] purged {} expired sessions ({} remaining)", removed, sessions.size());
+            }
+        }
+    }
+}
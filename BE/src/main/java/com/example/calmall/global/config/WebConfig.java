@@ -1,5 +1,6 @@
 package com.example.calmall.global.config;
 
+import com.example.calmall.global.query.QueryCountFilter;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
@@ -20,6 +21,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("https://cal-market.vercel.app", "http://localhost:3000")
                 .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(QueryCountFilter.HEADER_QUERY_COUNT, QueryCountFilter.HEADER_QUERY_TIME)
                 .allowCredentials(true);
     }
 
@@ -0,0 +1,27 @@
+package com.example.calmall.global.query;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * クエリ件数計測用に DataSource をラップする（Hibernate・JdbcTemplate の両方を数えるため DataSource で計測する）。
+ */
+@Configuration
+public class QueryCountConfig {
+
+    @Bean
+    public static BeanPostProcessor queryCountDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(ds);
+                }
+                return bean;
+            }
+        };
+    }
+}
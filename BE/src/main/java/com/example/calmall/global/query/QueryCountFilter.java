@@ -0,0 +1,75 @@
+package com.example.calmall.global.query;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+/**
+ * HTTP リクエストごとの SQL 件数・JDBC 時間を計測する。
+ * - calmall.query-count.header-enabled=true の場合、X-Query-Count / X-Query-Time-Ms をレスポンスに付与
+ *   （ヘッダ付与のためレスポンスをバッファするので prod では無効にする）
+ * - 件数が calmall.query-count.warn-threshold を超えたら WARN ログ（N+1 検出用）
+ */
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER_QUERY_COUNT = "X-Query-Count";
+    public static final String HEADER_QUERY_TIME = "X-Query-Time-Ms";
+
+    @Value("${calmall.query-count.header-enabled:true}")
+    private boolean headerEnabled;
+
+    @Value("${calmall.query-count.warn-threshold:30}")
+    private int warnThreshold;
+
+    // 非同期レスポンス（CompletableFuture 等）はディスパッチ完了時にバッファを書き出す
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                ContentCachingResponseWrapper wrapped =
+                        WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+                if (wrapped != null && !request.isAsyncStarted()) wrapped.copyBodyToResponse();
+            }
+            return;
+        }
+
+        QueryCountHolder.start();
+        ContentCachingResponseWrapper wrapped = headerEnabled ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            chain.doFilter(request, wrapped != null ? wrapped : response);
+        } finally {
+            QueryCountHolder.Stats stats = QueryCountHolder.stop();
+            if (stats != null) {
+                if (stats.getStatements() > warnThreshold) {
+                    log.warn("[QueryCount] threshold exceeded method={} uri={} queries={} jdbcMs={} threshold={}",
+                            request.getMethod(), request.getRequestURI(),
+                            stats.getStatements(), stats.getJdbcMillis(), warnThreshold);
+                }
+                if (wrapped != null && !request.isAsyncStarted()) {
+                    wrapped.setHeader(HEADER_QUERY_COUNT, String.valueOf(stats.getStatements()));
+                    wrapped.setHeader(HEADER_QUERY_TIME, String.valueOf(stats.getJdbcMillis()));
+                }
+            }
+            if (wrapped != null && !request.isAsyncStarted()) wrapped.copyBodyToResponse();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.calmall.global.query;
+
+/**
+ * リクエスト（スレッド）単位で SQL 実行件数と JDBC 所要時間を集計する。
+ * - start() してから stop() するまでの間だけ計測する（計測外のスレッドでは何もしない）
+ */
+public final class QueryCountHolder {
+
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    private QueryCountHolder() {}
+
+    /** 集計結果 */
+    public static final class Stats {
+        private int statements;
+        private long jdbcNanos;
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getJdbcMillis() {
+            return jdbcNanos / 1_000_000L;
+        }
+    }
+
+    /** 計測開始（既存の計測は破棄する） */
+    public static Stats start() {
+        Stats stats = new Stats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /** 計測終了して結果を返す（未開始なら null） */
+    public static Stats stop() {
+        Stats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    /** 計測中の現在値（未開始なら null） */
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    static void incrementStatements() {
+        Stats stats = CURRENT.get();
+        if (stats != null) stats.statements++;
+    }
+
+    static void addJdbcNanos(long nanos) {
+        Stats stats = CURRENT.get();
+        if (stats != null) stats.jdbcNanos += nanos;
+    }
+}
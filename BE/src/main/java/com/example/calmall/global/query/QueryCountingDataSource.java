@@ -0,0 +1,95 @@
+package com.example.calmall.global.query;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource から払い出す Connection / Statement をプロキシし、SQL の実行件数と JDBC 時間を数える。
+ * - Hibernate だけでなく JdbcTemplate（ProductJdbcRepository など）や Flyway・Spring Session の SQL も対象
+ * - execute / executeQuery / executeUpdate / executeBatch の呼び出し 1 回を 1 件とする（バッチは 1 往復で 1 件）
+ * - 集計先は QueryCountHolder（計測中のスレッドのみ）
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    public QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection target) {
+        return (Connection) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(target));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryCountingDataSource.invoke(target, method, args);
+            // 文オブジェクトの種類ごとに同じインタフェースでプロキシする
+            if (result instanceof CallableStatement) {
+                return wrapStatement(result, CallableStatement.class, (Connection) proxy);
+            }
+            if (result instanceof PreparedStatement) {
+                return wrapStatement(result, PreparedStatement.class, (Connection) proxy);
+            }
+            if (result instanceof Statement) {
+                return wrapStatement(result, Statement.class, (Connection) proxy);
+            }
+            return result;
+        }
+
+        private static Object wrapStatement(Object statement, Class<?> type, Connection connection) {
+            return Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                    new Class<?>[]{type}, new StatementHandler(statement, connection));
+        }
+    }
+
+    private record StatementHandler(Object target, Connection connection) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            // Statement から辿った Connection もプロキシ側を返す
+            if (method.getName().equals("getConnection") && method.getParameterCount() == 0) {
+                return connection;
+            }
+            if (!method.getName().startsWith("execute") || QueryCountHolder.current() == null) {
+                return QueryCountingDataSource.invoke(target, method, args);
+            }
+            QueryCountHolder.incrementStatements();
+            long start = System.nanoTime();
+            try {
+                return QueryCountingDataSource.invoke(target, method, args);
+            } finally {
+                QueryCountHolder.addJdbcNanos(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.calmall.global.resilience;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 同時実行数の上限を AIMD（加算増・乗算減）で自動調整するリミッター。
+ * - 成功かつレイテンシが最小 RTT の rttTolerance 倍以内 → 上限 +1（上限近くまで使われている時のみ）
+ * - 429/タイムアウト等の過負荷シグナル、または RTT の悪化 → 上限 × backoffRatio
+ * 最小 RTT は一定件数ごとにリセットし、依存先の性能変化に追従する（Vegas 風の遅延判定）。
+ * RTT は呼び出しごとのコスト（LLM なら出力量など）で割った値で比較できる（応答の長さで遅延が変わる依存先向け）。
+ * 上限に達している場合は acquire のタイムアウトまで FIFO で空きを待つ。
+ * 仮想スレッドから呼ばれるため synchronized ではなく ReentrantLock で保護する。
+ */
+public class AimdLimiter {
+
+    private static final int MIN_RTT_RESET_SAMPLES = 500;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double rttTolerance;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int limit;
+    private int inflight;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samples;
+
+    // 空き待ち（FIFO）。true で完了したら枠を確保済み、false ならタイムアウト
+    private final ArrayDeque<CompletableFuture<Boolean>> waiters = new ArrayDeque<>();
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double rttTolerance) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.rttTolerance = rttTolerance;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /** 上限未満なら実行枠を確保して true（待たない。空き待ちがいる場合も false） */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inflight >= limit || !waiters.isEmpty()) return false;
+            inflight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 実行枠を確保する。上限に達している場合は timeout まで空きを待つ（ブロッキング）。
+     * 割り込まれた場合は割り込みフラグを立て直して false を返す。
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) {
+        CompletableFuture<Boolean> permit = acquireAsync(timeout, unit);
+        try {
+            return permit.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // 待ちを取り消す。すでに枠が割り当てられていた場合は返却する
+            if (!permit.complete(false) && Boolean.TRUE.equals(permit.getNow(false))) onIgnored();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 実行枠を確保する（非ブロッキング）。
+     * 空きがあれば true で完了済みの future、無ければ空き待ちに並び、timeout で false になる。
+     * true の完了は枠を返却したスレッドで実行される。
+     */
+    public CompletableFuture<Boolean> acquireAsync(long timeout, TimeUnit unit) {
+        CompletableFuture<Boolean> waiter;
+        lock.lock();
+        try {
+            if (inflight < limit && waiters.isEmpty()) {
+                inflight++;
+                return CompletableFuture.completedFuture(true);
+            }
+            if (timeout <= 0) return CompletableFuture.completedFuture(false);
+            waiter = new CompletableFuture<>();
+            waiters.addLast(waiter);
+        } finally {
+            lock.unlock();
+        }
+        waiter.completeOnTimeout(false, timeout, unit);
+        waiter.thenAccept(granted -> {
+            if (!granted) removeWaiter(waiter);
+        });
+        return waiter;
+    }
+
+    /** 成功時（rttNanos は呼び出しの所要時間） */
+    public void onSuccess(long rttNanos) {
+        onSuccess(rttNanos, 1);
+    }
+
+    /**
+     * 成功時。RTT を cost で割った値で遅延悪化を判定する。
+     * @param cost 呼び出しの重さ（1 以上。出力量に比例して遅くなる依存先で使う）
+     */
+    public void onSuccess(long rttNanos, long cost) {
+        long normalized = rttNanos / Math.max(1, cost);
+        lock.lock();
+        try {
+            boolean utilized = inflight * 2 >= limit || !waiters.isEmpty();
+            inflight--;
+
+            if (++samples >= MIN_RTT_RESET_SAMPLES) {
+                samples = 0;
+                minRttNanos = Long.MAX_VALUE;
+            }
+            if (normalized < minRttNanos) minRttNanos = normalized;
+
+            if (normalized > minRttNanos * rttTolerance) {
+                decrease();
+            } else if (utilized && limit < maxLimit) {
+                limit++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        grantWaiters();
+    }
+
+    /** 過負荷シグナル（429・タイムアウト等） */
+    public void onDropped() {
+        lock.lock();
+        try {
+            inflight--;
+            decrease();
+        } finally {
+            lock.unlock();
+        }
+        grantWaiters();
+    }
+
+    /** 過負荷とは無関係な失敗（上限は変更しない） */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            inflight--;
+        } finally {
+            lock.unlock();
+        }
+        grantWaiters();
+    }
+
+    /** 待機中の件数 */
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInflight() {
+        lock.lock();
+        try {
+            return inflight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 空いた枠を先頭の待ちから順に割り当てる。future の完了（後続処理の実行）はロック外で行う
+    private void grantWaiters() {
+        while (true) {
+            CompletableFuture<Boolean> next;
+            lock.lock();
+            try {
+                if (inflight >= limit || waiters.isEmpty()) return;
+                next = waiters.pollFirst();
+                inflight++;
+            } finally {
+                lock.unlock();
+            }
+            if (!next.complete(true)) {
+                // タイムアウト・取り消し済み → 枠を戻して次の待ちへ
+                lock.lock();
+                try {
+                    inflight--;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void removeWaiter(CompletableFuture<Boolean> waiter) {
+        lock.lock();
+        try {
+            waiters.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, (int) Math.floor(limit * backoffRatio));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.calmall.global.resilience;
+
+/**
+ * サーキットブレーカーが OPEN、または同時実行上限に達しているため
+ * 外部呼び出しを行わずに即時失敗したことを示す例外。
+ */
+public class CallNotPermittedException extends RuntimeException {
+
+    private final String dependency;
+    private final String reason;
+
+    public CallNotPermittedException(String dependency, String reason) {
+        super(dependency + " call not permitted: " + reason);
+        this.dependency = dependency;
+        this.reason = reason;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /** 例外の原因チェーンに CallNotPermittedException が含まれるか */
+    public static boolean isCauseOf(Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (c instanceof CallNotPermittedException) return true;
+            if (c.getCause() == c) break;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.calmall.global.resilience;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 件数ベースのスライディングウィンドウで失敗率を判定するサーキットブレーカー。
+ * - CLOSED: 通常通り呼び出す。直近 windowSize 件の失敗率が閾値以上で OPEN
+ * - OPEN: openDurationMs の間は即時拒否。経過後 HALF_OPEN
+ * - HALF_OPEN: halfOpenMaxCalls 件だけ試行し、全成功で CLOSED、1件でも失敗で OPEN
+ *
+ * 仮想スレッドのピン留めを避けるため synchronized ではなく ReentrantLock を使い、
+ * 状態遷移の通知（ログ・メトリクス）はロック解放後に行う。
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private record Transition(State from, State to) {}
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMs;
+    private final int halfOpenMaxCalls;
+    private final BiConsumer<State, State> onTransition;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // 直近の結果（true=失敗）のリングバッファ
+    private final boolean[] window;
+    private int windowPos;
+    private int windowCount;
+    private int windowFailures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDurationMs, int halfOpenMaxCalls, BiConsumer<State, State> onTransition) {
+        this(windowSize, minimumCalls, failureRateThreshold, openDurationMs, halfOpenMaxCalls, onTransition,
+                System::currentTimeMillis);
+    }
+
+    // テスト用（時計を差し替える）
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openDurationMs,
+                   int halfOpenMaxCalls, BiConsumer<State, State> onTransition, LongSupplier clock) {
+        this.clock = clock;
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenMaxCalls = Math.max(1, halfOpenMaxCalls);
+        this.onTransition = onTransition;
+        this.window = new boolean[this.windowSize];
+    }
+
+    /** 呼び出してよいか（HALF_OPEN では試行枠を 1 つ消費する） */
+    public boolean tryAcquirePermission() {
+        Transition t = null;
+        boolean permitted;
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (clock.getAsLong() - openedAt < openDurationMs) return false;
+                t = transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                permitted = true;
+            } else if (halfOpenPermits >= halfOpenMaxCalls) {
+                permitted = false;
+            } else {
+                halfOpenPermits++;
+                permitted = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        fire(t);
+        return permitted;
+    }
+
+    /** 試行枠を消費せずに、現時点で呼び出しが許可される状態かを返す */
+    public boolean isCallPermitted() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) return clock.getAsLong() - openedAt >= openDurationMs;
+            if (state == State.HALF_OPEN) return halfOpenPermits < halfOpenMaxCalls;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        Transition t = null;
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                if (++halfOpenSuccesses >= halfOpenMaxCalls) t = transitionTo(State.CLOSED);
+            } else {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+        fire(t);
+    }
+
+    public void onFailure() {
+        Transition t = null;
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                t = transitionTo(State.OPEN);
+            } else {
+                record(true);
+                if (state == State.CLOSED && windowCount >= minimumCalls
+                        && (double) windowFailures / windowCount >= failureRateThreshold) {
+                    t = transitionTo(State.OPEN);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        fire(t);
+    }
+
+    /** 許可を得たが結果を記録しない場合（呼び出し前の拒否など）に HALF_OPEN の枠を戻す */
+    public void releasePermission() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && halfOpenPermits > 0) halfOpenPermits--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == windowSize) {
+            if (window[windowPos]) windowFailures--;
+        } else {
+            windowCount++;
+        }
+        window[windowPos] = failure;
+        if (failure) windowFailures++;
+        windowPos = (windowPos + 1) % windowSize;
+    }
+
+    // ロック保持中に呼ぶ。通知はロック解放後に fire() で行う
+    private Transition transitionTo(State next) {
+        State prev = state;
+        if (prev == next) return null;
+        state = next;
+        if (next == State.OPEN) openedAt = clock.getAsLong();
+        if (next != State.OPEN) {
+            halfOpenPermits = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (next == State.CLOSED) {
+            windowPos = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+        return new Transition(prev, next);
+    }
+
+    private void fire(Transition t) {
+        if (t != null && onTransition != null) onTransition.accept(t.from(), t.to());
+    }
+}
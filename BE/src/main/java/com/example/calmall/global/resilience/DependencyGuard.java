@@ -0,0 +1,209 @@
+package com.example.calmall.global.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 外部依存（Groq / 楽天 API など）への呼び出しを
+ * サーキットブレーカー + AIMD 同時実行リミッターで保護する。
+ *
+ * メトリクス（tag: name）:
+ * - resilience.circuit.state       … 0=CLOSED, 1=OPEN, 2=HALF_OPEN
+ * - resilience.circuit.transitions … 状態遷移回数（tag: from, to）
+ * - resilience.limit / resilience.inflight … 現在の同時実行上限と実行中件数
+ * - resilience.rejected            … 拒否件数（tag: reason = circuit_open / limit）
+ * - resilience.waiting             … 同時実行上限の空き待ち件数
+ *
+ * 同時実行上限に達している場合は acquireTimeoutMs まで空きを待ち、それでも空かなければ拒否する。
+ */
+@Slf4j
+public class DependencyGuard {
+
+    /** 保護対象の呼び出し（チェック例外をそのまま透過する） */
+    @FunctionalInterface
+    public interface GuardedCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final String name;
+    private final CircuitBreaker breaker;
+    private final AimdLimiter limiter;
+    private final Predicate<Throwable> overload;
+    private final Predicate<Throwable> ignored;
+    private final long acquireTimeoutMs;
+    private final Counter rejectedByCircuit;
+    private final Counter rejectedByLimit;
+
+    /** 同時実行上限に達していたら待たずに拒否する */
+    public DependencyGuard(String name, CircuitBreakerSettings cb, AimdLimiter limiter,
+                           Predicate<Throwable> overload, Predicate<Throwable> ignored,
+                           MeterRegistry registry) {
+        this(name, cb, limiter, 0, overload, ignored, registry);
+    }
+
+    /**
+     * @param acquireTimeoutMs 同時実行上限に達しているときに空きを待つ最大時間（0 で待たずに拒否）
+     * @param overload         同時実行上限を下げるべき失敗（429・タイムアウト等）の判定
+     * @param ignored          依存先の障害とみなさない失敗（呼び出し側都合の中断等）の判定
+     */
+    public DependencyGuard(String name, CircuitBreakerSettings cb, AimdLimiter limiter, long acquireTimeoutMs,
+                           Predicate<Throwable> overload, Predicate<Throwable> ignored,
+                           MeterRegistry registry) {
+        this.name = name;
+        this.acquireTimeoutMs = Math.max(0, acquireTimeoutMs);
+        this.limiter = limiter;
+        this.overload = overload != null ? overload : t -> false;
+        this.ignored = ignored != null ? ignored : t -> false;
+        this.breaker = new CircuitBreaker(cb.windowSize(), cb.minimumCalls(), cb.failureRateThreshold(),
+                cb.openDurationMs(), cb.halfOpenMaxCalls(), (from, to) -> {
+                    log.warn("[Resilience] {} circuit {} -> {}", name, from, to);
+                    registry.counter("resilience.circuit.transitions",
+                            "name", name, "from", from.name(), "to", to.name()).increment();
+                });
+
+        Gauge.builder("resilience.circuit.state", breaker, b -> b.getState().ordinal())
+                .tag("name", name)
+                .description("0=CLOSED, 1=OPEN, 2=HALF_OPEN")
+                .register(registry);
+        Gauge.builder("resilience.limit", limiter, AimdLimiter::getLimit).tag("name", name).register(registry);
+        Gauge.builder("resilience.inflight", limiter, AimdLimiter::getInflight).tag("name", name).register(registry);
+        Gauge.builder("resilience.waiting", limiter, AimdLimiter::getWaiting).tag("name", name).register(registry);
+        this.rejectedByCircuit = registry.counter("resilience.rejected", "name", name, "reason", "circuit_open");
+        this.rejectedByLimit = registry.counter("resilience.rejected", "name", name, "reason", "limit");
+    }
+
+    /** サーキットブレーカーの設定値 */
+    public record CircuitBreakerSettings(int windowSize, int minimumCalls, double failureRateThreshold,
+                                         long openDurationMs, int halfOpenMaxCalls) {}
+
+    /**
+     * 保護付きで呼び出す。
+     * OPEN の場合、または同時実行上限の空きを acquireTimeoutMs 待っても得られない場合は
+     * 呼び出さずに CallNotPermittedException を投げる。
+     */
+    public <T, E extends Exception> T execute(GuardedCall<T, E> call) throws E {
+        return execute(call, r -> 1);
+    }
+
+    /**
+     * execute と同じ。遅延悪化の判定に使う RTT を結果のコスト（出力量など）で割って比較する。
+     */
+    public <T, E extends Exception> T execute(GuardedCall<T, E> call, ToLongFunction<? super T> cost) throws E {
+        if (!breaker.tryAcquirePermission()) {
+            rejectedByCircuit.increment();
+            throw new CallNotPermittedException(name, "circuit open");
+        }
+        if (!limiter.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw rejectByLimit();
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            limiter.onSuccess(System.nanoTime() - start, costOf(cost, result));
+            breaker.onSuccess();
+            return result;
+        } catch (Exception e) {
+            onError(e);
+            throw e;
+        } catch (Error e) {
+            limiter.onIgnored();
+            breaker.releasePermission();
+            throw e;
+        }
+    }
+
+    /**
+     * 非同期呼び出しを保護付きで開始する。
+     * 同時実行上限の空き待ちはスレッドを止めずに行い（acquireTimeoutMs まで）、結果の記録は future の完了時に行う。
+     * 拒否時は CallNotPermittedException で失敗した future を返す。
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> call) {
+        return executeAsync(call, r -> 1);
+    }
+
+    /** executeAsync と同じ。遅延悪化の判定に使う RTT を結果のコストで割って比較する */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> call, ToLongFunction<? super T> cost) {
+        if (!breaker.tryAcquirePermission()) {
+            rejectedByCircuit.increment();
+            return CompletableFuture.failedFuture(new CallNotPermittedException(name, "circuit open"));
+        }
+        return limiter.acquireAsync(acquireTimeoutMs, TimeUnit.MILLISECONDS)
+                .thenCompose(granted -> granted
+                        ? startAsync(call, cost)
+                        : CompletableFuture.<T>failedFuture(rejectByLimit()));
+    }
+
+    private <T> CompletableFuture<T> startAsync(Supplier<CompletableFuture<T>> call, ToLongFunction<? super T> cost) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            onError(e);
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> {
+            if (error == null) {
+                limiter.onSuccess(System.nanoTime() - start, costOf(cost, result));
+                breaker.onSuccess();
+            } else {
+                onError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+    }
+
+    /** OPEN 中なら即時に CallNotPermittedException を投げる（待機を伴う前処理の前に使う） */
+    public void ensureAvailable() {
+        if (!breaker.isCallPermitted()) {
+            rejectedByCircuit.increment();
+            throw new CallNotPermittedException(name, "circuit open");
+        }
+    }
+
+    public CircuitBreaker.State getState() {
+        return breaker.getState();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // 空き待ちがタイムアウトした：確保済みのサーキットの試行枠を戻して拒否する
+    private CallNotPermittedException rejectByLimit() {
+        breaker.releasePermission();
+        rejectedByLimit.increment();
+        return new CallNotPermittedException(name, "concurrency limit " + limiter.getLimit() + " reached");
+    }
+
+    private static <T> long costOf(ToLongFunction<? super T> cost, T result) {
+        try {
+            return Math.max(1, cost.applyAsLong(result));
+        } catch (RuntimeException e) {
+            return 1;
+        }
+    }
+
+    private void onError(Throwable e) {
+        if (ignored.test(e)) {
+            limiter.onIgnored();
+            breaker.onSuccess();
+            return;
+        }
+        if (overload.test(e)) {
+            limiter.onDropped();
+        } else {
+            limiter.onIgnored();
+        }
+        breaker.onFailure();
+    }
+}
@@ -39,7 +39,7 @@ public class CalmallServiceImpl implements CalmallService {
     private final ReviewRepository reviewRepository;
     private final ReviewLikeRepository reviewLikeRepository;
 
-    private final RestTemplate restTemplate = new RestTemplate(); // HTTPクライアント
+    private final RestTemplate restTemplate; // HTTPクライアント（共通 Bean・メトリクス計測対象）
 
     // 楽天APIから商品情報を取得し、DBに保存（初回のみ）
     @Override
@@ -0,0 +1,63 @@
+package com.example.calmall.global.startup;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * JVM 起動から最初の HTTP リクエスト（ヘルスチェック・メトリクス取得を除く）の応答完了までの時間を記録する。
+ *
+ * メトリクス:
+ * - application.first.request.time … 秒（最初のリクエスト完了までは NaN）
+ *
+ * Boot 標準の application.started.time / application.ready.time と並べて回帰を確認する。
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FirstRequestMetrics extends OncePerRequestFilter {
+
+    private final AtomicBoolean recorded = new AtomicBoolean();
+    private volatile double firstRequestSeconds = Double.NaN;
+
+    public FirstRequestMetrics(MeterRegistry registry) {
+        Gauge.builder("application.first.request.time", this, m -> m.firstRequestSeconds)
+                .description("JVM 起動から最初のリクエスト完了までの秒数")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // 記録済み、または起動監視のためのアクセスは対象外
+        String uri = request.getRequestURI();
+        return recorded.get() || uri.startsWith("/actuator") || uri.equals("/health");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (recorded.compareAndSet(false, true)) {
+                long startMs = ManagementFactory.getRuntimeMXBean().getStartTime();
+                firstRequestSeconds = (System.currentTimeMillis() - startMs) / 1000.0;
+                log.info("[Startup] first request {} {} completed {}s after JVM start",
+                        request.getMethod(), request.getRequestURI(), firstRequestSeconds);
+            }
+        }
+    }
+}
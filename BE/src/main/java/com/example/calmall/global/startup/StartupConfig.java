@@ -0,0 +1,44 @@
+package com.example.calmall.global.startup;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * 起動時間短縮のための設定
+ * - リクエスト処理に必須でない Bean（springdoc の API ドキュメント / Swagger UI）を遅延初期化にする
+ *   （初回アクセス時に生成される。AOT 処理時もこの設定が生成コードに引き継がれる）
+ */
+@Configuration(proxyBeanMethods = false)
+public class StartupConfig {
+
+    // 遅延初期化にする Bean のパッケージ（Bean クラス名 / @Bean 定義元の構成クラス名で判定）
+    private static final List<String> LAZY_PACKAGES = List.of("org.springdoc.");
+
+    @Bean
+    public static BeanFactoryPostProcessor nonCriticalLazyInitPostProcessor() {
+        return beanFactory -> markLazy(beanFactory);
+    }
+
+    private static void markLazy(ConfigurableListableBeanFactory beanFactory) {
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition bd = beanFactory.getBeanDefinition(name);
+            if (bd.isLazyInit() || bd.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) continue;
+            if (inLazyPackage(name) || inLazyPackage(bd.getBeanClassName()) || inLazyPackage(bd.getFactoryBeanName())) {
+                bd.setLazyInit(true);
+            }
+        }
+    }
+
+    private static boolean inLazyPackage(String className) {
+        if (className == null) return false;
+        for (String prefix : LAZY_PACKAGES) {
+            if (className.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+}
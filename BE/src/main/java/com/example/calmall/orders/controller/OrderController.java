@@ -18,7 +18,7 @@ import com.example.calmall.orders.dto.OrderListResponseDto;
 import com.example.calmall.orders.dto.OrderRequestDto;
 import com.example.calmall.orders.entity.Orders;
 import com.example.calmall.orders.service.OrderService;
-import com.example.calmall.user.entity.User;
+import com.example.calmall.user.session.SessionUser;
 import com.example.calmall.orders.dto.OrderListResponseDto.OrderSummary;
 
 import jakarta.servlet.http.HttpSession;
@@ -38,13 +38,12 @@ public class OrderController {
     //注文
     @PostMapping
     public ResponseEntity<ApiResponseDto> createOrder(@RequestBody OrderRequestDto requestDto, HttpSession session) {
-        User user = (User) session.getAttribute("user");
-        String userId = user.getUserId();
+        String userId = SessionUser.userIdOf(session);
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponseDto("fail: ログインが必要です"));
         }
         try {
-            orderService.createOrder(requestDto, user.getUserId());
+            orderService.createOrder(requestDto, userId);
             return ResponseEntity.ok(new ApiResponseDto("success"));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponseDto("fail: " + e.getMessage()));
@@ -54,13 +53,12 @@ public class OrderController {
     //キャンセル
     @PostMapping("/cancel/{orderId}")
     public ResponseEntity<ApiResponseDto> cancelOrder(@PathVariable Long orderId, HttpSession session) {
-        User user = (User) session.getAttribute("user");
-        String userId = user.getUserId();
+        String userId = SessionUser.userIdOf(session);
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponseDto("fail: ログインが必要です"));
         }
         try {
-            orderService.cancelOrder(orderId, user.getUserId()); // 修正: userIdを追加
+            orderService.cancelOrder(orderId, userId); // 修正: userIdを追加
             return ResponseEntity.ok(new ApiResponseDto("success"));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ApiResponseDto("fail: " + e.getMessage()));
@@ -70,13 +68,12 @@ public class OrderController {
     //払い戻し
     @PostMapping("/refund/{orderId}")
     public ResponseEntity<ApiResponseDto> refundOrder(@PathVariable Long orderId, HttpSession session) {
-        User user = (User) session.getAttribute("user");
-        String userId = user.getUserId();
+        String userId = SessionUser.userIdOf(session);
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponseDto("fail: ログインが必要です"));
         }
         try {
-            orderService.refundOrder(orderId, user.getUserId()); // 修正: userIdを追加
+            orderService.refundOrder(orderId, userId); // 修正: userIdを追加
             return ResponseEntity.ok(new ApiResponseDto("success"));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponseDto("fail: " + e.getMessage()));
@@ -90,15 +87,14 @@ public class OrderController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
-        User user = (User) session.getAttribute("user");
-        String userId = user.getUserId();
+        String userId = SessionUser.userIdOf(session);
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
                 OrderListResponseDto.builder().message("fail").build());
         }
 
         Pageable pageable = PageRequest.of(page, size,Sort.by("createdAt").descending());
-        Page<Orders> ordersPage = orderService.findOrdersByUserId(user.getUserId(), pageable);
+        Page<Orders> ordersPage = orderService.findOrdersByUserId(userId, pageable);
         
         List<OrderSummary> orderSummaries = ordersPage.getContent().stream()
             .flatMap(order -> order.getOrderItems().stream()
@@ -125,14 +121,13 @@ public class OrderController {
     //個別商品確認
     @GetMapping("/{orderId}")
     public ResponseEntity<OrderDetailResponseDto> getOrderDetails(@PathVariable Long orderId, HttpSession session) {
-        User user = (User) session.getAttribute("user");
-        String userId = user.getUserId();
+        String userId = SessionUser.userIdOf(session);
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
                 OrderDetailResponseDto.builder().message("fail").build());
         }
 
-        Optional<Orders> orderOptional = orderService.getOrderByIdAndUserId(orderId, user.getUserId());
+        Optional<Orders> orderOptional = orderService.getOrderByIdAndUserId(orderId, userId);
         
         if (orderOptional.isPresent()) {
             Orders order = orderOptional.get();
@@ -167,14 +162,14 @@ public class OrderController {
     /* 
     @PostMapping("/check")
     public ResponseEntity<OrderCheckResponseDto> checkOrder(@RequestBody OrderRequestDto requestDto, HttpSession session) {
-        User user = (User) session.getAttribute("user");
-        if (user == null) {
+        String userId = SessionUser.userIdOf(session);
+        if (userId == null) {
             OrderCheckResponseDto errorResponse = new OrderCheckResponseDto();
             errorResponse.setMessage("fail: ログインが必要です");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
         }
         try {
-            OrderCheckResponseDto response = orderService.checkOrder(requestDto, user.getUserId());
+            OrderCheckResponseDto response = orderService.checkOrder(requestDto, userId);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             OrderCheckResponseDto errorResponse = new OrderCheckResponseDto();
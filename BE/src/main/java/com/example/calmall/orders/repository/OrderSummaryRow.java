@@ -0,0 +1,11 @@
+package com.example.calmall.orders.repository;
+
+/**
+ * マイページの注文履歴用プロジェクション（注文IDと先頭明細の代表画像のみ）
+ */
+public interface OrderSummaryRow {
+
+    Long getId();
+
+    String getImageUrl();
+}
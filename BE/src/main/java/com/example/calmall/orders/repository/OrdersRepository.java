@@ -52,6 +52,28 @@ public interface OrdersRepository extends JpaRepository<Orders, Long> {
 
     List<Orders> findTop10ByUserOrderByCreatedAtDesc(User user);
 
+    /**
+     * マイページ用：最新10件の注文IDと先頭明細の代表画像を 1 クエリで取得する。
+     * 画像は注文時点のスナップショット（image_list_urls の先頭）を優先し、無ければ商品の先頭画像を使う。
+     */
+    @Query(value = """
+        SELECT o.id AS id,
+               COALESCE(NULLIF(btrim(split_part(oi.image_list_urls, ',', 1)), ''), p.image_urls[1]) AS imageUrl
+          FROM orders o
+          LEFT JOIN LATERAL (
+                SELECT i.image_list_urls, i.item_code
+                  FROM order_items i
+                 WHERE i.order_id = o.id
+                 ORDER BY i.id
+                 LIMIT 1
+               ) oi ON true
+          LEFT JOIN product p ON p.item_code = oi.item_code
+         WHERE o.user_id = :userId
+         ORDER BY o.created_at DESC
+         LIMIT 10
+    """, nativeQuery = true)
+    List<OrderSummaryRow> findRecentSummariesByUserId(@Param("userId") String userId);
+
     //ユーザの注文履歴
     List<Orders> findByUser_UserId(String userId);
     //ページネーション
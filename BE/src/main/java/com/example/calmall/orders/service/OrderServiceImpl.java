@@ -10,6 +10,7 @@ import com.example.calmall.product.entity.Product;
 import com.example.calmall.product.repository.ProductRepository;
 import com.example.calmall.user.entity.User;
 import com.example.calmall.user.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -37,6 +38,7 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     @Transactional
+    @Timed(value = "order.create", histogram = true)
     public Orders createOrder(OrderRequestDto requestDto, String userId) {
         User user = userRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("ログイン中のユーザーが見つかりません: " + userId));
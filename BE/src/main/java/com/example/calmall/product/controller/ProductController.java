@@ -1,11 +1,16 @@
 package com.example.calmall.product.controller;
 
 import com.example.calmall.product.dto.ProductDetailResponseDto;
+import com.example.calmall.product.dto.ProductSearchResponseDto;
+import com.example.calmall.product.dto.ProductSuggestResponseDto;
+import com.example.calmall.product.service.ProductSearchService;
 import com.example.calmall.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 
 // 商品関連のAPIを提供するコントローラークラス
 @RestController
@@ -14,12 +19,30 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+
+    // 保存済み商品のキーワード検索API（楽天APIは呼ばない）
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResponseDto> searchProducts(@RequestParam("q") String keyword,
+                                                                   @RequestParam(defaultValue = "1") int page,
+                                                                   @RequestParam(defaultValue = "20") int size) {
+        // フロントは1始まり → Springは0始まりのため変換
+        int pageIndex = Math.max(0, page - 1);
+        return productSearchService.search(keyword, pageIndex, size);
+    }
 
+    // 商品名の入力補完API（インメモリインデックス。mode=or で部分一致の候補も返す）
+    @GetMapping("/suggest")
+    public ResponseEntity<ProductSuggestResponseDto> suggest(@RequestParam("q") String keyword,
+                                                             @RequestParam(defaultValue = "and") String mode,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        return productSearchService.suggest(keyword, !"or".equalsIgnoreCase(mode), limit);
+    }
 
     // 商品詳細を取得するAPI
     @GetMapping("/{itemCode}")
-    public ResponseEntity<ProductDetailResponseDto> getProductDetail(@PathVariable String itemCode) {
-        return productService.getProductDetail(itemCode);
+    public CompletableFuture<ResponseEntity<ProductDetailResponseDto>> getProductDetail(@PathVariable String itemCode) {
+        return productService.getProductDetailAsync(itemCode);
     }
 
     // 購入可能かどうかをチェックするAPI
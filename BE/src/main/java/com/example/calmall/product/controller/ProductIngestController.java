@@ -0,0 +1,60 @@
+package com.example.calmall.product.controller;
+
+import com.example.calmall.product.dto.ProductIngestRequestDto;
+import com.example.calmall.product.dto.ProductIngestResponseDto;
+import com.example.calmall.product.service.ProductIngestService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+
+// 管理者向け：楽天検索結果から商品を一括取り込みするAPI
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class ProductIngestController {
+
+    private final ProductIngestService productIngestService;
+
+    // 未設定の場合は API 自体を無効にする
+    @Value("${admin.token:}")
+    private String adminToken;
+
+
+    // 商品の一括取り込み（ヘッダ X-Admin-Token が必要）。ジョブとして受け付けて 202 を返す
+    @PostMapping("/ingest")
+    public ResponseEntity<ProductIngestResponseDto> ingest(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token,
+            @RequestBody ProductIngestRequestDto request
+    ) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ProductIngestResponseDto.builder().message("fail").error("forbidden").build());
+        }
+        return productIngestService.ingest(request);
+    }
+
+    // 取り込みジョブの状態・結果（ヘッダ X-Admin-Token が必要）
+    @GetMapping("/ingest/{jobId}")
+    public ResponseEntity<ProductIngestResponseDto> getJob(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token,
+            @PathVariable String jobId
+    ) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ProductIngestResponseDto.builder().message("fail").error("forbidden").build());
+        }
+        return productIngestService.getJob(jobId);
+    }
+
+    private boolean isAdmin(String token) {
+        if (adminToken == null || adminToken.isBlank() || token == null) return false;
+        // 比較時間からトークンを推測されないよう定数時間で比較する
+        return MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
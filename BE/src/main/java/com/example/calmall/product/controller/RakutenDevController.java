@@ -6,6 +6,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 
 // 楽天APIの検索結果をそのまま返す
 @RestController
@@ -18,12 +20,11 @@ public class RakutenDevController {
 
     // キーワード検索結果の生JSONを返す。
     @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> search(
+    public CompletableFuture<ResponseEntity<String>> search(
             @RequestParam("keyword") String keyword,
             @RequestParam(value = "shopCode", required = false) String shopCode,
             @RequestParam(value = "hits", required = false) Integer hits
     ) {
-        String body = rakutenSearchService.searchRaw(keyword, shopCode, hits);
-        return ResponseEntity.ok(body);
+        return rakutenSearchService.searchRawAsync(keyword, shopCode, hits).thenApply(ResponseEntity::ok);
     }
 }
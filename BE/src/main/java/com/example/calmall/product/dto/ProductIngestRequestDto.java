@@ -0,0 +1,25 @@
+package com.example.calmall.product.dto;
+
+import lombok.*;
+
+/**
+ * 商品一括取り込みAPIのリクエストDTO（keyword と shopCode の少なくとも一方が必要）
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductIngestRequestDto {
+
+    /** 検索キーワード */
+    private String keyword;
+
+    /** ショップコード */
+    private String shopCode;
+
+    /** 1ページあたりの件数（1〜30、省略時 30） */
+    private Integer hits;
+
+    /** 取り込む最大ページ数（省略時 3、上限は calmall.ingest.max-pages） */
+    private Integer maxPages;
+}
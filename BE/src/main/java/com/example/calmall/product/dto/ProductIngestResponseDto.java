@@ -0,0 +1,43 @@
+package com.example.calmall.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+/**
+ * 商品一括取り込みAPIのレスポンスDTO
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductIngestResponseDto {
+
+    /** レスポンスメッセージ（"success" / "partial" / "fail"） */
+    private String message;
+
+    /** 取り込みジョブ ID */
+    private String jobId;
+
+    /** ジョブの状態（"queued" / "running" / "done"） */
+    private String status;
+
+    /** 楽天APIから取得したページ数 */
+    private int pages;
+
+    /** 取得した商品数（重複除去後） */
+    private int fetched;
+
+    /** 新規登録した商品数 */
+    private int inserted;
+
+    /** 更新した商品数 */
+    private int updated;
+
+    /** 説明文の整形を非同期キューに積んだ商品数 */
+    private int queuedForCleaning;
+
+    /** 途中で中断した場合の理由 */
+    private String error;
+}
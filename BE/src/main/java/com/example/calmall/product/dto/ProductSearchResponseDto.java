@@ -0,0 +1,62 @@
+package com.example.calmall.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 商品検索APIのレスポンスDTO（一覧表示用の軽量な項目のみ）
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductSearchResponseDto {
+
+    /** レスポンスメッセージ（"success" または "fail"） */
+    private String message;
+
+    /** 検索結果 */
+    private List<ProductSummary> products;
+
+    /** 総ページ数（ページネーション用） */
+    private int totalPages;
+
+    /** 現在のページ番号（1始まり） */
+    private int currentPage;
+
+    /** 次ページが存在するかどうか */
+    private boolean hasNext;
+
+    /** 全件数 */
+    private long totalElements;
+
+    /**
+     * 【内部クラス】検索結果の商品
+     */
+    @Getter
+    @Setter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductSummary {
+
+        /** 楽天API itemCode */
+        private String itemCode;
+
+        /** 商品名 */
+        private String itemName;
+
+        /** キャッチコピー */
+        private String catchcopy;
+
+        /** 価格 */
+        private Integer price;
+
+        /** 代表画像URL */
+        private String imageUrl;
+    }
+}
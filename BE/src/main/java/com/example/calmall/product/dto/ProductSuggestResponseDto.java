@@ -0,0 +1,47 @@
+package com.example.calmall.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 商品名の入力補完APIのレスポンスDTO
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductSuggestResponseDto {
+
+    /** レスポンスメッセージ（"success" または "fail"） */
+    private String message;
+
+    /** インデックスの構築が完了しているか（false の間は候補が欠けることがある） */
+    private boolean complete;
+
+    /** 候補一覧（スコア降順） */
+    private List<Suggestion> suggestions;
+
+    /**
+     * 【内部クラス】候補
+     */
+    @Getter
+    @Setter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Suggestion {
+
+        /** 楽天API itemCode */
+        private String itemCode;
+
+        /** 商品名 */
+        private String itemName;
+
+        /** 一致スコア */
+        private int score;
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.calmall.product.entity;
 
+import com.example.calmall.product.search.ProductIndexEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "product")
+@EntityListeners(ProductIndexEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -40,11 +45,11 @@ public class Product {
     @Column(name = "inventory")
     private Integer inventory;
 
-    // 画像URL一覧
-    @ElementCollection
-    @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "item_code"))
-    @Column(name = "image_url", columnDefinition = "text")
-    private List<String> images;
+    // 画像URL一覧（product 行内の text[]。別テーブルを引かずに 1 行で読める）
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "image_urls", columnDefinition = "text[]")
+    @Builder.Default
+    private List<String> images = new ArrayList<>();
 
     // 商品状態
     @Builder.Default
@@ -69,4 +74,12 @@ public class Product {
     // 説明（安全なHTML）
     @jakarta.persistence.Column(name = "description_html", columnDefinition = "TEXT")
     private String descriptionHtml;
+
+    // 整形元テキストのハッシュ（SHA-256 hex、変更検知用）
+    @Column(name = "source_hash", length = 64)
+    private String sourceHash;
+
+    // 整形時に使用した LLM プロンプトのバージョン
+    @Column(name = "cleaned_with_prompt_version", length = 32)
+    private String cleanedWithPromptVersion;
 }
@@ -0,0 +1,10 @@
+package com.example.calmall.product.event;
+
+import java.util.List;
+
+/**
+ * JPA を経由せずに（ProductJdbcRepository で）商品が追加・更新されたことを通知するイベント。
+ * エンティティリスナーが動かないため、検索インデックス等はこのイベントで追従する。
+ * トランザクション内で発行されるため、受け取り側はコミット後に処理すること。
+ */
+public record ProductUpsertedEvent(List<String> itemCodes) {}
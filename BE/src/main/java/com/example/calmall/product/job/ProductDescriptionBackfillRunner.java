@@ -1,32 +1,42 @@
 package com.example.calmall.product.job;
 
 import com.example.calmall.product.entity.Product;
+import com.example.calmall.product.repository.ProductJdbcRepository;
 import com.example.calmall.product.repository.ProductRepository;
 import com.example.calmall.product.service.RakutenApiService;
 import com.example.calmall.product.text.DescriptionCleanerFacade; // ★ Facade 注入
+import com.example.calmall.product.text.DescriptionSourceHash;
+import com.example.calmall.product.text.LlmDescriptionFormatter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 商品説明の一括整形（backfill.product-description=true の場合のみ Bean 化される）
+ * - 無効時は依存 Bean ごと生成しないため起動が軽くなる
+ * - AOT 処理済みで起動した場合は条件がビルド時に固定されるため、有効化するときは spring.aot.enabled を外して起動する
+ */
 @Component
+@ConditionalOnProperty(name = "backfill.product-description", havingValue = "true")
 @RequiredArgsConstructor
 @Slf4j
 public class ProductDescriptionBackfillRunner implements CommandLineRunner {
 
     private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
     private final RakutenApiService rakutenApiService;
 
     // ★ 追加
     private final DescriptionCleanerFacade descriptionCleanerFacade;
 
-    // 起動時に実行するか
-    @Value("${backfill.product-description:false}")
-    private boolean enabled;
-
     // ページサイズ
     @Value("${backfill.page-size:500}")
     private int pageSize;
@@ -39,84 +49,156 @@ public class ProductDescriptionBackfillRunner implements CommandLineRunner {
     @Value("${backfill.mode:clean}")
     private String mode;
 
+    // 短文の説明を複数件まとめて LLM に送るか（件数は groq.batch.size）
+    @Value("${backfill.llm-batch:true}")
+    private boolean llmBatch;
+
     @Override
     public void run(String... args) {
-        if (!enabled) {
-            log.info("[Backfill] disabled");
-            return;
-        }
-
         int page = 0;
         int updated = 0;
         int processed = 0;
         int refetched = 0;
+        int skipped = 0;
 
-        log.info("[Backfill] start pageSize={} mode={} persistItemCaption={}",
-                pageSize, mode, persistItemCaption);
+        log.info("[Backfill] start pageSize={} mode={} persistItemCaption={} promptVersion={} llmBatch={}",
+                pageSize, mode, persistItemCaption, LlmDescriptionFormatter.PROMPT_VERSION, llmBatch);
 
         while (true) {
             Page<Product> p = productRepository.findAll(PageRequest.of(page, pageSize));
             if (p.isEmpty()) break;
 
+            // 1) 整形が必要な商品を収集
+            List<Pending> pending = new ArrayList<>();
             for (Product prod : p.getContent()) {
                 try {
                     processed++;
-                    Product source = prod;
 
-                    // --- mode=refetch の場合、楽天API再取得 ---
+                    String srcHtml = prod.getDescriptionHtml();
+                    String srcPlain = prod.getDescriptionPlain();
+                    String srcCaption = prod.getItemCaption();
+                    String sourceHash = prod.getSourceHash();
+
+                    // --- mode=refetch の場合、楽天API再取得（原文のまま） ---
                     if ("refetch".equalsIgnoreCase(mode)) {
-                        var freshOpt = rakutenApiService.fetchProductFromRakuten(prod.getItemCode());
+                        var freshOpt = rakutenApiService.fetchRawProductFromRakuten(prod.getItemCode());
                         if (freshOpt.isPresent()) {
-                            source = freshOpt.get();
+                            Product fresh = freshOpt.get();
+                            srcHtml = null;
+                            srcPlain = null;
+                            srcCaption = fresh.getItemCaption();
+                            sourceHash = fresh.getSourceHash();
                             refetched++;
                         } else {
                             log.warn("[Backfill] refetch failed itemCode={}", prod.getItemCode());
                         }
                     }
-
-                    // ★ Facade 経由（LLM → fallback）
-                    String cleanHtml = descriptionCleanerFacade.buildCleanHtml(
-                            source.getDescriptionHtml(),
-                            source.getDescriptionPlain(),
-                            source.getItemCaption()
-                    );
-                    String cleanPlain = descriptionCleanerFacade.toPlain(cleanHtml);
-
-                    boolean dirty = false;
-
-                    if (!equalsSafe(cleanHtml, prod.getDescriptionHtml())) {
-                        prod.setDescriptionHtml(cleanHtml);
-                        dirty = true;
-                    }
-                    if (!equalsSafe(cleanPlain, prod.getDescriptionPlain())) {
-                        prod.setDescriptionPlain(cleanPlain);
-                        dirty = true;
-                    }
-                    if (persistItemCaption && !equalsSafe(cleanHtml, prod.getItemCaption())) {
-                        prod.setItemCaption(cleanHtml);
-                        dirty = true;
+                    if (sourceHash == null) {
+                        sourceHash = DescriptionSourceHash.of(srcHtml, srcPlain, srcCaption);
                     }
 
-                    if (dirty) {
-                        productRepository.save(prod);
-                        updated++;
-                        if (log.isDebugEnabled()) {
-                            log.debug("[Backfill][Updated] itemCode={} len(html)={}",
-                                    prod.getItemCode(), cleanHtml.length());
-                        }
+                    // 原文・プロンプトとも前回整形時から変化なし → LLM を呼ばない
+                    if (isUpToDate(prod, sourceHash)) {
+                        skipped++;
+                        continue;
                     }
+                    pending.add(new Pending(prod, sourceHash,
+                            new LlmDescriptionFormatter.BatchItem(srcHtml, srcPlain, srcCaption, prod.getItemName())));
 
                 } catch (Exception e) {
                     log.warn("[Backfill] failed itemCode={} : {}", prod.getItemCode(), e.getMessage());
                 }
             }
 
+            // 2) ★ Facade 経由（LLM → fallback）。バッチ有効時は短文をまとめて送信
+            List<String> cleaned = cleanAll(pending);
+
+            // 3) 結果を反映
+            for (int i = 0; i < pending.size(); i++) {
+                Pending pd = pending.get(i);
+                try {
+                    if (apply(pd, cleaned.get(i))) updated++;
+                } catch (Exception e) {
+                    log.warn("[Backfill] failed itemCode={} : {}", pd.product().getItemCode(), e.getMessage());
+                }
+            }
+
             if (!p.hasNext()) break;
             page++;
         }
 
-        log.info("[Backfill] done processed={} updated={} refetched={} pageSize={} mode={}",
-                processed, updated, refetched, pageSize, mode);
+        log.info("[Backfill] done processed={} updated={} skipped={} refetched={} pageSize={} mode={}",
+                processed, updated, skipped, refetched, pageSize, mode);
+    }
+
+    // 整形待ちの 1 件
+    private record Pending(Product product, String sourceHash, LlmDescriptionFormatter.BatchItem source) {}
+
+    private List<String> cleanAll(List<Pending> pending) {
+        if (pending.isEmpty()) return List.of();
+        if (llmBatch) {
+            return descriptionCleanerFacade.buildCleanHtmlBatch(pending.stream().map(Pending::source).toList());
+        }
+        List<String> out = new ArrayList<>(pending.size());
+        for (Pending pd : pending) {
+            LlmDescriptionFormatter.BatchItem src = pd.source();
+            String html;
+            try {
+                html = descriptionCleanerFacade.buildCleanHtml(src.rawHtml(), src.rawPlain(), src.itemCaption());
+            } catch (Exception e) {
+                log.warn("[Backfill] failed itemCode={} : {}", pd.product().getItemCode(), e.getMessage());
+                html = null;
+            }
+            out.add(html);
+        }
+        return out;
+    }
+
+    // 整形結果を反映して保存。更新した場合 true
+    private boolean apply(Pending pd, String cleanHtml) {
+        Product prod = pd.product();
+        if (cleanHtml == null) return false;
+        if (LlmDescriptionFormatter.isFallbackOutput(cleanHtml)) {
+            log.warn("[Backfill] LLM fallback → skip saving itemCode={}", prod.getItemCode());
+            return false;
+        }
+        String cleanPlain = descriptionCleanerFacade.toPlain(cleanHtml);
+
+        boolean dirty = false;
+
+        if (!equalsSafe(cleanHtml, prod.getDescriptionHtml())) {
+            prod.setDescriptionHtml(cleanHtml);
+            dirty = true;
+        }
+        if (!equalsSafe(cleanPlain, prod.getDescriptionPlain())) {
+            prod.setDescriptionPlain(cleanPlain);
+            dirty = true;
+        }
+        if (persistItemCaption && !equalsSafe(cleanHtml, prod.getItemCaption())) {
+            prod.setItemCaption(cleanHtml);
+            dirty = true;
+        }
+        if (!equalsSafe(pd.sourceHash(), prod.getSourceHash())
+                || !equalsSafe(LlmDescriptionFormatter.PROMPT_VERSION, prod.getCleanedWithPromptVersion())) {
+            prod.setSourceHash(pd.sourceHash());
+            prod.setCleanedWithPromptVersion(LlmDescriptionFormatter.PROMPT_VERSION);
+            dirty = true;
+        }
+
+        if (dirty) {
+            productJdbcRepository.upsert(prod);
+            if (log.isDebugEnabled()) {
+                log.debug("[Backfill][Updated] itemCode={} len(html)={}",
+                        prod.getItemCode(), cleanHtml.length());
+            }
+        }
+        return dirty;
+    }
+
+    // 整形元ハッシュとプロンプトバージョンが一致すれば再整形不要
+    private static boolean isUpToDate(Product prod, String sourceHash) {
+        return sourceHash.equals(prod.getSourceHash())
+                && LlmDescriptionFormatter.PROMPT_VERSION.equals(prod.getCleanedWithPromptVersion());
     }
 
     private boolean equalsSafe(String a, String b) {
@@ -0,0 +1,187 @@
+package com.example.calmall.product.repository;
+
+import com.example.calmall.product.entity.Product;
+import com.example.calmall.product.event.ProductUpsertedEvent;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 商品の書き込み専用リポジトリ（JDBC + INSERT ... ON CONFLICT）。
+ *
+ * Product は itemCode を自前で採番する @Id のため、JPA の save() は新規でも merge になり
+ * INSERT/UPDATE の前に SELECT を挟む。ここでは 1 文の upsert で往復回数を減らす。
+ * 画像は product.image_urls（text[]）に行内で持つため、同じ文で書き込む。
+ *
+ * - JPA のエンティティリスナーは動かないため、コミット後に処理されるよう ProductUpsertedEvent を発行する
+ * - 永続化コンテキストに載っている商品は書き込み後に detach する（後続の flush で二重に UPDATE しないため）
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductJdbcRepository {
+
+    /**
+     * 原文が変わり再整形待ちであることを示す cleaned_with_prompt_version の値。
+     * 現行のプロンプトバージョンと一致しないため、詳細表示時・整形ジョブで整形対象になる。
+     */
+    public static final String PENDING_CLEAN_VERSION = "pending";
+
+    // 取り込み用：在庫・状態・作成日時・整形結果は既存行の値を保持する。
+    // 説明の原文（source_hash）が変わった場合のみ caption を差し替え、整形結果をクリアする
+    private static final String INGEST_UPSERT_SQL = """
+            INSERT INTO product (item_code, item_name, item_caption, catchcopy, price, inventory, status,
+                                 item_url, created_at, image_urls, source_hash, cleaned_with_prompt_version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (item_code) DO UPDATE SET
+                item_name  = EXCLUDED.item_name,
+                catchcopy  = EXCLUDED.catchcopy,
+                price      = EXCLUDED.price,
+                item_url   = EXCLUDED.item_url,
+                image_urls = EXCLUDED.image_urls,
+                item_caption = CASE WHEN product.source_hash IS DISTINCT FROM EXCLUDED.source_hash
+                                    THEN EXCLUDED.item_caption ELSE product.item_caption END,
+                description_html = CASE WHEN product.source_hash IS DISTINCT FROM EXCLUDED.source_hash
+                                        THEN NULL ELSE product.description_html END,
+                description_plain = CASE WHEN product.source_hash IS DISTINCT FROM EXCLUDED.source_hash
+                                         THEN NULL ELSE product.description_plain END,
+                cleaned_with_prompt_version = CASE WHEN product.source_hash IS DISTINCT FROM EXCLUDED.source_hash
+                                                   THEN EXCLUDED.cleaned_with_prompt_version
+                                                   ELSE product.cleaned_with_prompt_version END,
+                source_hash = EXCLUDED.source_hash
+            """;
+
+    // 保存用：渡された値で行全体を書き込む。
+    // 在庫・状態は注文処理が更新するため既存行の値を保持し、作成日時は最初の値を残す
+    private static final String UPSERT_SQL = """
+            INSERT INTO product (item_code, item_name, item_caption, catchcopy, price, inventory, status,
+                                 item_url, created_at, image_urls, description_plain, description_html,
+                                 source_hash, cleaned_with_prompt_version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (item_code) DO UPDATE SET
+                item_name         = EXCLUDED.item_name,
+                item_caption      = EXCLUDED.item_caption,
+                catchcopy         = EXCLUDED.catchcopy,
+                price             = EXCLUDED.price,
+                item_url          = EXCLUDED.item_url,
+                created_at        = COALESCE(product.created_at, EXCLUDED.created_at),
+                image_urls        = EXCLUDED.image_urls,
+                description_plain = EXCLUDED.description_plain,
+                description_html  = EXCLUDED.description_html,
+                source_hash       = EXCLUDED.source_hash,
+                cleaned_with_prompt_version = EXCLUDED.cleaned_with_prompt_version
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** 一括取り込みの結果 */
+    public record UpsertResult(int inserted, int updated, List<String> needsClean) {}
+
+    /** 商品 1 件を保存する */
+    @Transactional
+    public void upsert(Product product) {
+        upsertAll(List.of(product));
+    }
+
+    /**
+     * 商品をまとめて保存する（JDBC バッチ）。
+     * 同じ商品コードを複数含めないこと。
+     */
+    @Transactional
+    public void upsertAll(List<Product> products) {
+        if (products.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT_SQL, products, products.size(), (ps, p) -> {
+            int i = bindCommon(ps, p);
+            ps.setString(i++, p.getDescriptionPlain());
+            ps.setString(i++, p.getDescriptionHtml());
+            ps.setString(i++, p.getSourceHash());
+            ps.setString(i, p.getCleanedWithPromptVersion());
+        });
+        afterWrite(products);
+    }
+
+    /**
+     * 楽天から取得した原文の商品をまとめて取り込む。
+     * 戻り値の needsClean は、新規・原文変更・現行プロンプト（promptVersion）で未整形のいずれかに該当する商品コード。
+     * 同じ商品コードを複数含めないこと。
+     */
+    @Transactional
+    public UpsertResult batchUpsert(List<Product> products, String promptVersion) {
+        if (products.isEmpty()) return new UpsertResult(0, 0, List.of());
+
+        // 1) 既存行の原文ハッシュ・整形バージョンを取得（新規/変更の判定用）
+        String[] codes = codesOf(products);
+        Map<String, String[]> existing = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT item_code, source_hash, cleaned_with_prompt_version FROM product WHERE item_code = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", codes)),
+                rs -> {
+                    existing.put(rs.getString(1), new String[]{rs.getString(2), rs.getString(3)});
+                });
+
+        int inserted = 0;
+        List<String> needsClean = new ArrayList<>();
+        for (Product p : products) {
+            String[] row = existing.get(p.getItemCode());
+            if (row == null) {
+                inserted++;
+                needsClean.add(p.getItemCode());
+            } else if (!Objects.equals(row[0], p.getSourceHash())
+                    || !Objects.equals(promptVersion, row[1])) {
+                needsClean.add(p.getItemCode());
+            }
+        }
+
+        // 2) 商品本体（画像含む）
+        jdbcTemplate.batchUpdate(INGEST_UPSERT_SQL, products, products.size(), (ps, p) -> {
+            int i = bindCommon(ps, p);
+            ps.setString(i++, p.getSourceHash());
+            ps.setString(i, p.getCleanedWithPromptVersion() != null ? p.getCleanedWithPromptVersion() : PENDING_CLEAN_VERSION);
+        });
+
+        afterWrite(products);
+
+        return new UpsertResult(inserted, products.size() - inserted, needsClean);
+    }
+
+    // 1〜10 番目（item_code 〜 image_urls）を設定し、次の番号を返す
+    private static int bindCommon(PreparedStatement ps, Product p) throws SQLException {
+        ps.setString(1, p.getItemCode());
+        ps.setString(2, p.getItemName());
+        ps.setString(3, p.getItemCaption());
+        ps.setString(4, p.getCatchcopy());
+        if (p.getPrice() != null) ps.setInt(5, p.getPrice()); else ps.setNull(5, Types.INTEGER);
+        if (p.getInventory() != null) ps.setInt(6, p.getInventory()); else ps.setNull(6, Types.INTEGER);
+        ps.setBoolean(7, !Boolean.FALSE.equals(p.getStatus()));
+        ps.setString(8, p.getItemUrl());
+        ps.setTimestamp(9, p.getCreatedAt() != null ? Timestamp.valueOf(p.getCreatedAt()) : null);
+        ps.setArray(10, ps.getConnection().createArrayOf("text",
+                p.getImages() != null ? p.getImages().toArray() : new Object[0]));
+        return 11;
+    }
+
+    private void afterWrite(List<Product> products) {
+        for (Product p : products) {
+            if (entityManager.contains(p)) entityManager.detach(p);
+        }
+        eventPublisher.publishEvent(new ProductUpsertedEvent(List.of(codesOf(products))));
+    }
+
+    private static String[] codesOf(List<Product> products) {
+        return products.stream().map(Product::getItemCode).toArray(String[]::new);
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.calmall.product.repository;
 
 import com.example.calmall.product.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 
@@ -11,4 +16,75 @@ public interface ProductRepository extends JpaRepository<Product, String> {
 
     //  楽天の商品コード（itemCode）で商品を検索する
     Optional<Product> findByItemCode(String itemCode);
+
+    /**
+     * ローカルの商品テーブルをキーワード検索する（pg_trgm の GIN インデックスを利用）
+     * - pattern は LIKE 用にエスケープ済みの "%keyword%"
+     * - 3 文字未満のキーワードは索引が効かないため、ProductSearchServiceImpl がインメモリ索引で検索する
+     * - 商品名一致を優先し、商品名との類似度順に並べる
+     */
+    @Query(value = """
+            SELECT p.item_code AS itemCode,
+                   p.item_name AS itemName,
+                   p.catchcopy AS catchcopy,
+                   p.price     AS price,
+                   p.image_urls[1] AS imageUrl
+              FROM product p
+             WHERE p.status IS NOT FALSE
+               AND (p.item_name ILIKE :pattern
+                    OR p.catchcopy ILIKE :pattern
+                    OR p.description_plain ILIKE :pattern)
+             ORDER BY (p.item_name ILIKE :pattern) DESC,
+                      similarity(p.item_name, :keyword) DESC,
+                      p.item_code
+            """,
+            countQuery = """
+            SELECT count(*)
+              FROM product p
+             WHERE p.status IS NOT FALSE
+               AND (p.item_name ILIKE :pattern
+                    OR p.catchcopy ILIKE :pattern
+                    OR p.description_plain ILIKE :pattern)
+            """,
+            nativeQuery = true)
+    Page<ProductSearchRow> searchByKeyword(@Param("keyword") String keyword,
+                                           @Param("pattern") String pattern,
+                                           Pageable pageable);
+
+    /**
+     * 指定商品の検索結果用の列（インメモリ索引で見つけた商品の表示用。並び順は呼び出し側で揃える）
+     */
+    @Query(value = """
+            SELECT p.item_code AS itemCode,
+                   p.item_name AS itemName,
+                   p.catchcopy AS catchcopy,
+                   p.price     AS price,
+                   p.image_urls[1] AS imageUrl
+              FROM product p
+             WHERE p.item_code IN (:itemCodes)
+               AND p.status IS NOT FALSE
+            """,
+            nativeQuery = true)
+    List<ProductSearchRow> findSearchRowsByItemCodeIn(@Param("itemCodes") List<String> itemCodes);
+
+    /**
+     * 検索インデックス構築用：itemCode 順のキーセットページング（after より後ろを limit 件）
+     */
+    @Query("""
+            SELECT p.itemCode AS itemCode, p.itemName AS itemName,
+                   p.catchcopy AS catchcopy, p.descriptionPlain AS descriptionPlain
+              FROM Product p
+             WHERE p.itemCode > :after AND (p.status IS NULL OR p.status = true)
+             ORDER BY p.itemCode
+            """)
+    List<ProductTextRow> findTextAfter(@Param("after") String after, Pageable limit);
+
+    // 指定商品の索引対象テキスト（JDBC 一括取り込み後のインデックス反映用）
+    @Query("""
+            SELECT p.itemCode AS itemCode, p.itemName AS itemName,
+                   p.catchcopy AS catchcopy, p.descriptionPlain AS descriptionPlain
+              FROM Product p
+             WHERE p.itemCode IN :itemCodes
+            """)
+    List<ProductTextRow> findTextByItemCodeIn(@Param("itemCodes") List<String> itemCodes);
 }
@@ -0,0 +1,18 @@
+package com.example.calmall.product.repository;
+
+/**
+ * 商品検索用の軽量プロジェクション（一覧表示に必要な列のみ）
+ */
+public interface ProductSearchRow {
+
+    String getItemCode();
+
+    String getItemName();
+
+    String getCatchcopy();
+
+    Integer getPrice();
+
+    // 代表画像（image_urls の先頭）
+    String getImageUrl();
+}
@@ -0,0 +1,15 @@
+package com.example.calmall.product.repository;
+
+/**
+ * 検索インデックス構築用のプロジェクション（索引対象のテキスト列のみ）
+ */
+public interface ProductTextRow {
+
+    String getItemCode();
+
+    String getItemName();
+
+    String getCatchcopy();
+
+    String getDescriptionPlain();
+}
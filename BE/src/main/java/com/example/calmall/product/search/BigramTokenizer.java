@@ -0,0 +1,59 @@
+package com.example.calmall.product.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * 文字 bi-gram トークナイザ。
+ * - NFKC 正規化（全角英数→半角、半角カナ→全角）と小文字化を行う
+ * - 空白・記号で区切られた連続部分ごとに 2 文字ずつ切り出す（漢字・かな混在でも辞書不要）
+ * - トークンは (c1 << 16) | c2 の int で表す（1 文字だけの部分は c2 = 0）
+ */
+public final class BigramTokenizer {
+
+    private BigramTokenizer() {}
+
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) return "";
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+    }
+
+    /** 正規化済みテキストの bi-gram を出現順に返す（重複あり） */
+    public static int[] tokens(String normalized) {
+        int n = normalized.length();
+        int[] out = new int[Math.max(n, 1)];
+        int size = 0;
+        int runStart = -1;
+        for (int i = 0; i <= n; i++) {
+            boolean word = i < n && isIndexable(normalized.charAt(i));
+            if (word) {
+                if (runStart < 0) runStart = i;
+                continue;
+            }
+            if (runStart >= 0) {
+                if (i - runStart == 1) {
+                    out[size++] = key(normalized.charAt(runStart), '\0');
+                } else {
+                    for (int j = runStart; j + 1 < i; j++) {
+                        out[size++] = key(normalized.charAt(j), normalized.charAt(j + 1));
+                    }
+                }
+                runStart = -1;
+            }
+        }
+        return size == out.length ? out : Arrays.copyOf(out, size);
+    }
+
+    public static int key(char c1, char c2) {
+        return (c1 << 16) | c2;
+    }
+
+    public static char firstChar(int key) {
+        return (char) (key >>> 16);
+    }
+
+    // 文字・数字・長音記号を索引対象にする（空白や句読点は区切り）
+    private static boolean isIndexable(char c) {
+        return Character.isLetterOrDigit(c) || c == 'ー' || c == '々';
+    }
+}
@@ -0,0 +1,478 @@
+package com.example.calmall.product.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品テキスト（商品名・キャッチコピー・説明）の文字 bi-gram 転置インデックス。
+ *
+ * - トークン（int）→ PostingList の表はオープンアドレス法の配列で持ち、Integer のボクシングを避ける
+ * - 商品ごとに連番の doc-id を振る。更新時は旧 doc-id を削除済み（BitSet）にして新しい doc-id で追記するため、
+ *   転置リストは常に昇順追記になり差分 varint で圧縮できる
+ * - 削除済みが一定割合を超えたら compact() で doc-id を詰め直す
+ * - スコアは一致したトークンごとのフィールド重み（商品名 3・キャッチコピー 2・説明 1）の合計
+ */
+public class InvertedIndex {
+
+    public enum Mode { AND, OR }
+
+    public record Hit(String itemCode, String itemName, int score) {}
+
+    static final int WEIGHT_NAME = 3;
+    static final int WEIGHT_CATCHCOPY = 2;
+    static final int WEIGHT_DESCRIPTION = 1;
+    static final int MAX_WEIGHT = 255;
+
+    // 説明文は先頭のみ索引する（長文でメモリを食い過ぎないように）
+    static final int MAX_DESCRIPTION_CHARS = 2000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // token → postings（key 0 は未使用スロット。bi-gram の先頭は必ず文字なので 0 にはならない）
+    private int[] tableKeys = new int[1 << 12];
+    private PostingList[] tableValues = new PostingList[1 << 12];
+    private int tableSize;
+
+    // doc-id → 商品コード / 商品名
+    private String[] docCodes = new String[1024];
+    private String[] docNames = new String[1024];
+    private int docCount;
+    private final Map<String, Integer> docByCode = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+
+    /** 追加または置き換え */
+    public void upsert(String itemCode, String itemName, String catchcopy, String descriptionPlain) {
+        int[] packed = docTokens(itemName, catchcopy, descriptionPlain);
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemCode);
+            addLocked(itemCode, itemName, packed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** 未登録のときだけ追加する（起動時の一括構築で、先に反映された更新を古い行で上書きしないため） */
+    public boolean addIfAbsent(String itemCode, String itemName, String catchcopy, String descriptionPlain) {
+        int[] packed = docTokens(itemName, catchcopy, descriptionPlain);
+        lock.writeLock().lock();
+        try {
+            if (docByCode.containsKey(itemCode)) return false;
+            addLocked(itemCode, itemName, packed);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String itemCode) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemCode);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * ランク付き検索。
+     * AND はクエリの全 bi-gram を含む商品、OR はいずれかを含む商品をスコア降順で返す。
+     * 1 文字だけのクエリは、その文字で始まる bi-gram の OR として扱う（入力補完用）。
+     */
+    public List<Hit> search(String query, Mode mode, int limit) {
+        String q = BigramTokenizer.normalize(query);
+        int[] tokens = distinct(BigramTokenizer.tokens(q));
+        if (tokens.length == 0 || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            if (tokens.length == 1 && (tokens[0] & 0xffff) == 0) {
+                return union(prefixLists(BigramTokenizer.firstChar(tokens[0])), limit);
+            }
+            List<PostingList> lists = new ArrayList<>(tokens.length);
+            for (int t : tokens) {
+                PostingList pl = get(t);
+                if (pl != null) {
+                    lists.add(pl);
+                } else if (mode == Mode.AND) {
+                    return List.of();
+                }
+            }
+            return (mode == Mode.AND) ? intersect(lists, limit) : union(lists, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 部分一致検索（商品検索の 1〜2 文字のキーワード用。pg_trgm の索引が効かない長さ）。
+     * 1 文字はその文字を含むすべての bi-gram（先頭・末尾どちらでも）の OR、2 文字以上は AND と同じ。
+     */
+    public List<Hit> searchContaining(String query, int limit) {
+        String q = BigramTokenizer.normalize(query);
+        int[] tokens = distinct(BigramTokenizer.tokens(q));
+        if (tokens.length != 1 || (tokens[0] & 0xffff) != 0) return search(query, Mode.AND, limit);
+        if (limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            return union(containingLists(BigramTokenizer.firstChar(tokens[0])), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 有効な（削除済みでない）商品数 */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tokenCount() {
+        lock.readLock().lock();
+        try {
+            return tableSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 削除済み doc-id の割合 */
+    public double deletedRatio() {
+        lock.readLock().lock();
+        try {
+            return docCount == 0 ? 0 : (double) deletedCount / docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 転置リスト・トークン表・doc 表の概算バイト数（商品コード・商品名の文字列本体と HashMap は除く）
+     */
+    public long estimatedPostingBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = (long) tableKeys.length * 4 + (long) tableValues.length * 4;
+            for (PostingList pl : tableValues) {
+                if (pl != null) bytes += 16 + 16 + pl.capacityBytes();
+            }
+            bytes += (long) docCodes.length * 4 * 2 + deleted.size() / 8;
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 転置リストの余分な領域を切り詰める */
+    public void trim() {
+        lock.writeLock().lock();
+        try {
+            for (PostingList pl : tableValues) {
+                if (pl != null) pl.trim();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** 削除済み doc-id を取り除き、doc-id を詰め直す */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            if (deletedCount == 0) return;
+            int[] remap = new int[docCount];
+            int next = 0;
+            for (int d = 0; d < docCount; d++) {
+                if (deleted.get(d)) {
+                    remap[d] = -1;
+                } else {
+                    remap[d] = next;
+                    docCodes[next] = docCodes[d];
+                    docNames[next] = docNames[d];
+                    docByCode.put(docCodes[next], next);
+                    next++;
+                }
+            }
+            Arrays.fill(docCodes, next, docCount, null);
+            Arrays.fill(docNames, next, docCount, null);
+
+            for (int i = 0; i < tableValues.length; i++) {
+                PostingList pl = tableValues[i];
+                if (pl == null) continue;
+                int[] docs = new int[pl.count()];
+                int[] weights = new int[pl.count()];
+                int n = pl.decode(docs, weights);
+                PostingList rebuilt = new PostingList();
+                for (int j = 0; j < n; j++) {
+                    int nd = remap[docs[j]];
+                    if (nd >= 0) rebuilt.append(nd, weights[j]);
+                }
+                rebuilt.trim();
+                // 空になったトークンも残す（オープンアドレス表から消すと探索が途切れるため）
+                tableValues[i] = rebuilt;
+            }
+            docCount = next;
+            deleted.clear();
+            deletedCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---- 追加・削除 ----
+
+    private void addLocked(String itemCode, String itemName, int[] packed) {
+        int docId = docCount;
+        if (docId == docCodes.length) {
+            docCodes = Arrays.copyOf(docCodes, docId * 2);
+            docNames = Arrays.copyOf(docNames, docId * 2);
+        }
+        docCodes[docId] = itemCode;
+        docNames[docId] = itemName;
+        docCount++;
+        docByCode.put(itemCode, docId);
+
+        // packed は token, weight の組が交互に並ぶ
+        for (int i = 0; i < packed.length; i += 2) {
+            getOrCreate(packed[i]).append(docId, packed[i + 1]);
+        }
+    }
+
+    private void removeLocked(String itemCode) {
+        Integer old = docByCode.remove(itemCode);
+        if (old != null && !deleted.get(old)) {
+            deleted.set(old);
+            docNames[old] = null;
+            deletedCount++;
+        }
+    }
+
+    /**
+     * 商品 1 件分のトークンと重みを集約し、token, weight の組を交互に並べた配列で返す。
+     * 並べ替えは (token << 8) | weight の long で行う。
+     */
+    private static int[] docTokens(String itemName, String catchcopy, String descriptionPlain) {
+        String desc = descriptionPlain;
+        if (desc != null && desc.length() > MAX_DESCRIPTION_CHARS) desc = desc.substring(0, MAX_DESCRIPTION_CHARS);
+
+        int[] name = BigramTokenizer.tokens(BigramTokenizer.normalize(itemName));
+        int[] copy = BigramTokenizer.tokens(BigramTokenizer.normalize(catchcopy));
+        int[] description = BigramTokenizer.tokens(BigramTokenizer.normalize(desc));
+
+        long[] all = new long[name.length + copy.length + description.length];
+        int i = 0;
+        for (int t : name) all[i++] = ((long) t << 8) | WEIGHT_NAME;
+        for (int t : copy) all[i++] = ((long) t << 8) | WEIGHT_CATCHCOPY;
+        for (int t : description) all[i++] = ((long) t << 8) | WEIGHT_DESCRIPTION;
+        Arrays.sort(all);
+
+        // 同一トークンの重みを合算（上限 MAX_WEIGHT）
+        long[] merged = new long[all.length];
+        int m = 0;
+        for (int j = 0; j < all.length; ) {
+            long token = all[j] >> 8;
+            int w = 0;
+            while (j < all.length && (all[j] >> 8) == token) {
+                w += (int) (all[j] & 0xff);
+                j++;
+            }
+            merged[m++] = (token << 8) | Math.min(w, MAX_WEIGHT);
+        }
+
+        int[] out = new int[m * 2];
+        for (int j = 0; j < m; j++) {
+            out[j * 2] = (int) (merged[j] >> 8);
+            out[j * 2 + 1] = (int) (merged[j] & 0xff);
+        }
+        return out;
+    }
+
+    // ---- トークン表（int → PostingList のオープンアドレス法） ----
+
+    private PostingList get(int key) {
+        int mask = tableKeys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            int k = tableKeys[i];
+            if (k == key) return tableValues[i];
+            if (k == 0) return null;
+        }
+    }
+
+    private PostingList getOrCreate(int key) {
+        if ((tableSize + 1) * 4 > tableKeys.length * 3) rehash();
+        int mask = tableKeys.length - 1;
+        int i = mix(key) & mask;
+        while (tableKeys[i] != 0) {
+            if (tableKeys[i] == key) return tableValues[i];
+            i = (i + 1) & mask;
+        }
+        tableKeys[i] = key;
+        PostingList pl = new PostingList();
+        tableValues[i] = pl;
+        tableSize++;
+        return pl;
+    }
+
+    private void rehash() {
+        int[] oldKeys = tableKeys;
+        PostingList[] oldValues = tableValues;
+        tableKeys = new int[oldKeys.length * 2];
+        tableValues = new PostingList[oldKeys.length * 2];
+        int mask = tableKeys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (tableKeys[i] != 0) i = (i + 1) & mask;
+            tableKeys[i] = oldKeys[j];
+            tableValues[i] = oldValues[j];
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private List<PostingList> prefixLists(char c) {
+        List<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i < tableKeys.length; i++) {
+            if (tableKeys[i] != 0 && BigramTokenizer.firstChar(tableKeys[i]) == c) lists.add(tableValues[i]);
+        }
+        return lists;
+    }
+
+    private List<PostingList> containingLists(char c) {
+        List<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i < tableKeys.length; i++) {
+            int key = tableKeys[i];
+            if (key != 0 && (BigramTokenizer.firstChar(key) == c || (char) key == c)) lists.add(tableValues[i]);
+        }
+        return lists;
+    }
+
+    // ---- 検索 ----
+
+    // 全トークンを含む doc をリープフロッグ方式で求める（短いリスト起点で、他はスキップ情報で読み飛ばす）
+    private List<Hit> intersect(List<PostingList> lists, int limit) {
+        if (lists.isEmpty()) return List.of();
+        lists.sort((a, b) -> Integer.compare(a.count(), b.count()));
+        PostingList.Cursor[] cursors = new PostingList.Cursor[lists.size()];
+        for (int i = 0; i < cursors.length; i++) cursors[i] = lists.get(i).cursor();
+
+        TopK top = new TopK(limit);
+        PostingList.Cursor lead = cursors[0];
+        int target = 0;
+        outer:
+        while (lead.advance(target)) {
+            int doc = lead.doc;
+            int score = lead.weight;
+            for (int i = 1; i < cursors.length; i++) {
+                if (!cursors[i].advance(doc)) break outer;
+                if (cursors[i].doc != doc) {
+                    target = cursors[i].doc;
+                    continue outer;
+                }
+                score += cursors[i].weight;
+            }
+            if (!deleted.get(doc)) top.offer(score, doc);
+            target = doc + 1;
+        }
+        return top.toHits();
+    }
+
+    // いずれかのトークンを含む doc のスコアを doc-id 添字の配列に積算する
+    private List<Hit> union(List<PostingList> lists, int limit) {
+        int[] scores = new int[docCount];
+        for (PostingList pl : lists) {
+            PostingList.Cursor c = pl.cursor();
+            while (c.next()) scores[c.doc] += c.weight;
+        }
+        TopK top = new TopK(limit);
+        for (int doc = 0; doc < docCount; doc++) {
+            if (scores[doc] > 0 && !deleted.get(doc)) top.offer(scores[doc], doc);
+        }
+        return top.toHits();
+    }
+
+    /**
+     * 上位 k 件を保持する最小ヒープ（(score << 32) | (MAX - doc) の long で比較）。
+     * 同点は doc-id の小さい（古い登録順）方を優先する。
+     */
+    private final class TopK {
+        private final long[] heap;
+        private int size;
+
+        TopK(int k) {
+            heap = new long[k];
+        }
+
+        void offer(int score, int doc) {
+            long v = ((long) score << 32) | (Integer.MAX_VALUE - doc);
+            if (size < heap.length) {
+                heap[size] = v;
+                siftUp(size++);
+            } else if (v > heap[0]) {
+                heap[0] = v;
+                siftDown(0);
+            }
+        }
+
+        List<Hit> toHits() {
+            long[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+            List<Hit> hits = new ArrayList<>(size);
+            for (int i = size - 1; i >= 0; i--) {
+                int doc = Integer.MAX_VALUE - (int) (sorted[i] & 0xffffffffL);
+                hits.add(new Hit(docCodes[doc], docNames[doc], (int) (sorted[i] >>> 32)));
+            }
+            return hits;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= heap[i]) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int l = i * 2 + 1;
+                if (l >= size) break;
+                int m = (l + 1 < size && heap[l + 1] < heap[l]) ? l + 1 : l;
+                if (heap[i] <= heap[m]) break;
+                swap(i, m);
+                i = m;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long t = heap[a];
+            heap[a] = heap[b];
+            heap[b] = t;
+        }
+    }
+
+    private static int[] distinct(int[] tokens) {
+        int[] copy = tokens.clone();
+        Arrays.sort(copy);
+        int m = 0;
+        for (int i = 0; i < copy.length; i++) {
+            if (i == 0 || copy[i] != copy[i - 1]) copy[m++] = copy[i];
+        }
+        return Arrays.copyOf(copy, m);
+    }
+}
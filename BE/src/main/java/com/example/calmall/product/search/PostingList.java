@@ -0,0 +1,174 @@
+package com.example.calmall.product.search;
+
+import java.util.Arrays;
+
+/**
+ * 1 トークン分の転置リスト。
+ * doc-id は昇順に追記されるため、直前との差分と重みを可変長整数（varint）で詰めて保持する。
+ * SKIP_INTERVAL 件ごとにスキップ情報（直前の doc-id とバイト位置）を持ち、AND 検索で読み飛ばせるようにする。
+ * スレッド安全ではない（InvertedIndex のロック下で使う）。
+ */
+final class PostingList {
+
+    static final int SKIP_INTERVAL = 64;
+
+    private byte[] buf = new byte[8];
+    private int length;
+    private int count;
+    private int lastDoc = -1;
+
+    private static final int[] NO_SKIPS = new int[0];
+
+    // ブロック k（k * SKIP_INTERVAL 件目から、k >= 1）の直前の doc-id と開始バイト位置を [k - 1] に持つ。
+    // 大半のトークンは 1 ブロックに収まるため、ブロック 0 は持たない
+    private int[] skipBase = NO_SKIPS;
+    private int[] skipOffset = NO_SKIPS;
+    private int skipCount;
+
+    void append(int docId, int weight) {
+        if (docId <= lastDoc) {
+            throw new IllegalArgumentException("doc-id must be increasing: " + docId + " <= " + lastDoc);
+        }
+        if (count > 0 && count % SKIP_INTERVAL == 0) {
+            if (skipCount == skipBase.length) {
+                skipBase = Arrays.copyOf(skipBase, Math.max(4, skipCount * 2));
+                skipOffset = Arrays.copyOf(skipOffset, Math.max(4, skipCount * 2));
+            }
+            skipBase[skipCount] = lastDoc;
+            skipOffset[skipCount] = length;
+            skipCount++;
+        }
+        ensureCapacity(10);
+        writeVarint(docId - lastDoc);
+        writeVarint(weight);
+        lastDoc = docId;
+        count++;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /** 確保済みバッファのバイト数（メモリ見積もり用） */
+    int capacityBytes() {
+        return buf.length + skipBase.length * 8;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /** doc-id と重みを展開する。戻り値は件数 */
+    int decode(int[] docs, int[] weights) {
+        int pos = 0;
+        int doc = -1;
+        for (int i = 0; i < count; i++) {
+            int v = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buf[pos++];
+                v |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += v;
+
+            int w = 0;
+            shift = 0;
+            do {
+                b = buf[pos++];
+                w |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            docs[i] = doc;
+            weights[i] = w;
+        }
+        return count;
+    }
+
+    /** 余分な領域を切り詰める（一括構築の後に呼ぶ） */
+    void trim() {
+        if (buf.length > length) buf = Arrays.copyOf(buf, length);
+        if (skipBase.length > skipCount) {
+            skipBase = Arrays.copyOf(skipBase, skipCount);
+            skipOffset = Arrays.copyOf(skipOffset, skipCount);
+        }
+    }
+
+    /** 先頭から順に読むカーソル（advance でスキップ情報を使って読み飛ばす） */
+    final class Cursor {
+        private int index = -1;
+        private int pos;
+        int doc = -1;
+        int weight;
+
+        /** 次の要素へ進む。末尾なら false */
+        boolean next() {
+            if (++index >= count) {
+                doc = Integer.MAX_VALUE;
+                return false;
+            }
+            int v = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buf[pos++];
+                v |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += v;
+
+            int w = 0;
+            shift = 0;
+            do {
+                b = buf[pos++];
+                w |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            weight = w;
+            return true;
+        }
+
+        /** doc-id が target 以上の最初の要素へ進む。無ければ false */
+        boolean advance(int target) {
+            if (index >= 0 && doc >= target) return index < count;
+            // 直前の doc-id が target 未満の最後のブロックへ飛ぶ（現在より後ろのブロックのみ）
+            int lo = Math.max(0, index) / SKIP_INTERVAL;
+            int hi = skipCount - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (skipBase[mid] < target) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            if (found >= 0) {
+                index = (found + 1) * SKIP_INTERVAL - 1;
+                pos = skipOffset[found];
+                doc = skipBase[found];
+            }
+            while (next()) {
+                if (doc >= target) return true;
+            }
+            return false;
+        }
+    }
+
+    private void writeVarint(int v) {
+        while ((v & ~0x7f) != 0) {
+            buf[length++] = (byte) ((v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        buf[length++] = (byte) v;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length + (buf.length >> 1), length + extra));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.calmall.product.search;
+
+import com.example.calmall.product.entity.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Product の保存・削除を検索インデックスへ反映する JPA エンティティリスナー。
+ * - ロールバックされた変更を索引しないよう、トランザクション中はコミット後に反映する
+ * - EntityManagerFactory の生成中に循環参照しないよう、ProductIndexService は遅延取得する
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductIndexEntityListener {
+
+    private final ObjectProvider<ProductIndexService> indexService;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Product product) {
+        // コミット時点ではなく保存時点の値で索引する
+        final String itemCode = product.getItemCode();
+        final String itemName = product.getItemName();
+        final String catchcopy = product.getCatchcopy();
+        final String descriptionPlain = product.getDescriptionPlain();
+        final boolean active = !Boolean.FALSE.equals(product.getStatus());
+        afterCommit(() -> {
+            ProductIndexService service = indexService.getIfAvailable();
+            if (service == null) return;
+            if (active) {
+                service.index(itemCode, itemName, catchcopy, descriptionPlain);
+            } else {
+                service.remove(itemCode);
+            }
+        });
+    }
+
+    @PostRemove
+    public void onRemoved(Product product) {
+        final String itemCode = product.getItemCode();
+        afterCommit(() -> {
+            ProductIndexService service = indexService.getIfAvailable();
+            if (service != null) service.remove(itemCode);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.calmall.product.search;
+
+import com.example.calmall.global.concurrent.VirtualThreadSupport;
+import com.example.calmall.product.event.ProductUpsertedEvent;
+import com.example.calmall.product.repository.ProductRepository;
+import com.example.calmall.product.repository.ProductTextRow;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 商品テキストのインメモリ検索インデックスを管理する。
+ * - 起動完了後にバックグラウンドで ProductRepository から一括構築する
+ * - 商品の保存・削除は ProductIndexEntityListener からコミット後に反映される
+ * - ProductJdbcRepository での保存は ProductUpsertedEvent で反映する
+ *
+ * メトリクス: search.index.docs / search.index.tokens / search.index.bytes
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductIndexService {
+
+    private final ProductRepository productRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    // JDBC 保存分の反映用（順序を保つため 1 スレッド）
+    private final Executor updateExecutor = VirtualThreadSupport.newExecutor("product-index-", false, 1);
+    private volatile boolean ready;
+
+    @Value("${calmall.search.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${calmall.search.index.batch-size:1000}")
+    private int batchSize;
+
+    // 削除済み doc-id がこの割合を超えたら詰め直す
+    @Value("${calmall.search.index.compact-ratio:0.25}")
+    private double compactRatio;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        Gauge.builder("search.index.docs", index, InvertedIndex::size).register(meterRegistry);
+        Gauge.builder("search.index.tokens", index, InvertedIndex::tokenCount).register(meterRegistry);
+        Gauge.builder("search.index.bytes", index, InvertedIndex::estimatedPostingBytes).register(meterRegistry);
+
+        if (!enabled) {
+            log.info("[ProductIndex] disabled");
+            return;
+        }
+        Thread t = new Thread(this::build, "product-index-build");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** 一括構築が完了しているか（未完了の間は検索結果が欠けることがある） */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<InvertedIndex.Hit> search(String query, InvertedIndex.Mode mode, int limit) {
+        return index.search(query, mode, limit);
+    }
+
+    /** 部分一致検索（商品検索の短いキーワード用） */
+    public List<InvertedIndex.Hit> searchContaining(String query, int limit) {
+        return index.searchContaining(query, limit);
+    }
+
+    /** 商品の追加・更新を反映する */
+    public void index(String itemCode, String itemName, String catchcopy, String descriptionPlain) {
+        if (!enabled || itemCode == null) return;
+        index.upsert(itemCode, itemName, catchcopy, descriptionPlain);
+        compactIfNeeded();
+    }
+
+    /** 商品の削除を反映する */
+    public void remove(String itemCode) {
+        if (!enabled || itemCode == null) return;
+        index.remove(itemCode);
+        compactIfNeeded();
+    }
+
+    /**
+     * JDBC で保存された商品を反映する（エンティティリスナーが動かないため）。
+     * コミット後に、リクエストスレッドを待たせないよう専用スレッドで DB から読み直して索引する
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUpserted(ProductUpsertedEvent event) {
+        if (!enabled) return;
+        updateExecutor.execute(() -> {
+            try {
+                List<String> codes = event.itemCodes();
+                for (int from = 0; from < codes.size(); from += batchSize) {
+                    for (ProductTextRow r : productRepository.findTextByItemCodeIn(
+                            codes.subList(from, Math.min(from + batchSize, codes.size())))) {
+                        index.upsert(r.getItemCode(), r.getItemName(), r.getCatchcopy(), r.getDescriptionPlain());
+                    }
+                }
+                compactIfNeeded();
+            } catch (Exception e) {
+                log.warn("[ProductIndex] update failed items={} : {}", event.itemCodes().size(), e.getMessage());
+            }
+        });
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        int total = 0;
+        try {
+            String after = "";
+            while (true) {
+                List<ProductTextRow> rows = productRepository.findTextAfter(after, PageRequest.of(0, batchSize));
+                for (ProductTextRow r : rows) {
+                    // 構築中に保存された商品は、リスナー側で反映済みの新しい内容を優先する
+                    index.addIfAbsent(r.getItemCode(), r.getItemName(), r.getCatchcopy(), r.getDescriptionPlain());
+                }
+                total += rows.size();
+                if (rows.size() < batchSize) break;
+                after = rows.get(rows.size() - 1).getItemCode();
+            }
+            index.trim();
+            ready = true;
+            log.info("[ProductIndex] built docs={} tokens={} bytes≈{} in {}ms",
+                    total, index.tokenCount(), index.estimatedPostingBytes(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("[ProductIndex] build failed after {} docs: {}", total, e.getMessage(), e);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (index.deletedRatio() > compactRatio && index.size() > batchSize) {
+            long start = System.nanoTime();
+            index.compact();
+            log.info("[ProductIndex] compacted in {}ms", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
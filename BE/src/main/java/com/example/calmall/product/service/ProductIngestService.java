@@ -0,0 +1,17 @@
+package com.example.calmall.product.service;
+
+import com.example.calmall.product.dto.ProductIngestRequestDto;
+import com.example.calmall.product.dto.ProductIngestResponseDto;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * 楽天の検索結果から商品を一括で取り込むサービス（キャンペーン前の事前登録用）
+ */
+public interface ProductIngestService {
+
+    // 検索結果のページング取得・一括 upsert をジョブとして受け付ける（202 とジョブ ID を返す。説明文の整形も非同期）
+    ResponseEntity<ProductIngestResponseDto> ingest(ProductIngestRequestDto request);
+
+    // 取り込みジョブの状態・結果
+    ResponseEntity<ProductIngestResponseDto> getJob(String jobId);
+}
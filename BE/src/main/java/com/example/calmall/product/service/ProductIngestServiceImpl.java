@@ -0,0 +1,268 @@
+package com.example.calmall.product.service;
+
+import com.example.calmall.global.resilience.CallNotPermittedException;
+import com.example.calmall.global.resilience.DependencyGuard;
+import com.example.calmall.product.dto.ProductIngestRequestDto;
+import com.example.calmall.product.dto.ProductIngestResponseDto;
+import com.example.calmall.product.entity.Product;
+import com.example.calmall.product.repository.ProductJdbcRepository;
+import com.example.calmall.product.repository.ProductRepository;
+import com.example.calmall.product.text.DescriptionCleanerFacade;
+import com.example.calmall.product.text.LlmDescriptionFormatter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * 商品一括取り込みサービス実装
+ * - 取り込みはジョブとして専用スレッドで実行し、API は 202 とジョブ ID を返す（結果は getJob で確認する）
+ * - 楽天 IchibaItem Search を keyword / shopCode でページングし、RakutenItemMapper で Product に変換
+ * - ProductJdbcRepository で JDBC バッチ upsert（既存商品の在庫・整形結果は保持）
+ * - 整形が必要な商品は専用スレッドのキューで LLM バッチ整形する（API 応答は待たない）
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductIngestServiceImpl implements ProductIngestService {
+
+    // 楽天 API の hits 上限
+    private static final int MAX_HITS = 30;
+
+    // 状態を確認できる直近のジョブ数
+    private static final int MAX_JOBS = 100;
+
+    private final RestTemplate restTemplate;
+
+    @Qualifier("rakutenGuard")
+    private final DependencyGuard rakutenGuard;
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ProductRepository productRepository;
+    private final DescriptionCleanerFacade descriptionCleanerFacade;
+
+    // 取り込みジョブ用（楽天 API のレート制限があるため 1 スレッドで順に処理する）
+    @Qualifier("productIngestExecutor")
+    private final Executor ingestExecutor;
+
+    // 整形ジョブ用（LLM のレート制限があるため 1 スレッドで順に処理する）
+    @Qualifier("productIngestCleanExecutor")
+    private final Executor cleanExecutor;
+
+    // ジョブ ID → 状態・結果（古いものから捨てる）
+    private final Map<String, ProductIngestResponseDto> jobs = Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ProductIngestResponseDto> eldest) {
+                    return size() > MAX_JOBS;
+                }
+            });
+
+    @Value("${rakuten.app.id}")
+    private String appId;
+
+    @Value("${rakuten.affiliate.id:}")
+    private String affiliateId;
+
+    // 1リクエストで取り込む最大ページ数
+    @Value("${calmall.ingest.max-pages:10}")
+    private int maxPagesLimit;
+
+    // 楽天 API のリクエスト間隔（アプリIDあたり 1 秒 1 回の制限に合わせる）
+    @Value("${calmall.ingest.page-interval-ms:1000}")
+    private long pageIntervalMs;
+
+    // JDBC バッチ 1 回あたりの件数
+    @Value("${calmall.ingest.upsert-batch-size:100}")
+    private int upsertBatchSize;
+
+    // LLM へまとめて送る件数
+    @Value("${calmall.ingest.clean-batch-size:10}")
+    private int cleanBatchSize;
+
+    @Override
+    public ResponseEntity<ProductIngestResponseDto> ingest(ProductIngestRequestDto request) {
+        if (request == null || (!StringUtils.hasText(request.getKeyword()) && !StringUtils.hasText(request.getShopCode()))) {
+            return ResponseEntity.badRequest().body(ProductIngestResponseDto.builder()
+                    .message("fail").error("keyword または shopCode が必要です").build());
+        }
+        final String keyword = request.getKeyword();
+        final String shopCode = request.getShopCode();
+        final int hits = clamp(request.getHits(), 30, 1, MAX_HITS);
+        final int maxPages = clamp(request.getMaxPages(), 3, 1, maxPagesLimit);
+
+        final String jobId = UUID.randomUUID().toString();
+        ProductIngestResponseDto queued = ProductIngestResponseDto.builder()
+                .message("success").jobId(jobId).status("queued").build();
+        jobs.put(jobId, queued);
+        ingestExecutor.execute(() -> {
+            jobs.put(jobId, ProductIngestResponseDto.builder().message("success").jobId(jobId).status("running").build());
+            ProductIngestResponseDto result;
+            try {
+                result = run(keyword, shopCode, hits, maxPages);
+            } catch (Exception e) {
+                log.error("[Ingest] job failed jobId={} : {}", jobId, e.getMessage(), e);
+                result = ProductIngestResponseDto.builder().message("fail").error(e.getMessage()).build();
+            }
+            result.setJobId(jobId);
+            result.setStatus("done");
+            jobs.put(jobId, result);
+        });
+        log.info("[Ingest] queued jobId={} keyword={} shopCode={} hits={} maxPages={}", jobId, keyword, shopCode, hits, maxPages);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/admin/ingest/" + jobId))
+                .body(queued);
+    }
+
+    @Override
+    public ResponseEntity<ProductIngestResponseDto> getJob(String jobId) {
+        ProductIngestResponseDto job = jobs.get(jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ProductIngestResponseDto.builder().message("fail").error("job not found").build());
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    // 取り込みジョブ本体（取り込み用スレッドで実行する）
+    private ProductIngestResponseDto run(String keyword, String shopCode, int hits, int maxPages) {
+        // 1) 楽天検索をページング（ページ間で同じ商品が返ることがあるため itemCode で重複除去）
+        Map<String, Product> byCode = new LinkedHashMap<>();
+        int pages = 0;
+        String error = null;
+        for (int page = 1; page <= maxPages; page++) {
+            try {
+                if (page > 1) Thread.sleep(pageIntervalMs);
+                Map<String, Object> response = fetchPage(keyword, shopCode, hits, page);
+                pages++;
+                if (response == null || !(response.get("Items") instanceof List<?> items) || items.isEmpty()) break;
+
+                for (Object element : items) {
+                    Map<String, Object> item = RakutenItemMapper.unwrapItem(element);
+                    if (item == null) continue;
+                    Product p = RakutenItemMapper.toProduct(item);
+                    if (StringUtils.hasText(p.getItemCode())) byCode.put(p.getItemCode(), p);
+                }
+
+                Object pageCount = response.get("pageCount");
+                if (pageCount instanceof Number n && page >= n.intValue()) break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = "interrupted";
+                break;
+            } catch (CallNotPermittedException e) {
+                log.warn("[Ingest] skipped page={} : {}", page, e.getMessage());
+                error = "rakuten unavailable: " + e.getReason();
+                break;
+            } catch (Exception e) {
+                log.error("[Ingest] 取得失敗 page={} : {}", page, e.getMessage(), e);
+                error = e.getMessage();
+                break;
+            }
+        }
+
+        // 2) JDBC バッチで upsert
+        List<Product> products = new ArrayList<>(byCode.values());
+        int inserted = 0;
+        int updated = 0;
+        List<String> needsClean = new ArrayList<>();
+        for (int from = 0; from < products.size(); from += upsertBatchSize) {
+            ProductJdbcRepository.UpsertResult r = productJdbcRepository.batchUpsert(
+                    products.subList(from, Math.min(from + upsertBatchSize, products.size())),
+                    LlmDescriptionFormatter.PROMPT_VERSION);
+            inserted += r.inserted();
+            updated += r.updated();
+            needsClean.addAll(r.needsClean());
+        }
+
+        // 3) 説明文の整形は非同期
+        if (!needsClean.isEmpty()) {
+            cleanExecutor.execute(() -> cleanAll(needsClean));
+        }
+
+        log.info("[Ingest] keyword={} shopCode={} pages={} fetched={} inserted={} updated={} queued={}",
+                keyword, shopCode, pages, products.size(), inserted, updated, needsClean.size());
+
+        return ProductIngestResponseDto.builder()
+                .message(error == null ? "success" : (products.isEmpty() ? "fail" : "partial"))
+                .pages(pages)
+                .fetched(products.size())
+                .inserted(inserted)
+                .updated(updated)
+                .queuedForCleaning(needsClean.size())
+                .error(error)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> fetchPage(String keyword, String shopCode, int hits, int page) {
+        UriComponentsBuilder builder = UriComponentsBuilder
+                .fromUriString("https://app.rakuten.co.jp/services/api/IchibaItem/Search/20220601")
+                .queryParam("applicationId", appId)
+                .queryParam("format", "json")
+                .queryParam("formatVersion", 2)
+                .queryParam("hits", hits)
+                .queryParam("page", page);
+        if (StringUtils.hasText(keyword)) builder.queryParam("keyword", keyword.strip());
+        if (StringUtils.hasText(shopCode)) builder.queryParam("shopCode", shopCode.strip());
+        if (StringUtils.hasText(affiliateId)) builder.queryParam("affiliateId", affiliateId);
+        URI uri = builder.encode(StandardCharsets.UTF_8).build().toUri();
+
+        log.debug("[Ingest] GET page={} {}", page, uri);
+        return rakutenGuard.execute(() -> restTemplate.getForObject(uri, Map.class));
+    }
+
+    // 整形キューの処理本体（cleanBatchSize 件ずつ LLM バッチ整形して保存）
+    private void cleanAll(List<String> itemCodes) {
+        int cleaned = 0;
+        for (int from = 0; from < itemCodes.size(); from += cleanBatchSize) {
+            List<String> chunk = itemCodes.subList(from, Math.min(from + cleanBatchSize, itemCodes.size()));
+            try {
+                List<Product> products = productRepository.findAllById(chunk);
+                List<String> htmls = descriptionCleanerFacade.buildCleanHtmlBatch(products.stream()
+                        .map(p -> new LlmDescriptionFormatter.BatchItem(null, null, p.getItemCaption(), p.getItemName()))
+                        .toList());
+
+                List<Product> changed = new ArrayList<>();
+                for (int i = 0; i < products.size(); i++) {
+                    String html = htmls.get(i);
+                    // 代替文言は保存しない（pending のまま残し、詳細表示時に再整形させる）
+                    if (html == null || LlmDescriptionFormatter.isFallbackOutput(html)) continue;
+                    Product p = products.get(i);
+                    p.setDescriptionHtml(html);
+                    p.setDescriptionPlain(descriptionCleanerFacade.toPlain(html));
+                    p.setItemCaption(html);
+                    p.setCleanedWithPromptVersion(LlmDescriptionFormatter.PROMPT_VERSION);
+                    changed.add(p);
+                }
+                productJdbcRepository.upsertAll(changed);
+                cleaned += changed.size();
+            } catch (Exception e) {
+                log.warn("[Ingest] clean failed items={} : {}", chunk, e.getMessage());
+            }
+        }
+        log.info("[Ingest] clean done cleaned={}/{}", cleaned, itemCodes.size());
+    }
+
+    private static int clamp(Integer value, int defaultValue, int min, int max) {
+        int v = (value == null) ? defaultValue : value;
+        return Math.max(min, Math.min(v, max));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.calmall.product.service;
+
+import com.example.calmall.product.dto.ProductSearchResponseDto;
+import com.example.calmall.product.dto.ProductSuggestResponseDto;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * ローカルの商品テーブルを対象とした検索サービス
+ */
+public interface ProductSearchService {
+
+    // キーワード検索（page は 0 始まり）
+    ResponseEntity<ProductSearchResponseDto> search(String keyword, int page, int size);
+
+    // 入力補完（インメモリインデックスを参照。matchAll=true で全 bi-gram 一致）
+    ResponseEntity<ProductSuggestResponseDto> suggest(String keyword, boolean matchAll, int limit);
+}
@@ -0,0 +1,150 @@
+package com.example.calmall.product.service;
+
+import com.example.calmall.product.dto.ProductSearchResponseDto;
+import com.example.calmall.product.dto.ProductSuggestResponseDto;
+import com.example.calmall.product.repository.ProductRepository;
+import com.example.calmall.product.repository.ProductSearchRow;
+import com.example.calmall.product.search.InvertedIndex;
+import com.example.calmall.product.search.ProductIndexService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 商品検索サービス実装
+ * - 楽天 API を呼ばず、DB に保存済みの商品だけを検索する（クォータ消費・外部レイテンシなし）
+ * - item_name / catchcopy / description_plain の部分一致（pg_trgm の GIN インデックスで高速化）
+ * - pg_trgm の索引が効かない 3 文字未満のキーワード（日本語で多い）は、インメモリの bi-gram 索引で探す
+ *   （構築完了前は DB で検索する。索引は説明文の先頭 2000 文字までのため、それ以降だけの一致は拾わない）
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    // 1ページあたりの最大件数
+    static final int MAX_PAGE_SIZE = 50;
+
+    // キーワードの最大長（極端に長い入力で全件走査させない）
+    static final int MAX_KEYWORD_LENGTH = 100;
+
+    // 入力補完の最大件数
+    static final int MAX_SUGGESTIONS = 20;
+
+    // pg_trgm は 3 文字単位のため、これより短いキーワードでは索引が効かず全件走査になる
+    static final int MIN_TRIGRAM_KEYWORD_LENGTH = 3;
+
+    // インメモリ索引で検索するときの最大件数（総件数もこの件数で頭打ち）
+    static final int MAX_INDEX_HITS = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductIndexService productIndexService;
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "product.search", histogram = true)
+    public ResponseEntity<ProductSearchResponseDto> search(String keyword, int page, int size) {
+        final String q = normalizeKeyword(keyword);
+        if (q.isEmpty()) {
+            return ResponseEntity.badRequest().body(ProductSearchResponseDto.builder().message("fail").build());
+        }
+
+        final int pageIndex = Math.max(0, page);
+        final int pageSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        boolean useIndex = useIndex(q);
+        Page<ProductSearchRow> result = useIndex
+                ? searchIndex(q, pageIndex, pageSize)
+                : productRepository.searchByKeyword(q, "%" + escapeLike(q) + "%", PageRequest.of(pageIndex, pageSize));
+        log.debug("[ProductSearch] q={} page={} hits={} index={}", q, pageIndex, result.getTotalElements(), useIndex);
+
+        List<ProductSearchResponseDto.ProductSummary> products = result.getContent().stream()
+                .map(r -> ProductSearchResponseDto.ProductSummary.builder()
+                        .itemCode(r.getItemCode())
+                        .itemName(r.getItemName())
+                        .catchcopy(r.getCatchcopy())
+                        .price(r.getPrice())
+                        .imageUrl(r.getImageUrl())
+                        .build())
+                .toList();
+
+        return ResponseEntity.ok(ProductSearchResponseDto.builder()
+                .message("success")
+                .products(products)
+                .totalPages(result.getTotalPages())
+                .currentPage(pageIndex + 1)
+                .hasNext(result.hasNext())
+                .totalElements(result.getTotalElements())
+                .build());
+    }
+
+    @Override
+    @Timed(value = "product.suggest", histogram = true)
+    public ResponseEntity<ProductSuggestResponseDto> suggest(String keyword, boolean matchAll, int limit) {
+        final String q = normalizeKeyword(keyword);
+        if (q.isEmpty()) {
+            return ResponseEntity.badRequest().body(ProductSuggestResponseDto.builder().message("fail").build());
+        }
+
+        List<ProductSuggestResponseDto.Suggestion> suggestions = productIndexService
+                .search(q, matchAll ? InvertedIndex.Mode.AND : InvertedIndex.Mode.OR,
+                        Math.min(Math.max(1, limit), MAX_SUGGESTIONS))
+                .stream()
+                .map(h -> ProductSuggestResponseDto.Suggestion.builder()
+                        .itemCode(h.itemCode())
+                        .itemName(h.itemName())
+                        .score(h.score())
+                        .build())
+                .toList();
+
+        return ResponseEntity.ok(ProductSuggestResponseDto.builder()
+                .message("success")
+                .complete(productIndexService.isReady())
+                .suggestions(suggestions)
+                .build());
+    }
+
+    private boolean useIndex(String q) {
+        return q.codePointCount(0, q.length()) < MIN_TRIGRAM_KEYWORD_LENGTH && productIndexService.isReady();
+    }
+
+    // 索引で一致した商品コードのうち、このページ分だけを DB から取得して索引のスコア順に並べる
+    private Page<ProductSearchRow> searchIndex(String q, int pageIndex, int pageSize) {
+        List<InvertedIndex.Hit> hits = productIndexService.searchContaining(q, MAX_INDEX_HITS);
+        int from = (int) Math.min((long) pageIndex * pageSize, hits.size());
+        List<String> codes = hits.subList(from, Math.min(from + pageSize, hits.size())).stream()
+                .map(InvertedIndex.Hit::itemCode)
+                .toList();
+        Map<String, ProductSearchRow> rows = codes.isEmpty() ? Map.of()
+                : productRepository.findSearchRowsByItemCodeIn(codes).stream()
+                        .collect(Collectors.toMap(ProductSearchRow::getItemCode, Function.identity()));
+        List<ProductSearchRow> content = codes.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, PageRequest.of(pageIndex, pageSize), hits.size());
+    }
+
+    // 前後の空白（全角含む）を除き、連続空白を 1 つにまとめる
+    static String normalizeKeyword(String keyword) {
+        if (keyword == null) return "";
+        String q = keyword.replace('　', ' ').strip().replaceAll("\\s+", " ");
+        return q.length() > MAX_KEYWORD_LENGTH ? q.substring(0, MAX_KEYWORD_LENGTH) : q;
+    }
+
+    // LIKE のワイルドカードをエスケープ（PostgreSQL の既定エスケープ文字は '\'）
+    static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -3,6 +3,8 @@ package com.example.calmall.product.service;
 import com.example.calmall.product.dto.ProductDetailResponseDto;
 import org.springframework.http.ResponseEntity;
 
+import java.util.concurrent.CompletableFuture;
+
 
 //  商品情報サービスインターフェース
 public interface ProductService {
@@ -10,6 +12,9 @@ public interface ProductService {
     // 商品詳細取得API
     ResponseEntity<ProductDetailResponseDto> getProductDetail(String itemCode);
 
+    // 商品詳細取得API（非ブロッキング版：楽天 API / LLM の応答待ちでスレッドを占有しない）
+    CompletableFuture<ResponseEntity<ProductDetailResponseDto>> getProductDetailAsync(String itemCode);
+
     // 購入可否チェックAPI
     ResponseEntity<Boolean> isPurchasable(String itemCode);
 }
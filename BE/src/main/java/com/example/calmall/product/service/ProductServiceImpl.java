@@ -2,19 +2,28 @@ package com.example.calmall.product.service;
 
 import com.example.calmall.product.dto.ProductDetailResponseDto;
 import com.example.calmall.product.entity.Product;
+import com.example.calmall.product.repository.ProductJdbcRepository;
 import com.example.calmall.product.repository.ProductRepository;
 import com.example.calmall.product.text.DescriptionCleanerFacade;
 import com.example.calmall.product.text.DescriptionFallbackBuilder;
 import com.example.calmall.product.text.DescriptionHtmlToPlain;
+import com.example.calmall.product.text.DescriptionSourceHash;
+import com.example.calmall.product.text.LlmDescriptionFormatter;
 import com.example.calmall.review.repository.ReviewRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,185 +36,255 @@ import java.util.regex.Pattern;
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
     private final RakutenApiService rakutenApiService;
     private final ReviewRepository reviewRepository;
     private final DescriptionCleanerFacade descriptionCleanerFacade;
+    private final MeterRegistry meterRegistry;
+
+    // 非同期版で整形結果の反映・保存（JDBC）を行う Executor
+    @Qualifier("productDetailExecutor")
+    private final Executor detailExecutor;
+
+    /** 商品詳細の取得経路（product.detail の source タグ） */
+    private enum DetailSource {
+        DB("db"), RAKUTEN("rakuten"), LLM("llm"), FALLBACK("fallback");
+
+        final String tag;
+
+        DetailSource(String tag) {
+            this.tag = tag;
+        }
+    }
 
     // 見出しだけの文字列を判定（caption には不適）
     private static final Pattern HEADING_ONLY = Pattern.compile(
             "^(素材・成分|成分|素材|仕様|スペック|サイズ|内容|セット内容|特徴|使い方|注意事項|ご注意|JAN|JANコード)\\s*$"
     );
 
-    // ---- Groq fallback 檢測常數 ----
-    private static final String GROQ_FALLBACK_MARKER = "<!--__GROQ_FALLBACK__-->";
-    private static final String GROQ_FALLBACK_PHRASE = "Groq の1日あたりのトークン上限を超過しました";
+    private static boolean isGroqFallback(String html, String plain, String caption) {
+        return LlmDescriptionFormatter.isFallbackOutput(html)
+                || LlmDescriptionFormatter.isFallbackOutput(plain)
+                || LlmDescriptionFormatter.isFallbackOutput(caption);
+    }
 
-    private static boolean containsFallback(String s) {
-        return s != null && (s.contains(GROQ_FALLBACK_MARKER) || s.contains(GROQ_FALLBACK_PHRASE));
+    @Override
+    public ResponseEntity<ProductDetailResponseDto> getProductDetail(String itemCode) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        DetailSource[] source = {DetailSource.DB};
+        ResponseEntity<ProductDetailResponseDto> resp = null;
+        try {
+            resp = loadProductDetail(itemCode, source);
+            return resp;
+        } finally {
+            recordDetail(sample, source[0], resp);
+        }
     }
 
-    private static boolean isGroqFallback(String html, String plain, String caption) {
-        return containsFallback(html) || containsFallback(plain) || containsFallback(caption);
+    /**
+     * 商品詳細の非ブロッキング版。
+     * - DB 参照も detailExecutor 上で行う（OSIV の EntityManager に接続を束縛させず、LLM 整形の待ち中に接続を保持しない）
+     * - 楽天 API 取得 → LLM 整形は非同期 I/O で待つ
+     * - 整形結果の反映・保存は detailExecutor 上で行う（JDBC を I/O スレッドで実行しない）
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<ProductDetailResponseDto>> getProductDetailAsync(String itemCode) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        DetailSource[] source = {DetailSource.DB};
+        boolean[] fetched = {false};
+
+        return CompletableFuture
+                // 1) DB を参照
+                .supplyAsync(() -> productRepository.findByItemCode(itemCode), detailExecutor)
+                .thenCompose(existing -> {
+                    if (existing.isPresent()) {
+                        log.info("[source=DB] 既存商品を取得 itemCode={} name={}", itemCode, existing.get().getItemName());
+                        return CompletableFuture.completedFuture(existing);
+                    }
+                    // 2) DB に無ければ楽天 API（原文のまま取得し、整形は下で行う）
+                    log.info("[source=RakutenAPI] DB未登録 → 楽天API照会(async) itemCode={}", itemCode);
+                    source[0] = DetailSource.RAKUTEN;
+                    fetched[0] = true;
+                    return rakutenApiService.fetchRawProductFromRakutenAsync(itemCode);
+                })
+                .thenComposeAsync(found -> {
+                    if (found.isEmpty()) {
+                        log.warn("[not-found] 楽天APIから取得不可 itemCode={}", itemCode);
+                        return CompletableFuture.completedFuture(notFoundResponse());
+                    }
+                    final Product product = found.get();
+                    if (isAllBlank(product.getDescriptionHtml(), product.getDescriptionPlain(), product.getItemCaption())) {
+                        boolean changed = applyMetaFallback(product, source);
+                        return CompletableFuture.completedFuture(completeDetail(product, fetched[0], changed, null, source));
+                    }
+                    if (!needsClean(product)) {
+                        return CompletableFuture.completedFuture(completeDetail(product, fetched[0], false, null, source));
+                    }
+
+                    // 3) LLM 整形（非同期）
+                    final String sourceHash = sourceHashOf(product);
+                    return descriptionCleanerFacade.buildCleanHtmlAsync(
+                                    product.getDescriptionHtml(),
+                                    product.getDescriptionPlain(),
+                                    product.getItemCaption(),
+                                    product.getItemName())
+                            .thenApplyAsync(cleanHtml -> {
+                                // 新規取得時は同期版（applyCleanDescription）と同じく caption も整形結果に置き換える
+                                if (fetched[0]) product.setItemCaption(cleanHtml);
+                                return completeDetail(product, fetched[0], false,
+                                        new CleanedDescription(sourceHash, cleanHtml), source);
+                            }, detailExecutor);
+                }, detailExecutor)
+                .whenComplete((resp, e) -> recordDetail(sample, source[0], resp));
     }
 
-    private static String stripFallbackAll(String s) {
-        if (s == null) return null;
-        String t = s.replace(GROQ_FALLBACK_MARKER, "")
-                .replace("（" + GROQ_FALLBACK_PHRASE + "）", "")
-                .replace("の（" + GROQ_FALLBACK_PHRASE + "）", "")
-                .replace(GROQ_FALLBACK_PHRASE, "")
-                .trim();
-        // 可能殘留的空 <section> 或連續 section，交給前端渲染沒事；這裡不做重排。
-        return t;
+    private void recordDetail(Timer.Sample sample, DetailSource source, ResponseEntity<?> resp) {
+        String outcome = (resp == null) ? "error"
+                : resp.getStatusCode().is2xxSuccessful() ? "success" : "not_found";
+        sample.stop(Timer.builder("product.detail")
+                .description("商品詳細の取得時間（取得経路別）")
+                .tag("source", source.tag)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
     }
 
-    @Override
-    public ResponseEntity<ProductDetailResponseDto> getProductDetail(String itemCode) {
+    // source[0] に実際の取得経路（DB/楽天/LLM整形/代替文言）を記録する
+    private ResponseEntity<ProductDetailResponseDto> loadProductDetail(String itemCode, DetailSource[] source) {
         // 1) DB を参照
         Product product = productRepository.findByItemCode(itemCode).orElse(null);
+        final boolean fetched = (product == null);
 
-        if (product == null) {
+        if (fetched) {
             // 2) DB に無ければ楽天 API
             log.info("[source=RakutenAPI] DB未登録 → 楽天API照会 itemCode={}", itemCode);
+            source[0] = DetailSource.RAKUTEN;
             product = rakutenApiService.fetchProductFromRakuten(itemCode).orElse(null);
             if (product == null) {
                 log.warn("[not-found] 楽天APIから取得不可 itemCode={}", itemCode);
-                return new ResponseEntity<>(buildFailResponse(), HttpStatus.BAD_REQUEST);
+                return notFoundResponse();
             }
-
-            // 3) 初回保存前に説明文を決定
-            if (isAllBlank(product.getDescriptionHtml(), product.getDescriptionPlain(), product.getItemCaption())) {
-                // 入力なし → 簡易説明
-                String fallback = DescriptionFallbackBuilder.buildFromMeta(
-                        product.getItemName(),
-                        product.getImages() == null ? 0 : product.getImages().size()
-                );
-                product.setDescriptionHtml(fallback);
-                product.setDescriptionPlain(DescriptionHtmlToPlain.toPlain(fallback));
-                log.debug("[normalize] 入力テキスト無し → 簡易説明を生成 itemCode={}", itemCode);
-
-            } else if (needsClean(product)) {
-                // LLM 整形開始（有 fallback 訊號時會在 Facade 內短路）
-                log.debug("[normalize] 新規取得 → LLM 整形開始 itemCode={}", itemCode);
-                final String cleanHtml = descriptionCleanerFacade.buildCleanHtml(
-                        product.getDescriptionHtml(),
-                        product.getDescriptionPlain(),
-                        product.getItemCaption(),
-                        product.getItemName()
-                );
-                final String cleanPlain = DescriptionHtmlToPlain.toPlain(cleanHtml);
-
-                // === Groq fallback：只回不存 ===
-                if (isGroqFallback(cleanHtml, cleanPlain, product.getItemCaption())) {
-                    log.warn("[normalize] Groq quota exceeded → skip saving fallback to DB itemCode={}", itemCode);
-                    return ResponseEntity.ok(
-                            buildSuccessResponse(
-                                    product.toBuilder()
-                                            .itemCaption(stripFallbackAll(product.getItemCaption()))
-                                            .descriptionHtml(stripFallbackAll(cleanHtml))
-                                            .descriptionPlain(stripFallbackAll(cleanPlain))
-                                            .build()
-                            )
-                    );
-                }
-
-                product.setDescriptionHtml(cleanHtml);
-                product.setDescriptionPlain(cleanPlain);
-
-            } else {
-                log.debug("[normalize] 新規取得だが整形不要 itemCode={}", itemCode);
-            }
-
-            // caption 補正
-            final String fixedCaption = fixCaptionIfNeeded(product.getItemCaption(),
-                    product.getDescriptionHtml(), product.getDescriptionPlain());
-            if (!equalsSafe(fixedCaption, product.getItemCaption())) {
-                product.setItemCaption(fixedCaption);
-                log.info("[normalize] caption を補正 itemCode={}", itemCode);
-            }
-
-            product = productRepository.save(product);
-            log.info("[persist] 楽天APIからの商品を保存 itemCode={}", product.getItemCode());
-
         } else {
-            // 既存レコード
             log.info("[source=DB] 既存商品を取得 itemCode={} name={}", product.getItemCode(), product.getItemName());
+        }
 
-            boolean dirty = false;
+        // 3) 説明空 → 簡易説明
+        if (isAllBlank(product.getDescriptionHtml(), product.getDescriptionPlain(), product.getItemCaption())) {
+            boolean changed = applyMetaFallback(product, source);
+            return completeDetail(product, fetched, changed, null, source);
+        }
 
-            // 5) 説明空 → 簡易説明
-            if (isAllBlank(product.getDescriptionHtml(), product.getDescriptionPlain(), product.getItemCaption())) {
-                String fb = DescriptionFallbackBuilder.buildFromMeta(
-                        product.getItemName(),
-                        product.getImages() == null ? 0 : product.getImages().size()
-                );
-                String fbPlain = DescriptionHtmlToPlain.toPlain(fb);
-
-                if (!equalsSafe(fb, product.getDescriptionHtml())) {
-                    product.setDescriptionHtml(fb);
-                    dirty = true;
-                }
-                if (!equalsSafe(fbPlain, product.getDescriptionPlain())) {
-                    product.setDescriptionPlain(fbPlain);
-                    dirty = true;
-                }
-                log.debug("[normalize] DB商品説明なし → 簡易説明保存予定 itemCode={}", product.getItemCode());
-
-            } else if (needsClean(product)) {
-                // 再整形
-                log.debug("[normalize] DB命中だが未整形 → LLM 整形開始 itemCode={}", product.getItemCode());
-                final String cleanHtml = descriptionCleanerFacade.buildCleanHtml(
-                        product.getDescriptionHtml(),
-                        product.getDescriptionPlain(),
-                        product.getItemCaption(),
-                        product.getItemName()
+        if (!needsClean(product)) {
+            log.debug("[normalize] {} → 整形不要 itemCode={}", fetched ? "新規取得" : "DB命中かつ整形済み", itemCode);
+            return completeDetail(product, fetched, false, null, source);
+        }
+
+        // 4) LLM 整形
+        log.debug("[normalize] {} → LLM 整形開始 itemCode={}", fetched ? "新規取得" : "DB命中だが未整形", itemCode);
+        final String sourceHash = sourceHashOf(product);
+        final String cleanHtml = descriptionCleanerFacade.buildCleanHtml(
+                product.getDescriptionHtml(),
+                product.getDescriptionPlain(),
+                product.getItemCaption(),
+                product.getItemName()
+        );
+        return completeDetail(product, fetched, false, new CleanedDescription(sourceHash, cleanHtml), source);
+    }
+
+    /** LLM 整形結果（整形元ハッシュと HTML） */
+    private record CleanedDescription(String sourceHash, String html) {}
+
+    /**
+     * 整形結果の反映・caption 補正・保存を行い、レスポンスを作る（同期版・非同期版で共通）。
+     *
+     * @param fetched 楽天 API から新規取得した商品か（常に保存する）
+     * @param dirty   既存商品で保存が必要な変更が既にあるか
+     * @param cleaned LLM 整形結果（整形していなければ null）
+     */
+    private ResponseEntity<ProductDetailResponseDto> completeDetail(Product product, boolean fetched, boolean dirty,
+                                                                    CleanedDescription cleaned, DetailSource[] source) {
+        if (cleaned != null) {
+            final String cleanHtml = cleaned.html();
+            final String cleanPlain = DescriptionHtmlToPlain.toPlain(cleanHtml);
+            source[0] = DetailSource.LLM;
+
+            // === Groq fallback：只回不存 ===
+            if (isGroqFallback(cleanHtml, cleanPlain, product.getItemCaption())) {
+                source[0] = DetailSource.FALLBACK;
+                log.warn("[normalize] Groq quota exceeded → skip saving fallback to DB itemCode={}", product.getItemCode());
+                return ResponseEntity.ok(
+                        buildSuccessResponse(
+                                product.toBuilder()
+                                        .itemCaption(LlmDescriptionFormatter.stripFallback(product.getItemCaption()))
+                                        .descriptionHtml(LlmDescriptionFormatter.stripFallback(cleanHtml))
+                                        .descriptionPlain(LlmDescriptionFormatter.stripFallback(cleanPlain))
+                                        .build()
+                        )
                 );
-                final String cleanPlain = DescriptionHtmlToPlain.toPlain(cleanHtml);
-
-                // === Groq fallback：只回不存 ===
-                if (isGroqFallback(cleanHtml, cleanPlain, product.getItemCaption())) {
-                    log.warn("[normalize] Groq quota exceeded → skip saving fallback to DB itemCode={}", itemCode);
-                    return ResponseEntity.ok(
-                            buildSuccessResponse(
-                                    product.toBuilder()
-                                            .itemCaption(stripFallbackAll(product.getItemCaption()))
-                                            .descriptionHtml(stripFallbackAll(cleanHtml))
-                                            .descriptionPlain(stripFallbackAll(cleanPlain))
-                                            .build()
-                            )
-                    );
-                }
-
-                if (!equalsSafe(cleanHtml, product.getDescriptionHtml())) {
-                    product.setDescriptionHtml(cleanHtml);
-                    dirty = true;
-                }
-                if (!equalsSafe(cleanPlain, product.getDescriptionPlain())) {
-                    product.setDescriptionPlain(cleanPlain);
-                    dirty = true;
-                }
-
-            } else {
-                log.debug("[normalize] DB命中かつ整形済み → スキップ itemCode={}", product.getItemCode());
             }
 
-            // caption 補正
-            final String fixedCaption = fixCaptionIfNeeded(product.getItemCaption(),
-                    product.getDescriptionHtml(), product.getDescriptionPlain());
-            if (!equalsSafe(fixedCaption, product.getItemCaption())) {
-                product.setItemCaption(fixedCaption);
+            if (!equalsSafe(cleanHtml, product.getDescriptionHtml())) {
+                product.setDescriptionHtml(cleanHtml);
                 dirty = true;
             }
-
-            if (dirty) {
-                product = productRepository.save(product);
-                log.info("[persist] DB更新保存 itemCode={}", product.getItemCode());
+            if (!equalsSafe(cleanPlain, product.getDescriptionPlain())) {
+                product.setDescriptionPlain(cleanPlain);
+                dirty = true;
+            }
+            if (!equalsSafe(cleaned.sourceHash(), product.getSourceHash())
+                    || !equalsSafe(LlmDescriptionFormatter.PROMPT_VERSION, product.getCleanedWithPromptVersion())) {
+                markCleaned(product, cleaned.sourceHash());
+                dirty = true;
             }
         }
 
+        // caption 補正
+        final String fixedCaption = fixCaptionIfNeeded(product.getItemCaption(),
+                product.getDescriptionHtml(), product.getDescriptionPlain());
+        if (!equalsSafe(fixedCaption, product.getItemCaption())) {
+            product.setItemCaption(fixedCaption);
+            dirty = true;
+            log.debug("[normalize] caption を補正 itemCode={}", product.getItemCode());
+        }
+
+        // merge（SELECT → INSERT/UPDATE・画像の全入れ替え）を避けて 1 文の upsert + 画像差分で保存
+        if (fetched) {
+            productJdbcRepository.upsert(product);
+            log.info("[persist] 楽天APIからの商品を保存 itemCode={}", product.getItemCode());
+        } else if (dirty) {
+            productJdbcRepository.upsert(product);
+            log.info("[persist] DB更新保存 itemCode={}", product.getItemCode());
+        }
+
         return ResponseEntity.ok(buildSuccessResponse(product));
     }
 
+    // 説明が空の商品に簡易説明を設定する（値が変わった場合 true）
+    private static boolean applyMetaFallback(Product product, DetailSource[] source) {
+        String fb = DescriptionFallbackBuilder.buildFromMeta(
+                product.getItemName(),
+                product.getImages() == null ? 0 : product.getImages().size()
+        );
+        String fbPlain = DescriptionHtmlToPlain.toPlain(fb);
+
+        boolean changed = false;
+        if (!equalsSafe(fb, product.getDescriptionHtml())) {
+            product.setDescriptionHtml(fb);
+            changed = true;
+        }
+        if (!equalsSafe(fbPlain, product.getDescriptionPlain())) {
+            product.setDescriptionPlain(fbPlain);
+            changed = true;
+        }
+        source[0] = DetailSource.FALLBACK;
+        log.debug("[normalize] 入力テキスト無し → 簡易説明を設定 itemCode={}", product.getItemCode());
+        return changed;
+    }
+
+    private ResponseEntity<ProductDetailResponseDto> notFoundResponse() {
+        return new ResponseEntity<>(buildFailResponse(), HttpStatus.BAD_REQUEST);
+    }
+
     @Override
     public ResponseEntity<Boolean> isPurchasable(String itemCode) {
         return productRepository.findByItemCode(itemCode)
@@ -216,6 +295,12 @@ public class ProductServiceImpl implements ProductService {
     // === Helper ===
 
     private static boolean needsClean(Product p) {
+        // 整形記録あり → プロンプトバージョンの比較のみ（O(1)）
+        if (p.getCleanedWithPromptVersion() != null) {
+            return !LlmDescriptionFormatter.PROMPT_VERSION.equals(p.getCleanedWithPromptVersion());
+        }
+
+        // 以下は整形記録の無い旧データ向けのヒューリスティック判定
         final String html = p.getDescriptionHtml();
         final String plain = p.getDescriptionPlain();
         final String caption = p.getItemCaption();
@@ -223,7 +308,7 @@ public class ProductServiceImpl implements ProductService {
         if (isAllBlank(html, plain, caption)) return false;
 
         // fallback 文字混入 → 需要清理（但會在 Facade 內短路，不再丟給 LLM）
-        if (containsFallback(html) || containsFallback(plain) || containsFallback(caption)) return true;
+        if (isGroqFallback(html, plain, caption)) return true;
 
         final String[] banned = {
                 "入力が必要", "please provide input", "no input provided", "placeholder", "これはテストです"
@@ -245,6 +330,17 @@ public class ProductServiceImpl implements ProductService {
         return true;
     }
 
+    // 整形元ハッシュ（楽天原文のハッシュが既にあればそれを維持）
+    private static String sourceHashOf(Product p) {
+        if (p.getSourceHash() != null) return p.getSourceHash();
+        return DescriptionSourceHash.of(p.getDescriptionHtml(), p.getDescriptionPlain(), p.getItemCaption());
+    }
+
+    private static void markCleaned(Product p, String sourceHash) {
+        p.setSourceHash(sourceHash);
+        p.setCleanedWithPromptVersion(LlmDescriptionFormatter.PROMPT_VERSION);
+    }
+
     private static boolean isAllBlank(String html, String plain, String caption) {
         return !StringUtils.hasText(html) &&
                 !StringUtils.hasText(plain) &&
@@ -253,7 +349,7 @@ public class ProductServiceImpl implements ProductService {
 
     // === caption 処理 ===
     private String fixCaptionIfNeeded(String current, String html, String plain) {
-        if (!isBadCaption(current)) return stripFallbackAll(current);
+        if (!isBadCaption(current)) return LlmDescriptionFormatter.stripFallback(current);
 
         String picked = pickCaptionFromHtml(html);
         if (!StringUtils.hasText(picked)) picked = pickCaptionFromPlain(plain);
@@ -261,7 +357,7 @@ public class ProductServiceImpl implements ProductService {
 
         picked = picked.trim();
         if (picked.length() > 120) picked = picked.substring(0, 120).trim();
-        return stripFallbackAll(picked);
+        return LlmDescriptionFormatter.stripFallback(picked);
     }
 
     private static String pickCaptionFromHtml(String html) {
@@ -294,7 +390,7 @@ public class ProductServiceImpl implements ProductService {
         if (HEADING_ONLY.matcher(t).matches()) return true;
         String low = t.toLowerCase();
         return low.contains("入力が必要") || low.contains("provide input") || low.contains("placeholder")
-                || containsFallback(t);
+                || LlmDescriptionFormatter.isFallbackOutput(t);
     }
 
     private static String findFirstTagText(String html, String sectionRegex, String tag) {
@@ -327,7 +423,7 @@ public class ProductServiceImpl implements ProductService {
                 .trim();
     }
 
-    private boolean equalsSafe(String a, String b) {
+    private static boolean equalsSafe(String a, String b) {
         return (a == b) || (a != null && a.equals(b));
     }
 
@@ -337,9 +433,9 @@ public class ProductServiceImpl implements ProductService {
         int reviewCount = reviewRepository.countByProductItemCodeAndDeletedFalse(product.getItemCode());
 
         // 回應前淨化，避免 marker/提示句外洩
-        String safeCaption = stripFallbackAll(product.getItemCaption());
-        String safeHtml    = stripFallbackAll(product.getDescriptionHtml());
-        String safePlain   = stripFallbackAll(product.getDescriptionPlain());
+        String safeCaption = LlmDescriptionFormatter.stripFallback(product.getItemCaption());
+        String safeHtml    = LlmDescriptionFormatter.stripFallback(product.getDescriptionHtml());
+        String safePlain   = LlmDescriptionFormatter.stripFallback(product.getDescriptionPlain());
 
         ProductDetailResponseDto.ProductDto dto = ProductDetailResponseDto.ProductDto.builder()
                 .itemCode(product.getItemCode())
@@ -3,12 +3,22 @@ package com.example.calmall.product.service;
 import com.example.calmall.product.entity.Product;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 
 // 楽天APIとの通信を行うサービスインターフェース
 public interface RakutenApiService {
 
 
-    //　itemCode商品コード
+    //　itemCode商品コード（説明文は LLM 整形済み）
     Optional<Product> fetchProductFromRakuten(String itemCode);
+
+    // 説明文を整形せずに取得（itemCaption は楽天の原文、sourceHash 設定済み）
+    Optional<Product> fetchRawProductFromRakuten(String itemCode);
+
+    // fetchRawProductFromRakuten の非ブロッキング版（応答待ちの間スレッドを占有しない）
+    CompletableFuture<Optional<Product>> fetchRawProductFromRakutenAsync(String itemCode);
+
+    // 原文のままの商品に LLM 整形を適用し、整形済みとして記録する
+    Product applyCleanDescription(Product rawProduct);
 }
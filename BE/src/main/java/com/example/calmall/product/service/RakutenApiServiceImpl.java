@@ -1,16 +1,29 @@
 package com.example.calmall.product.service;
 
+import com.example.calmall.global.resilience.CallNotPermittedException;
+import com.example.calmall.global.resilience.DependencyGuard;
 import com.example.calmall.product.entity.Product;
 import com.example.calmall.product.text.DescriptionCleanerFacade; // ★ Facade導入
+import com.example.calmall.product.text.LlmDescriptionFormatter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-
-import java.time.LocalDateTime;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 楽天商品APIから商品情報を取得するサービス実装クラス
@@ -22,9 +35,21 @@ public class RakutenApiServiceImpl implements RakutenApiService {
 
     private final RestTemplate restTemplate;
 
+    // 非同期取得用（sendAsync）
+    private final HttpClient rakutenHttpClient;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
     // ★ Spring Bean で Facade 注入
     private final DescriptionCleanerFacade descriptionCleanerFacade;
 
+    // 楽天 API 障害時の即時失敗・同時実行制限
+    @Qualifier("rakutenGuard")
+    private final DependencyGuard rakutenGuard;
+
+    // 商品検索 API のパス（メトリクスの uri タグにも使う）
+    static final String ITEM_SEARCH_PATH = "/services/api/IchibaItem/Search/20220601";
+
     @Value("${rakuten.app.id}")
     private String appId;
 
@@ -32,8 +57,32 @@ public class RakutenApiServiceImpl implements RakutenApiService {
     private String affiliateId;
 
     @Override
-    @SuppressWarnings("unchecked")
     public Optional<Product> fetchProductFromRakuten(String itemCode) {
+        return fetchRawProductFromRakuten(itemCode).map(this::applyCleanDescription);
+    }
+
+    @Override
+    public Product applyCleanDescription(Product product) {
+        String rawCaption = product.getItemCaption();
+
+        // ★ Facade 経由（LLM → fallback）
+        String cleanHtml  = descriptionCleanerFacade.buildCleanHtml(null, null, rawCaption);
+        String cleanPlain = descriptionCleanerFacade.toPlain(cleanHtml);
+
+        product.setItemCaption(cleanHtml);
+        product.setDescriptionPlain(cleanPlain);
+        product.setDescriptionHtml(cleanHtml);
+
+        // 代替文言の場合は次回再整形させるため記録しない
+        if (!LlmDescriptionFormatter.isFallbackOutput(cleanHtml)) {
+            product.setCleanedWithPromptVersion(LlmDescriptionFormatter.PROMPT_VERSION);
+        }
+        return product;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Product> fetchRawProductFromRakuten(String itemCode) {
 
         if (log.isDebugEnabled()) {
             StringBuilder hex = new StringBuilder();
@@ -41,7 +90,50 @@ public class RakutenApiServiceImpl implements RakutenApiService {
             log.debug("[RakutenApi] raw itemCode='{}' hex={}", itemCode, hex);
         }
 
-        StringBuilder sb = new StringBuilder("https://app.rakuten.co.jp/services/api/IchibaItem/Search/20220601")
+        String url = buildItemUrl(itemCode);
+        log.debug("[RakutenApi] GET {}", url);
+
+        Map<String, Object> response;
+        try {
+            response = rakutenGuard.execute(() -> restTemplate.getForObject(url, Map.class));
+        } catch (CallNotPermittedException e) {
+            log.warn("[RakutenApi] skipped itemCode={} : {}", itemCode, e.getMessage());
+            return Optional.empty();
+        } catch (Exception e) {
+            log.error("[RakutenApi] 通信失敗 itemCode={} : {}", itemCode, e.getMessage(), e);
+            return Optional.empty();
+        }
+        return toProduct(response, itemCode);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Product>> fetchRawProductFromRakutenAsync(String itemCode) {
+        URI uri = UriComponentsBuilder.fromUriString(buildItemUrl(itemCode)).build().encode().toUri();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(15))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        log.debug("[RakutenApi] GET(async) {}", uri);
+
+        return rakutenGuard.executeAsync(() -> RakutenAsyncHttp
+                        .timed(meterRegistry, request, ITEM_SEARCH_PATH,
+                                () -> rakutenHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()))
+                        .thenApply(RakutenAsyncHttp::requireSuccess))
+                .thenApply(body -> toProduct(readMap(body), itemCode))
+                .exceptionally(e -> {
+                    Throwable cause = RakutenAsyncHttp.unwrap(e);
+                    if (cause instanceof CallNotPermittedException) {
+                        log.warn("[RakutenApi] skipped itemCode={} : {}", itemCode, cause.getMessage());
+                    } else {
+                        log.error("[RakutenApi] 通信失敗(async) itemCode={} : {}", itemCode, cause.toString());
+                    }
+                    return Optional.empty();
+                });
+    }
+
+    private String buildItemUrl(String itemCode) {
+        StringBuilder sb = new StringBuilder("https://app.rakuten.co.jp" + ITEM_SEARCH_PATH)
                 .append("?applicationId=").append(appId)
                 .append("&itemCode=").append(itemCode)
                 .append("&format=json")
@@ -50,16 +142,20 @@ public class RakutenApiServiceImpl implements RakutenApiService {
         if (affiliateId != null && !affiliateId.isBlank()) {
             sb.append("&affiliateId=").append(affiliateId);
         }
-        String url = sb.toString();
-        log.debug("[RakutenApi] GET {}", url);
+        return sb.toString();
+    }
 
-        Map<String, Object> response;
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readMap(byte[] body) {
         try {
-            response = restTemplate.getForObject(url, Map.class);
-        } catch (Exception e) {
-            log.error("[RakutenApi] 通信失敗 itemCode={} : {}", itemCode, e.getMessage(), e);
-            return Optional.empty();
+            return (body == null || body.length == 0) ? null : objectMapper.readValue(body, Map.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
+
+    // 楽天 API のレスポンス（formatVersion=2）から 1 件目の商品を取り出す
+    private Optional<Product> toProduct(Map<String, Object> response, String itemCode) {
         if (response == null) {
             log.warn("[RakutenApi] response=null itemCode={}", itemCode);
             return Optional.empty();
@@ -71,77 +167,15 @@ public class RakutenApiServiceImpl implements RakutenApiService {
             return Optional.empty();
         }
 
-        Map<String, Object> item;
-        Object first = items.get(0);
-        if (first instanceof Map<?, ?> m) {
-            if (m.containsKey("Item")) {
-                Object inner = m.get("Item");
-                if (inner instanceof Map<?, ?> innerMap) {
-                    item = (Map<String, Object>) innerMap;
-                } else {
-                    log.warn("[RakutenApi] Itemラッパー不正 type={} value={}", inner == null ? null : inner.getClass(), inner);
-                    return Optional.empty();
-                }
-            } else {
-                item = (Map<String, Object>) m;
-            }
-        } else {
+        Map<String, Object> item = RakutenItemMapper.unwrapItem(items.get(0));
+        if (item == null) {
+            Object first = items.get(0);
             log.warn("[RakutenApi] Items[0]型不正 class={} value={}", first == null ? null : first.getClass(), first);
             return Optional.empty();
         }
 
-        Product product = new Product();
-        product.setItemCode(getString(item, "itemCode"));
-        product.setItemName(getString(item, "itemName"));
-
-        String rawCaption = getString(item, "itemCaption");
-
-        // ★ Facade 経由（LLM → fallback）
-        String cleanHtml  = descriptionCleanerFacade.buildCleanHtml(null, null, rawCaption);
-        String cleanPlain = descriptionCleanerFacade.toPlain(cleanHtml);
-
-        product.setItemCaption(cleanHtml);
-        product.setDescriptionPlain(cleanPlain);
-        product.setDescriptionHtml(cleanHtml);
-
-        product.setCatchcopy(getString(item, "catchcopy"));
-        product.setPrice(getInt(item, "itemPrice", 0));
-        product.setItemUrl(getString(item, "itemUrl"));
-
-        List<String> images = new ArrayList<>();
-        Object midObj = item.get("mediumImageUrls");
-        if (midObj instanceof List<?> list) {
-            for (Object img : list) {
-                if (img instanceof String s) {
-                    images.add(s);
-                } else if (img instanceof Map<?, ?> mm) {
-                    Object u = mm.get("imageUrl");
-                    if (u != null) images.add(String.valueOf(u));
-                }
-            }
-        }
-        product.setImages(images);
-
-        product.setInventory(ThreadLocalRandom.current().nextInt(0, 301));
-        product.setStatus(true);
-        product.setCreatedAt(LocalDateTime.now());
-
+        Product product = RakutenItemMapper.toProduct(item);
         log.info("[RakutenApi] 商品取得成功 itemCode={} name={}", product.getItemCode(), product.getItemName());
         return Optional.of(product);
     }
-
-    private String getString(Map<?, ?> map, String key) {
-        Object v = map.get(key);
-        return (v == null) ? null : String.valueOf(v);
-    }
-
-    private int getInt(Map<?, ?> map, String key, int fallback) {
-        Object v = map.get(key);
-        if (v instanceof Number n) return n.intValue();
-        try {
-            return Integer.parseInt(String.valueOf(v));
-        } catch (Exception ignore) {
-            return fallback;
-        }
-    }
 }
@@ -0,0 +1,89 @@
+package com.example.calmall.product.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * 楽天 API の非同期呼び出し（java.net.http.HttpClient）で共通に使う処理。
+ */
+final class RakutenAsyncHttp {
+
+    // RestTemplate（自動計測）と同じメトリクス名
+    private static final String METRIC = "http.client.requests";
+
+    private RakutenAsyncHttp() {}
+
+    /**
+     * sendAsync の応答までを http.client.requests として計測する（HttpClient は自動計測されないため）。
+     * タグのキーは RestTemplate の計測とそろえる（Prometheus では同名メトリクスのタグキーが一致している必要がある）。
+     * @param uriTemplate uri タグの値（クエリを含めないパス。キーワード等で系列が増えないように）
+     */
+    static <T> CompletableFuture<HttpResponse<T>> timed(MeterRegistry registry, HttpRequest request, String uriTemplate,
+                                                         Supplier<CompletableFuture<HttpResponse<T>>> call) {
+        Timer.Sample sample = Timer.start(registry);
+        CompletableFuture<HttpResponse<T>> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            sample.stop(timer(registry, request, uriTemplate, null, e));
+            throw e;
+        }
+        return future.whenComplete((resp, error) ->
+                sample.stop(timer(registry, request, uriTemplate, resp, error == null ? null : unwrap(error))));
+    }
+
+    private static Timer timer(MeterRegistry registry, HttpRequest request, String uriTemplate,
+                               HttpResponse<?> resp, Throwable error) {
+        String exception = error == null ? "none" : error.getClass().getSimpleName();
+        return Timer.builder(METRIC)
+                .tag("client.name", request.uri().getHost())
+                .tag("method", request.method())
+                .tag("uri", uriTemplate)
+                .tag("status", resp != null ? String.valueOf(resp.statusCode()) : "CLIENT_ERROR")
+                .tag("outcome", resp != null ? outcome(resp.statusCode()) : "UNKNOWN")
+                .tag("exception", exception)
+                .tag("error", exception)
+                .register(registry);
+    }
+
+    private static String outcome(int code) {
+        if (code >= 200 && code < 300) return "SUCCESS";
+        if (code >= 400 && code < 500) return "CLIENT_ERROR";
+        if (code >= 500) return "SERVER_ERROR";
+        if (code >= 300) return "REDIRECTION";
+        return "INFORMATIONAL";
+    }
+
+    /** 非 2xx は RestTemplate と同じ例外型にそろえる（サーキットブレーカーの判定を共通化） */
+    static <T> T requireSuccess(HttpResponse<T> resp) {
+        int code = resp.statusCode();
+        if (code >= 200 && code < 300) return resp.body();
+
+        HttpHeaders headers = new HttpHeaders();
+        resp.headers().map().forEach(headers::addAll);
+        byte[] body = (resp.body() instanceof byte[] b) ? b
+                : (resp.body() instanceof String str) ? str.getBytes(StandardCharsets.UTF_8) : null;
+        if (code >= 500) {
+            throw HttpServerErrorException.create(HttpStatusCode.valueOf(code), "Rakuten HTTP " + code,
+                    headers, body, StandardCharsets.UTF_8);
+        }
+        throw HttpClientErrorException.create(HttpStatusCode.valueOf(code), "Rakuten HTTP " + code,
+                headers, body, StandardCharsets.UTF_8);
+    }
+
+    /** CompletionException を剥がして元の例外を返す */
+    static Throwable unwrap(Throwable e) {
+        return (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.calmall.product.service;
+
+import com.example.calmall.product.entity.Product;
+import com.example.calmall.product.text.DescriptionSourceHash;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 楽天 IchibaItem Search API（formatVersion=2）の商品 1 件を Product に変換する。
+ * 詳細取得（RakutenApiServiceImpl）と一括取り込み（ProductIngestServiceImpl）で共通。
+ */
+public final class RakutenItemMapper {
+
+    private RakutenItemMapper() {}
+
+    /**
+     * Items の要素を商品の Map に展開する（formatVersion=1 の {"Item": {...}} 形式にも対応）。
+     * 形式が不正な場合は null
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> unwrapItem(Object element) {
+        if (!(element instanceof Map<?, ?> m)) return null;
+        if (m.containsKey("Item")) {
+            Object inner = m.get("Item");
+            return (inner instanceof Map<?, ?> innerMap) ? (Map<String, Object>) innerMap : null;
+        }
+        return (Map<String, Object>) m;
+    }
+
+    /** 説明文は原文のまま保持し、変更検知用ハッシュを記録する */
+    public static Product toProduct(Map<String, Object> item) {
+        Product product = new Product();
+        product.setItemCode(getString(item, "itemCode"));
+        product.setItemName(getString(item, "itemName"));
+
+        String rawCaption = getString(item, "itemCaption");
+        product.setItemCaption(rawCaption);
+        product.setSourceHash(DescriptionSourceHash.of(null, null, rawCaption));
+
+        product.setCatchcopy(getString(item, "catchcopy"));
+        product.setPrice(getInt(item, "itemPrice", 0));
+        product.setItemUrl(getString(item, "itemUrl"));
+
+        List<String> images = new ArrayList<>();
+        Object midObj = item.get("mediumImageUrls");
+        if (midObj instanceof List<?> list) {
+            for (Object img : list) {
+                if (img instanceof String s) {
+                    images.add(s);
+                } else if (img instanceof Map<?, ?> mm) {
+                    Object u = mm.get("imageUrl");
+                    if (u != null) images.add(String.valueOf(u));
+                }
+            }
+        }
+        product.setImages(images);
+
+        product.setInventory(ThreadLocalRandom.current().nextInt(0, 301));
+        product.setStatus(true);
+        product.setCreatedAt(LocalDateTime.now());
+        return product;
+    }
+
+    private static String getString(Map<?, ?> map, String key) {
+        Object v = map.get(key);
+        return (v == null) ? null : String.valueOf(v);
+    }
+
+    private static int getInt(Map<?, ?> map, String key, int fallback) {
+        Object v = map.get(key);
+        if (v instanceof Number n) return n.intValue();
+        try {
+            return Integer.parseInt(String.valueOf(v));
+        } catch (Exception ignore) {
+            return fallback;
+        }
+    }
+}
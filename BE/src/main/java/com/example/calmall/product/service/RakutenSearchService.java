@@ -1,8 +1,13 @@
 package com.example.calmall.product.service;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface RakutenSearchService {
 
 
     // 楽天市場でキーワード検索を行い、JSONを返す。
     String searchRaw(String keyword, String shopCode, Integer hits);
+
+    // searchRaw の非ブロッキング版
+    CompletableFuture<String> searchRawAsync(String keyword, String shopCode, Integer hits);
 }
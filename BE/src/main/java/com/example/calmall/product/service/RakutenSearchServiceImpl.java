@@ -1,26 +1,62 @@
 package com.example.calmall.product.service;
 
+import com.example.calmall.global.resilience.CallNotPermittedException;
+import com.example.calmall.global.resilience.DependencyGuard;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 楽天商品検索API（開発用）サービス実装。
  * 指定キーワードで IchibaItemSearch API を呼び出し、生JSON文字列を返す。
+ *
+ * 同じ (keyword, shopCode, hits) の検索は Caffeine の非同期キャッシュで共有する。
+ * - 正常な結果は ttl-ms、0 件は empty-ttl-ms、失敗は error-ttl-ms だけ保持する（失敗時に楽天を連打しない）
+ * - refresh-after-ms を過ぎた正常結果は古い値を返しつつ裏で取り直す（stale-while-revalidate）。
+ *   取り直しに失敗した場合は古い値を error-ttl-ms だけ延命する
+ * - ヒット率などは cache.* メトリクス（cache=rakuten.search）で確認できる
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RakutenSearchServiceImpl implements RakutenSearchService {
 
-    private final RestTemplate restTemplate;
+    // 楽天 API の hits の上限
+    private static final int MAX_HITS = 30;
+
+    // 非同期検索用（sendAsync）
+    private final HttpClient rakutenHttpClient;
+
+    @Qualifier("rakutenGuard")
+    private final DependencyGuard rakutenGuard;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
     @Value("${rakuten.app.id}")
     private String appId;
@@ -28,42 +64,188 @@ public class RakutenSearchServiceImpl implements RakutenSearchService {
     @Value("${rakuten.affiliate.id}")
     private String affiliateId;
 
+    @Value("${calmall.rakuten.search-cache.max-size:1000}")
+    private long cacheMaxSize;
+
+    @Value("${calmall.rakuten.search-cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    @Value("${calmall.rakuten.search-cache.empty-ttl-ms:60000}")
+    private long emptyTtlMs;
+
+    @Value("${calmall.rakuten.search-cache.error-ttl-ms:15000}")
+    private long errorTtlMs;
+
+    @Value("${calmall.rakuten.search-cache.refresh-after-ms:120000}")
+    private long refreshAfterMs;
+
+    private AsyncLoadingCache<SearchKey, SearchResult> cache;
+
+    /** キャッシュする結果の種別（種別ごとに保持期間を変える） */
+    enum ResultKind { OK, EMPTY, ERROR, STALE }
+
+    /**
+     * 検索条件。キャッシュの同一性は正規化後のキーワード（normalized）で判定し、
+     * 楽天にはトリムしただけの元のキーワード（keyword）を送る（NFKC・小文字化で検索結果が変わる場合があるため）。
+     * 表記違いで同じエントリを共有した場合は、最初に読み込んだ側の表記で取得・再取得する。
+     */
+    record SearchKey(String normalized, String shopCode, int hits, String keyword) {
+
+        static SearchKey of(String keyword, String shopCode, Integer hits) {
+            String original = keyword == null ? "" : keyword.strip();
+            return new SearchKey(
+                    normalize(original),
+                    shopCode == null ? "" : shopCode.strip(),
+                    (hits == null || hits <= 0) ? 10 : Math.min(hits, MAX_HITS),
+                    original);
+        }
+
+        // 全角/半角・大文字/小文字・空白の違いを同じ検索として扱う
+        private static String normalize(String s) {
+            return Normalizer.normalize(s, Normalizer.Form.NFKC)
+                    .strip()
+                    .replaceAll("\\s+", " ")
+                    .toLowerCase(Locale.ROOT);
+        }
+
+        // keyword（元の表記）はキャッシュの同一性に含めない
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SearchKey k
+                    && hits == k.hits && normalized.equals(k.normalized) && shopCode.equals(k.shopCode);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(normalized, shopCode, hits);
+        }
+    }
+
+    record SearchResult(String body, ResultKind kind) {}
+
+    @PostConstruct
+    void initCache() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<SearchKey, SearchResult>() {
+                    @Override
+                    public long expireAfterCreate(SearchKey key, SearchResult value, long currentTime) {
+                        return ttlNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(SearchKey key, SearchResult value, long currentTime, long currentDuration) {
+                        return ttlNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterRead(SearchKey key, SearchResult value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .refreshAfterWrite(Duration.ofMillis(refreshAfterMs))
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<SearchResult> asyncLoad(SearchKey key, Executor executor) {
+                        return fetch(key);
+                    }
+
+                    @Override
+                    public CompletableFuture<SearchResult> asyncReload(SearchKey key, SearchResult old, Executor executor) {
+                        return fetch(key).thenApply(fresh -> {
+                            if (fresh.kind() == ResultKind.ERROR && old.kind() != ResultKind.ERROR) {
+                                log.warn("[RakutenSearch] refresh failed → serve stale keyword={}", key.keyword());
+                                return new SearchResult(old.body(), ResultKind.STALE);
+                            }
+                            return fresh;
+                        });
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "rakuten.search");
+    }
+
     @Override
     public String searchRaw(String keyword, String shopCode, Integer hits) {
-        try {
-            int limit = (hits == null || hits <= 0) ? 10 : hits;
+        return searchRawAsync(keyword, shopCode, hits).join();
+    }
 
-            UriComponentsBuilder builder = UriComponentsBuilder
-                    .fromHttpUrl("https://app.rakuten.co.jp/services/api/IchibaItem/Search/20220601")
-                    .queryParam("applicationId", appId)
-                    .queryParam("affiliateId", affiliateId)
-                    .queryParam("keyword", keyword)
-                    .queryParam("format", "json")
-                    .queryParam("formatVersion", 2)
-                    .queryParam("hits", limit);
+    @Override
+    public CompletableFuture<String> searchRawAsync(String keyword, String shopCode, Integer hits) {
+        return cache.get(SearchKey.of(keyword, shopCode, hits)).thenApply(SearchResult::body);
+    }
 
-            if (shopCode != null && !shopCode.isBlank()) {
-                builder.queryParam("shopCode", shopCode);
-            }
+    // 楽天 API を呼び出し、結果を種別付きで返す（失敗も例外にせず ERROR として返す）
+    private CompletableFuture<SearchResult> fetch(SearchKey key) {
+        final URI uri;
+        try {
+            uri = buildSearchUri(key);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(new SearchResult(errorJson(key, e), ResultKind.ERROR));
+        }
+        log.debug("[RakutenSearch] GET(async) {}", uri);
 
-            URI uri = builder.build(true) // true → encoded
-                    .encode(StandardCharsets.UTF_8)
-                    .toUri();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(15))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return rakutenGuard.executeAsync(() -> RakutenAsyncHttp
+                        .timed(meterRegistry, request, RakutenApiServiceImpl.ITEM_SEARCH_PATH,
+                                () -> rakutenHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)))
+                        .thenApply(RakutenAsyncHttp::requireSuccess))
+                .thenApply(body -> body != null ? body : "")
+                .thenApply(body -> new SearchResult(body, classify(body)))
+                .exceptionally(e -> new SearchResult(errorJson(key, RakutenAsyncHttp.unwrap(e)), ResultKind.ERROR));
+    }
+
+    private ResultKind classify(String body) {
+        if (body.isBlank()) return ResultKind.EMPTY;
+        try {
+            JsonNode root = objectMapper.readTree(body);
+            if (root.has("error")) return ResultKind.ERROR;
+            JsonNode items = root.path("Items");
+            if (root.path("count").asInt(-1) == 0 || (items.isArray() && items.isEmpty())) return ResultKind.EMPTY;
+            return ResultKind.OK;
+        } catch (Exception e) {
+            return ResultKind.ERROR;
+        }
+    }
 
-            log.debug("[RakutenSearch] GET {}", uri);
+    private long ttlNanos(SearchResult value) {
+        long ms = switch (value.kind()) {
+            case OK -> ttlMs;
+            case EMPTY -> emptyTtlMs;
+            case ERROR, STALE -> errorTtlMs;
+        };
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
 
-            ResponseEntity<String> resp = restTemplate.getForEntity(uri, String.class);
+    URI buildSearchUri(SearchKey key) {
+        UriComponentsBuilder builder = UriComponentsBuilder
+                .fromUriString("https://app.rakuten.co.jp" + RakutenApiServiceImpl.ITEM_SEARCH_PATH)
+                .queryParam("applicationId", appId)
+                .queryParam("affiliateId", affiliateId)
+                .queryParam("keyword", key.keyword())
+                .queryParam("format", "json")
+                .queryParam("formatVersion", 2)
+                .queryParam("hits", key.hits());
 
-            log.debug("[RakutenSearch] status={} length={}",
-                    resp.getStatusCodeValue(),
-                    resp.hasBody() ? resp.getBody().length() : 0);
+        if (!key.shopCode().isEmpty()) {
+            builder.queryParam("shopCode", key.shopCode());
+        }
 
-            return resp.getBody() != null ? resp.getBody() : "";
+        // キーワードは未エンコードの元の表記のため、ここで UTF-8 エンコードする
+        return builder.encode(StandardCharsets.UTF_8).build().toUri();
+    }
 
-        } catch (Exception e) {
-            log.error("[RakutenSearch] 取得失敗 keyword={} shopCode={} : {}", keyword, shopCode, e.getMessage(), e);
-            // 失敗時は簡易JSONを返す（開発用なのでシンプルに）
-            return "{\"error\":\"exception\",\"message\":\"" + e.getMessage() + "\"}";
+    private String errorJson(SearchKey key, Throwable e) {
+        if (e instanceof CallNotPermittedException cnp) {
+            log.warn("[RakutenSearch] skipped keyword={} : {}", key.keyword(), cnp.getMessage());
+            return "{\"error\":\"unavailable\",\"message\":\"" + cnp.getReason() + "\"}";
         }
+        log.error("[RakutenSearch] 取得失敗 keyword={} shopCode={} : {}", key.keyword(), key.shopCode(), e.getMessage(), e);
+        // 失敗時は簡易JSONを返す（開発用なのでシンプルに）
+        return "{\"error\":\"exception\",\"message\":\"" + e.getMessage() + "\"}";
     }
 }
@@ -5,6 +5,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 商品説明文を LLM で整形するためのファサードクラス。
  * - LlmDescriptionFormatter を呼び出す入口として利用する。
@@ -34,6 +37,16 @@ public class DescriptionCleanerFacade {
         return formatter.cleanToHtml(rawHtml, rawPlain, itemCaption, itemName);
     }
 
+    /**
+     * buildCleanHtml の非ブロッキング版（Groq の応答待ちでスレッドを占有しない）。
+     *
+     * @return 整形後の HTML で完了する future（失敗時は代替文言で完了する）
+     */
+    public CompletableFuture<String> buildCleanHtmlAsync(String rawHtml, String rawPlain, String itemCaption, String itemName) {
+        log.debug("[Groq LLM] Calling cleanToHtmlAsync...");
+        return formatter.cleanToHtmlAsync(rawHtml, rawPlain, itemCaption, itemName);
+    }
+
     /**
      * 旧バージョン互換用：3引数の buildCleanHtml。
      * 既存のコード（RakutenApiServiceImpl, BackfillRunner 等）を壊さないために残している。
@@ -51,6 +64,19 @@ public class DescriptionCleanerFacade {
         return formatter.cleanToHtml(rawHtml, rawPlain, itemCaption, null);
     }
 
+    /**
+     * 複数商品の説明をまとめて整形する（バックフィル・一括取込用）。
+     * 短文は複数件を 1 リクエストに詰めて送信し、取り出せなかった項目は個別に整形する。
+     *
+     * @param items 入力（順序を保持）
+     * @return 入力と同じ順序の整形後 HTML
+     */
+    public List<String> buildCleanHtmlBatch(List<LlmDescriptionFormatter.BatchItem> items) {
+        if (items == null || items.isEmpty()) return List.of();
+        log.debug("[Groq LLM] Calling cleanToHtmlBatch size={}", items.size());
+        return formatter.cleanToHtmlBatch(items);
+    }
+
     /**
      * HTML をプレーンテキストに変換するメソッド。
      * 旧コードとの互換性を維持するために公開。
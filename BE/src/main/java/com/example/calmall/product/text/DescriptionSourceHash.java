@@ -0,0 +1,42 @@
+package com.example.calmall.product.text;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 説明文整形の入力元テキストからハッシュを算出する。
+ * - 入力（HTML/プレーン/キャプション）が前回整形時と同じかを O(1) で判定するために使う
+ * - null と空文字は区別しない
+ */
+public final class DescriptionSourceHash {
+
+    private DescriptionSourceHash() {}
+
+    /**
+     * 入力元テキストの SHA-256（hex）を返す。
+     *
+     * @param rawHtml     元の HTML 説明文
+     * @param rawPlain    元のプレーンテキスト説明文
+     * @param itemCaption 商品キャプション
+     * @return 64 文字の hex 文字列
+     */
+    public static String of(String rawHtml, String rawPlain, String itemCaption) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            update(md, rawHtml);
+            update(md, rawPlain);
+            update(md, itemCaption);
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // フィールド境界を区切り文字で明示（"ab"+"c" と "a"+"bc" を区別）
+    private static void update(MessageDigest md, String s) {
+        if (s != null) md.update(s.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+    }
+}
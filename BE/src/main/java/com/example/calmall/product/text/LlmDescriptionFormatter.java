@@ -2,6 +2,7 @@ package com.example.calmall.product.text;
 
 import com.example.calmall.ai.GroqClient;
 import com.example.calmall.ai.GroqClient.Message;
+import com.example.calmall.global.resilience.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
 import org.springframework.web.util.HtmlUtils;
@@ -19,31 +20,89 @@ import java.util.concurrent.atomic.AtomicLong;
 @Slf4j
 public class LlmDescriptionFormatter {
 
+    /**
+     * system/user プロンプトのバージョン。
+     * プロンプトや sanitize 処理を変更したら必ず上げること（保存済み商品の再整形判定に使う）。
+     */
+    public static final String PROMPT_VERSION = "2025-10-v2";
+
+    // quota 超過などで生成した代替文言の識別フレーズ
+    private static final String FALLBACK_PHRASE = "Groq の1日あたりのトークン上限を超過しました";
+
+    // サーキット OPEN 時の代替 HTML に付ける識別マーカー（保存対象外として扱われる）
+    private static final String FALLBACK_MARKER = "<!--__GROQ_FALLBACK__-->";
+
     private final GroqClient groq;
     private final String model;
     private final int maxTokens;
     private final int parallelism;
+    private final boolean streaming;
+    private final int batchSize;
+
+    // チャンク並行呼び出し用（null の場合は呼び出しごとに固定長プールを作る）
+    // 共有する場合は待ち行列を作らない Executor（仮想スレッド）を渡すこと
+    private final Executor fanOutExecutor;
+
+    // チャンク全体の待ち時間上限
+    private static final long CHUNK_TIMEOUT_MS = 90_000;
 
     // 文字数上限（≈2000 tokens 相当）
     private static final int MAX_INPUT_LENGTH = 3800;
 
+    // 1リクエストで処理する短文の上限（バッチ対象もこの長さ以下）
+    private static final int SHORT_INPUT_LENGTH = 1200;
+
+    // バッチ 1 リクエストあたりの入力文字数上限・出力トークン上限
+    private static final int BATCH_MAX_INPUT_CHARS = 6000;
+    private static final int BATCH_MAX_TOKENS = 8000;
+
+    // バッチ入出力の区切り（[[ITEM n]] ... [[END n]]）
+    private static final java.util.regex.Pattern BATCH_SECTION = java.util.regex.Pattern.compile(
+            "(?s)\\[\\[ITEM (\\d+)]](.*?)\\[\\[END \\1]]"
+    );
+
+    // ストリーミング検査: 最初のタグまでの前置きの上限 / 最初のタグから <section の出現を待つ文字数 / 出力上限の余裕分
+    private static final int STREAM_PREAMBLE_MAX_CHARS = 300;
+    private static final int STREAM_SECTION_LOOKAHEAD = 64;
+    private static final int STREAM_OUTPUT_MARGIN = 800;
+
     // 同時請求数上限（固定 2）
     private static final int MAX_CONCURRENT_REQUESTS = 2;
 
     // RateLimiter: 各 Groq 呼び出しの最小インターバル（ms）
     private static final long MIN_CALL_INTERVAL_MS = 1200;
-    private static final Semaphore RATE_LIMITER = new Semaphore(1, true);
-    private static final AtomicLong LAST_CALL_TIME = new AtomicLong(0);
+    // 次に Groq を呼んでよい時刻（ms）。同期・非同期の両経路で共有する
+    private static final AtomicLong NEXT_CALL_AT = new AtomicLong(0);
 
     public LlmDescriptionFormatter(GroqClient groq, String model, int maxTokens) {
         this(groq, model, maxTokens, 2);
     }
 
     public LlmDescriptionFormatter(GroqClient groq, String model, int maxTokens, int parallelism) {
+        this(groq, model, maxTokens, parallelism, false);
+    }
+
+    public LlmDescriptionFormatter(GroqClient groq, String model, int maxTokens, int parallelism, boolean streaming) {
+        this(groq, model, maxTokens, parallelism, streaming, 1);
+    }
+
+    public LlmDescriptionFormatter(GroqClient groq, String model, int maxTokens, int parallelism,
+                                   boolean streaming, int batchSize) {
+        this(groq, model, maxTokens, parallelism, streaming, batchSize, null);
+    }
+
+    /**
+     * @param fanOutExecutor チャンク並行呼び出しの共有 Executor（Java 21 の仮想スレッド用。null なら呼び出しごとのプール）
+     */
+    public LlmDescriptionFormatter(GroqClient groq, String model, int maxTokens, int parallelism,
+                                   boolean streaming, int batchSize, Executor fanOutExecutor) {
         this.groq = groq;
         this.model = model;
         this.maxTokens = maxTokens;
         this.parallelism = parallelism;
+        this.streaming = streaming;
+        this.batchSize = Math.max(1, batchSize);
+        this.fanOutExecutor = fanOutExecutor;
     }
 
     /** 原文（HTML/プレーン/キャプション/商品名）を LLM で整形（4引数） */
@@ -59,6 +118,118 @@ public class LlmDescriptionFormatter {
         return cleanToHtmlInternal(rawHtml, rawPlain, itemCaption, null);
     }
 
+    /** バッチ整形の入力 1 件分 */
+    public record BatchItem(String rawHtml, String rawPlain, String itemCaption, String itemName) {}
+
+    /**
+     * 複数商品の説明文をまとめて整形する（バックフィル・一括取込向け）
+     * - 短文（1200 文字以下）は最大 batchSize 件を 1 リクエストに詰め、system プロンプトを共有する
+     * - 長文・応答から取り出せなかった項目は個別に cleanToHtml と同じ経路で整形する
+     *
+     * @param items 入力（順序を保持）
+     * @return items と同じ順序の整形済み HTML
+     */
+    public List<String> cleanToHtmlBatch(List<BatchItem> items) {
+        final String[] results = new String[items.size()];
+        final List<Integer> batchable = new ArrayList<>();
+        final String[] normalizedByIndex = new String[items.size()];
+
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem it = items.get(i);
+            String base = chooseBasePreferHtml(it.rawHtml(), it.rawPlain(), it.itemCaption());
+            if (batchSize <= 1 || !StringUtils.hasText(base)) continue;
+            String normalized = truncateSafe(prefilterGarbage(normalize(base)), MAX_INPUT_LENGTH);
+            if (normalized.length() <= SHORT_INPUT_LENGTH) {
+                normalizedByIndex[i] = normalized;
+                batchable.add(i);
+            }
+        }
+
+        // 件数・文字数の上限でグループ化して送信
+        List<Integer> group = new ArrayList<>();
+        int groupChars = 0;
+        for (int idx : batchable) {
+            int len = normalizedByIndex[idx].length();
+            if (!group.isEmpty() && (group.size() >= batchSize || groupChars + len > BATCH_MAX_INPUT_CHARS)) {
+                cleanGroup(items, normalizedByIndex, group, results);
+                group = new ArrayList<>();
+                groupChars = 0;
+            }
+            group.add(idx);
+            groupChars += len;
+        }
+        if (!group.isEmpty()) cleanGroup(items, normalizedByIndex, group, results);
+
+        // バッチ対象外・バッチで取れなかった項目は個別処理
+        int individual = 0;
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) continue;
+            BatchItem it = items.get(i);
+            results[i] = cleanToHtml(it.rawHtml(), it.rawPlain(), it.itemCaption(), it.itemName());
+            individual++;
+        }
+        log.debug("[Groq LLM] batch finished: items={} batched={} individual={}",
+                items.size(), items.size() - individual, individual);
+        return Arrays.asList(results);
+    }
+
+    // 1 グループ分をまとめて整形し、取り出せた項目だけ results に格納する
+    private void cleanGroup(List<BatchItem> items, String[] normalizedByIndex, List<Integer> group, String[] results) {
+        if (group.size() == 1) return; // 1件だけなら通常経路の方が安全
+
+        final String response;
+        try {
+            response = callWithRetry("batch(size=" + group.size() + ")",
+                    () -> callGroqBatch(group.stream().map(i -> normalizedByIndex[i]).toList()));
+        } catch (Exception e) {
+            log.warn("[Groq LLM] batch failed (size={}) → fallback to individual: {}", group.size(), e.toString());
+            return;
+        }
+
+        java.util.Map<Integer, String> fragments = parseBatchSections(response, group.size());
+
+        for (int n = 0; n < group.size(); n++) {
+            int idx = group.get(n);
+            String frag = fragments.get(n + 1);
+            if (frag == null || !frag.contains("<section")) {
+                log.debug("[Groq LLM] batch item#{} missing or malformed → individual", n + 1);
+                continue;
+            }
+            BatchItem it = items.get(idx);
+            String name = it.itemName() != null ? it.itemName() : it.itemCaption();
+            try {
+                String sanitized = sanitizeMerged(frag, name);
+                assertNoLeadingBulletMarks(sanitized);
+                results[idx] = sanitized;
+            } catch (Exception e) {
+                log.debug("[Groq LLM] batch item#{} rejected by sanitize → individual: {}", n + 1, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * バッチ応答から [[ITEM n]] ... [[END n]] の中身を番号ごとに取り出す。
+     * - 番号順でなくてもよい（番号で対応付ける）
+     * - 1..count の範囲外の番号は無視する。同じ番号が複数あれば先頭を採用する
+     * - 欠けている番号はマップに含まれない（呼び出し側で個別処理に回す）
+     */
+    static java.util.Map<Integer, String> parseBatchSections(String response, int count) {
+        java.util.Map<Integer, String> fragments = new java.util.HashMap<>();
+        if (response == null) return fragments;
+        java.util.regex.Matcher m = BATCH_SECTION.matcher(response);
+        while (m.find()) {
+            int n;
+            try {
+                n = Integer.parseInt(m.group(1));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (n < 1 || n > count) continue;
+            fragments.putIfAbsent(n, m.group(2).strip());
+        }
+        return fragments;
+    }
+
     private String cleanToHtmlInternal(String rawHtml, String rawPlain, String itemCaption, String itemName) {
         final String base = chooseBasePreferHtml(rawHtml, rawPlain, itemCaption);
         if (!StringUtils.hasText(base)) {
@@ -69,7 +240,7 @@ public class LlmDescriptionFormatter {
         final String normalized = truncateSafe(prefilterGarbage(normalize(base)), MAX_INPUT_LENGTH);
 
         // 1発処理（短文）
-        if (normalized.length() <= 1200) {
+        if (normalized.length() <= SHORT_INPUT_LENGTH) {
             log.debug("[Groq LLM] force single chunk for short input (len={})", normalized.length());
             try {
                 final String merged = callGroqOnceWithRetry(0, normalized);
@@ -77,6 +248,10 @@ public class LlmDescriptionFormatter {
                 assertNoLeadingBulletMarks(sanitized);
                 return sanitized;
             } catch (Exception e) {
+                if (CallNotPermittedException.isCauseOf(e)) {
+                    log.warn("[Groq LLM] skipped: {}", e.getMessage());
+                    return circuitOpenFallbackHtml(itemName != null ? itemName : itemCaption);
+                }
                 log.warn("[Groq LLM] single chunk failed", e);
                 return quotaExceededFallbackHtml(itemName != null ? itemName : itemCaption);
             }
@@ -86,34 +261,62 @@ public class LlmDescriptionFormatter {
         final List<String> chunks = chunkSmart(normalized, 1600);
         log.debug("[Groq LLM] chunk count={} (targetLen=1600)", chunks.size());
 
-        final int threads = Math.min(MAX_CONCURRENT_REQUESTS, Math.max(1, parallelism));
-        final ExecutorService ex = Executors.newFixedThreadPool(threads);
+        // 共有 Executor が無い場合のみ呼び出し単位のプールを作る（Groq 呼び出し自体はレート制御で直列化される）
+        final ExecutorService ownPool = (fanOutExecutor == null)
+                ? Executors.newFixedThreadPool(Math.min(MAX_CONCURRENT_REQUESTS, Math.max(1, parallelism)))
+                : null;
+        final Executor ex = (ownPool != null) ? ownPool : fanOutExecutor;
 
         final List<Future<String>> futures = new ArrayList<>();
         for (int i = 0; i < chunks.size(); i++) {
             final int idx = i;
-            futures.add(ex.submit(() -> callGroqOnceWithRetry(idx, chunks.get(idx))));
+            FutureTask<String> task = new FutureTask<>(() -> callGroqOnceWithRetry(idx, chunks.get(idx)));
+            ex.execute(task);
+            futures.add(task);
         }
-        ex.shutdown();
+        if (ownPool != null) ownPool.shutdown();
 
         final List<String> parts = new ArrayList<>();
         int ok = 0, ng = 0;
+        boolean rejected = false;
+        // 全チャンク共通の期限（チャンクごとに 90 秒待つと合計で延びるため）
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CHUNK_TIMEOUT_MS);
         for (Future<String> f : futures) {
             try {
-                final String frag = f.get(90, TimeUnit.SECONDS); // timeout 90s
+                final String frag = f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
                 if (StringUtils.hasText(frag)) {
                     parts.add(frag);
                     ok++;
                 } else {
                     ng++;
                 }
+            } catch (TimeoutException e) {
+                log.warn("[Groq LLM] chunk timed out after {}ms → cancel", CHUNK_TIMEOUT_MS);
+                ng++;
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                ng++;
+                break;
             } catch (Exception e) {
-                log.warn("[Groq LLM] chunk failed (execution)", e);
+                if (CallNotPermittedException.isCauseOf(e)) {
+                    rejected = true;
+                    log.warn("[Groq LLM] chunk skipped: {}", e.getMessage());
+                } else {
+                    log.warn("[Groq LLM] chunk failed (execution)", e);
+                }
                 ng++;
             }
         }
+        // 期限切れ・中断で結果を使わないチャンクは取り消す（実行中なら割り込み、未実行なら Groq を呼ばない）
+        for (Future<String> f : futures) {
+            if (!f.isDone()) f.cancel(true);
+        }
         log.debug("[Groq LLM] finished: success={} failures={}", ok, ng);
 
+        if (rejected) {
+            return circuitOpenFallbackHtml(itemName != null ? itemName : itemCaption);
+        }
         if (ng > 0 || parts.isEmpty()) {
             return quotaExceededFallbackHtml(itemName != null ? itemName : itemCaption);
         }
@@ -126,42 +329,137 @@ public class LlmDescriptionFormatter {
 
     // === Retry / Backoff 策略 ===
     private String callGroqOnceWithRetry(int chunkIndex, String chunk) throws IOException, InterruptedException {
+        return callWithRetry("chunk#" + (chunkIndex + 1), () -> callGroq(chunkIndex, chunk));
+    }
+
+    @FunctionalInterface
+    private interface GroqCall {
+        String call() throws IOException, InterruptedException;
+    }
+
+    private String callWithRetry(String label, GroqCall groqCall) throws IOException, InterruptedException {
         int attempt = 0;
         IOException last = null;
 
         while (attempt < 3) {
+            // OPEN 中はレート制御の待機やバックオフをせずに即失敗させる
+            groq.ensureAvailable();
             try {
-                return callGroq(chunkIndex, chunk);
+                return groqCall.call();
+            } catch (GroqClient.StreamAbortedException e) {
+                // 出力形式違反・過大出力は温度0では再試行しても同じ結果になるため即失敗
+                log.warn("[Groq LLM] {} stream aborted after {} chars: {}", label, e.getReceivedChars(), e.getMessage());
+                throw e;
             } catch (IOException e) {
-                String msg = e.getMessage() != null ? e.getMessage() : "";
-                if (msg.contains("tokens per day") || msg.contains("TPD")) {
-                    log.warn("[Groq LLM] daily token quota exceeded → no retry (chunk#{})", chunkIndex + 1);
+                if (isDailyQuotaExceeded(e)) {
+                    log.warn("[Groq LLM] daily token quota exceeded → no retry ({})", label);
                     throw new IOException("GROQ_TPD_EXCEEDED");
                 }
-                if (msg.contains("rate_limit_exceeded") || msg.contains("429")) {
-                    long wait = (long) Math.pow(2, attempt) * 2000; // 2s → 4s → 8s
-                    log.warn("[Groq LLM] 429（chunk#{} attempt#{}）→ sleep {}ms", chunkIndex + 1, attempt + 1, wait);
-                    Thread.sleep(wait);
-                    last = e;
+                long wait = retryBackoffMs(e, attempt);
+                if (isRateLimited(e)) {
+                    log.warn("[Groq LLM] 429（{} attempt#{}）→ sleep {}ms", label, attempt + 1, wait);
                 } else {
-                    long wait = (long) Math.pow(2, attempt) * 800; // 0.8s → 1.6s → 3.2s
-                    log.warn("[Groq LLM] chunk#{} attempt#{} failed: {} → sleep {}ms", chunkIndex + 1, attempt + 1, e.toString(), wait);
-                    Thread.sleep(wait);
-                    last = e;
+                    log.warn("[Groq LLM] {} attempt#{} failed: {} → sleep {}ms", label, attempt + 1, e.toString(), wait);
                 }
+                Thread.sleep(wait);
+                last = e;
                 attempt++;
             }
         }
         throw last != null ? last : new IOException("Groq call failed");
     }
 
-    // === system / user prompt（DICT 付き / extractive-only） ===
-    private String callGroq(int chunkIndex, String chunk) throws IOException, InterruptedException {
-        enforceRateLimit();
+    private static boolean isDailyQuotaExceeded(Throwable e) {
+        String msg = e.getMessage() != null ? e.getMessage() : "";
+        return msg.contains("tokens per day") || msg.contains("TPD");
+    }
 
-        java.util.Set<String> dict = buildTermSet(chunk);
+    private static boolean isRateLimited(Throwable e) {
+        String msg = e.getMessage() != null ? e.getMessage() : "";
+        return msg.contains("rate_limit_exceeded") || msg.contains("429");
+    }
+
+    // 429: 2s → 4s → 8s / その他: 0.8s → 1.6s → 3.2s
+    private static long retryBackoffMs(Throwable e, int attempt) {
+        return (long) Math.pow(2, attempt) * (isRateLimited(e) ? 2000 : 800);
+    }
 
-        final String system = """
+    // === 非同期経路（スレッドを待機させずに遅延・再試行する） ===
+
+    /**
+     * cleanToHtml の非ブロッキング版。
+     * - レート制御の待ち・再試行のバックオフは delayedExecutor で表現し、スレッドを sleep させない
+     * - Groq 呼び出しは chatAsync（ストリーミングの早期打ち切りは使わない）
+     * - 失敗時の代替文言は同期版と同じ
+     */
+    public CompletableFuture<String> cleanToHtmlAsync(String rawHtml, String rawPlain, String itemCaption, String itemName) {
+        final String name = itemName != null ? itemName : itemCaption;
+        final String base = chooseBasePreferHtml(rawHtml, rawPlain, itemCaption);
+        if (!StringUtils.hasText(base)) {
+            return CompletableFuture.completedFuture(quotaExceededFallbackHtml(itemName));
+        }
+
+        final String normalized = truncateSafe(prefilterGarbage(normalize(base)), MAX_INPUT_LENGTH);
+        final List<String> chunks = (normalized.length() <= SHORT_INPUT_LENGTH)
+                ? List.of(normalized)
+                : chunkSmart(normalized, 1600);
+
+        final List<CompletableFuture<String>> parts = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            parts.add(callGroqAsyncWithRetry(i, chunks.get(i), 0));
+        }
+
+        return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                .thenApply(v -> {
+                    final StringBuilder merged = new StringBuilder();
+                    for (CompletableFuture<String> p : parts) merged.append(p.join());
+                    final String sanitized = sanitizeMerged(merged.toString(), name);
+                    assertNoLeadingBulletMarks(sanitized);
+                    return sanitized;
+                })
+                .exceptionally(e -> {
+                    if (CallNotPermittedException.isCauseOf(e)) {
+                        log.warn("[Groq LLM] async skipped: {}", e.getMessage());
+                        return circuitOpenFallbackHtml(name);
+                    }
+                    log.warn("[Groq LLM] async clean failed: {}", e.toString());
+                    return quotaExceededFallbackHtml(name);
+                });
+    }
+
+    private CompletableFuture<String> callGroqAsyncWithRetry(int chunkIndex, String chunk, int attempt) {
+        try {
+            groq.ensureAvailable();
+        } catch (CallNotPermittedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        final List<Message> messages = chunkMessages(chunkIndex, chunk);
+        final long wait = reserveRateSlot();
+        return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(wait, TimeUnit.MILLISECONDS))
+                .thenCompose(v -> groq.chatAsync(model, messages, maxTokens))
+                .handle((res, e) -> {
+                    if (e == null) return CompletableFuture.completedFuture(res);
+
+                    final Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+                    if (!(cause instanceof IOException) || attempt + 1 >= 3) {
+                        return CompletableFuture.<String>failedFuture(cause);
+                    }
+                    if (isDailyQuotaExceeded(cause)) {
+                        log.warn("[Groq LLM] daily token quota exceeded → no retry (chunk#{})", chunkIndex + 1);
+                        return CompletableFuture.<String>failedFuture(new IOException("GROQ_TPD_EXCEEDED"));
+                    }
+                    final long backoff = retryBackoffMs(cause, attempt);
+                    log.warn("[Groq LLM] chunk#{} async attempt#{} failed: {} → retry in {}ms",
+                            chunkIndex + 1, attempt + 1, cause.toString(), backoff);
+                    return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS))
+                            .thenCompose(x -> callGroqAsyncWithRetry(chunkIndex, chunk, attempt + 1));
+                })
+                .thenCompose(f -> f);
+    }
+
+    // === system / user prompt（DICT 付き / extractive-only） ===
+    private static final String SYSTEM_PROMPT = """
 あなたはECサイト向けの「商品説明テキストの構造化クリーナー」です。
 出力は **抽出圧縮（extractive-only）** とし、原文に存在しない名詞・機能・数値を新規に作成してはいけません。
 以下のルールに従い、**安全な HTML 本文断片のみ**を出力してください。
@@ -173,6 +471,35 @@ public class LlmDescriptionFormatter {
 【出力】<section> から始まる断片のみ。前後に何も出力しない。
 """;
 
+    // バッチ用: 規則は単発と同じで、出力だけ商品ごとの区切りで囲ませる
+    private static final String BATCH_SYSTEM_PROMPT = """
+あなたはECサイト向けの「商品説明テキストの構造化クリーナー」です。
+複数の商品説明をまとめて受け取り、商品ごとに独立して整形します。
+出力は **抽出圧縮（extractive-only）** とし、原文に存在しない名詞・機能・数値を新規に作成してはいけません。
+以下のルールに従い、商品ごとに **安全な HTML 本文断片のみ**を出力してください。
+
+【許可要素】<section class="desc-section table|bullets|body">、<table><tr><th|td>、<ul><li>、<p>
+【禁止】広告/店舗案内/外部URL/FAQ/連絡先/クーポン/メタ発言/空虚な定型句
+【変換】規格や成分などの「項目：値」は<table>、箇条書きは<ul><li>、その他は<p>
+【整形】重複統合・冗長削除・誤字は直さずに削除（推測で補完しない）
+【出力】商品ごとに [[ITEM n]] の行、<section> から始まる断片、[[END n]] の行の順で出力する（n は入力と同じ番号）。
+        区切りの外には何も出力しない。
+""";
+
+    private String callGroq(int chunkIndex, String chunk) throws IOException, InterruptedException {
+        enforceRateLimit();
+
+        final List<Message> messages = chunkMessages(chunkIndex, chunk);
+        if (streaming) {
+            return groq.chatStream(model, messages, maxTokens, streamGuardFor(chunk));
+        }
+        return groq.chat(model, messages, maxTokens);
+    }
+
+    // チャンク 1 件分の system/user メッセージ
+    private static List<Message> chunkMessages(int chunkIndex, String chunk) {
+        java.util.Set<String> dict = buildTermSet(chunk);
+
         final String user = """
 [チャンク #%d]
 原文:
@@ -188,27 +515,72 @@ public class LlmDescriptionFormatter {
 - <li> の先頭に記号（・●•-*）を付けない。
 """.formatted(chunkIndex + 1, chunk, String.join("、", dict));
 
-        return groq.chat(model, List.of(Message.sys(system), Message.user(user)), maxTokens);
+        return List.of(Message.sys(SYSTEM_PROMPT), Message.user(user));
     }
 
-    // === RateLimiter ===
-    private static void enforceRateLimit() throws InterruptedException {
-        RATE_LIMITER.acquire();
-        try {
-            long now = System.currentTimeMillis();
-            long last = LAST_CALL_TIME.get();
-            long elapsed = now - last;
+    // 複数チャンクを区切り付きで 1 リクエストにまとめる（system プロンプトはバッチ専用）
+    private String callGroqBatch(List<String> chunks) throws IOException, InterruptedException {
+        enforceRateLimit();
 
-            if (elapsed < MIN_CALL_INTERVAL_MS) {
-                long wait = MIN_CALL_INTERVAL_MS - elapsed;
-                log.debug("[Groq LLM] RateLimiter sleep {}ms", wait);
-                Thread.sleep(wait);
-            }
+        StringBuilder user = new StringBuilder(BATCH_MAX_INPUT_CHARS * 2);
+        user.append("""
+以下の %d 件の商品説明を、それぞれ独立に整形してください。
+各商品は [[ITEM n]] と [[END n]] で囲まれています。出力も同じ番号の [[ITEM n]] ... [[END n]] で各商品を囲み、
+全件を番号順に出力してください。区切りの外には何も出力しないこと。商品間で語彙を混ぜないこと。
+
+""".formatted(chunks.size()));
+
+        int totalChars = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            String chunk = chunks.get(i);
+            totalChars += chunk.length();
+            user.append("[[ITEM ").append(i + 1).append("]]\n")
+                    .append("原文:\n").append(chunk).append("\n\n")
+                    .append("【DICT（使用許可語彙）】\n").append(String.join("、", buildTermSet(chunk))).append('\n')
+                    .append("[[END ").append(i + 1).append("]]\n\n");
+        }
+        user.append("""
+【厳格制約】（全商品共通）
+- 各文はその商品の DICT の語彙（または原文の数値・単位）を必ず1語以上含むこと。含まない文は出力しない。
+- DICT にない新規名詞を導入しない。
+- 内容が空になる商品は、その区切り内に次の1行のみを出力: <section class="desc-section body"><p></p></section>
+- <li> の先頭に記号（・●•-*）を付けない。
+""");
 
-            LAST_CALL_TIME.set(System.currentTimeMillis());
-        } finally {
-            RATE_LIMITER.release();
+        final int batchTokens = Math.min(BATCH_MAX_TOKENS, maxTokens * chunks.size());
+        final List<Message> messages = List.of(Message.sys(BATCH_SYSTEM_PROMPT), Message.user(user.toString()));
+        if (streaming) {
+            return groq.chatStream(model, messages, batchTokens,
+                    GroqClient.StreamGuard.maxChars(totalChars * 2 + STREAM_OUTPUT_MARGIN * chunks.size()));
         }
+        return groq.chat(model, messages, batchTokens);
+    }
+
+    /**
+     * ストリーミング時の早期打ち切り条件
+     * - 前置きの後の最初のタグ付近に <section が無い、または前置きが長すぎる（雑談・拒否応答）
+     *   （短い前置きは sanitizeMerged で除去されるため打ち切らない）
+     * - 抽出圧縮のはずが原文の 2 倍超に膨らんだ（暴走出力）
+     */
+    static GroqClient.StreamGuard streamGuardFor(String chunk) {
+        return GroqClient.StreamGuard.requirePrefixWithin("<section", STREAM_PREAMBLE_MAX_CHARS, STREAM_SECTION_LOOKAHEAD)
+                .and(GroqClient.StreamGuard.maxChars(chunk.length() * 2 + STREAM_OUTPUT_MARGIN));
+    }
+
+    // === RateLimiter ===
+    private static void enforceRateLimit() throws InterruptedException {
+        long wait = reserveRateSlot();
+        if (wait > 0) {
+            log.debug("[Groq LLM] RateLimiter sleep {}ms", wait);
+            Thread.sleep(wait);
+        }
+    }
+
+    // 呼び出し枠（MIN_CALL_INTERVAL_MS 間隔）を予約し、その時刻までの待ち時間（ms）を返す
+    private static long reserveRateSlot() {
+        final long now = System.currentTimeMillis();
+        final long prev = NEXT_CALL_AT.getAndUpdate(next -> Math.max(next, now) + MIN_CALL_INTERVAL_MS);
+        return Math.max(0L, prev - now);
     }
 
     // === Utility ===
@@ -401,7 +773,26 @@ public class LlmDescriptionFormatter {
     private static String quotaExceededFallbackHtml(String itemName) {
         return "<section class=\"desc-section body\"><p>" +
                 (itemName != null ? itemName + " の商品説明は表示できません。" : "商品説明は表示できません。") +
-                "（Groq の1日あたりのトークン上限を超過しました）</p></section>";
+                "（" + FALLBACK_PHRASE + "）</p></section>";
+    }
+
+    // Groq が OPEN（障害中）の間は商品名だけの簡易説明を返す
+    private static String circuitOpenFallbackHtml(String itemName) {
+        return DescriptionFallbackBuilder.buildFromMeta(itemName, 0) + FALLBACK_MARKER;
+    }
+
+    /** 整形結果が LLM 失敗時の代替文言かを判定（代替文言は整形済みとして記録しない） */
+    public static boolean isFallbackOutput(String html) {
+        return html != null && (html.contains(FALLBACK_PHRASE) || html.contains(FALLBACK_MARKER));
+    }
+
+    /** 代替文言の識別フレーズ・マーカーを取り除く（表示用。空の <section> が残っても描画上は問題ない） */
+    public static String stripFallback(String s) {
+        if (s == null) return null;
+        return s.replace(FALLBACK_MARKER, "")
+                .replace("（" + FALLBACK_PHRASE + "）", "")
+                .replace(FALLBACK_PHRASE, "")
+                .trim();
     }
 
     // ===== DICT（語彙）＆ 検収 =====
@@ -3,9 +3,8 @@ package com.example.calmall.review.controller;
 import com.example.calmall.global.dto.ApiResponseDto;
 import com.example.calmall.review.dto.*;
 import com.example.calmall.review.service.ReviewService;
-import com.example.calmall.user.entity.User;
+import com.example.calmall.user.session.SessionUser;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -22,22 +21,21 @@ public class ReviewController {
     private final ReviewService reviewService;
 
     // セッションからログインユーザーを取得
-    private User getLoginUser(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        return (session != null) ? (User) session.getAttribute("user") : null;
+    private SessionUser getLoginUser(HttpServletRequest request) {
+        return SessionUser.of(request);
     }
 
     // レビュー投稿
     @PostMapping
     public ResponseEntity<ApiResponseDto> postReview(@Valid @RequestBody ReviewRequestDto requestDto,
                                                      HttpServletRequest request) {
-        User user = getLoginUser(request);
+        SessionUser user = getLoginUser(request);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponseDto("ログインが必要です"));
         }
         // ServiceにはUserIDではなくUserを渡す実装へ移行も可能だが、投稿は既存のままでも可
-        return reviewService.postReview(requestDto, user.getUserId());
+        return reviewService.postReview(requestDto, user.userId());
     }
 
     // 商品別レビュー取得
@@ -46,8 +44,8 @@ public class ReviewController {
                                                                         @RequestParam(defaultValue = "1") int page,
                                                                         @RequestParam(defaultValue = "10") int size,
                                                                         HttpServletRequest request) {
-        User user = getLoginUser(request);
-        String userId = (user != null) ? user.getUserId() : null;
+        SessionUser user = getLoginUser(request);
+        String userId = (user != null) ? user.userId() : null;
 
         // フロントは1始まり → Springは0始まりのため変換
         int pageIndex = Math.max(0, page - 1);
@@ -61,7 +59,7 @@ public class ReviewController {
     public ResponseEntity<ReviewListByUserResponseDto> getMyReviews(@RequestParam(defaultValue = "1") int page,
                                                                     @RequestParam(defaultValue = "10") int size,
                                                                     HttpServletRequest request) {
-        User loginUser = getLoginUser(request);
+        SessionUser loginUser = getLoginUser(request);
         if (loginUser == null) {
             // 未ログイン時は401
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -70,8 +68,7 @@ public class ReviewController {
         // フロントは1始まりの変換
         int pageIndex = Math.max(0, page - 1);
 
-        // ServiceにUser渡す
-        return reviewService.getReviewsByUser(loginUser, pageIndex, size);
+        return reviewService.getReviewsByUser(loginUser.userId(), pageIndex, size);
     }
 
     // レビュー編集
@@ -79,31 +76,31 @@ public class ReviewController {
     public ResponseEntity<ReviewDetailResponseDto> updateReview(@PathVariable Long id,
                                                                 @Valid @RequestBody ReviewUpdateRequestDto requestDto,
                                                                 HttpServletRequest request) {
-        User user = getLoginUser(request);
+        SessionUser user = getLoginUser(request);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        return reviewService.updateReview(id, requestDto, user.getUserId());
+        return reviewService.updateReview(id, requestDto, user.userId());
     }
 
     // レビュー削除
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponseDto> deleteReview(@PathVariable Long id,
                                                        HttpServletRequest request) {
-        User user = getLoginUser(request);
+        SessionUser user = getLoginUser(request);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponseDto("ログインが必要です"));
         }
-        return reviewService.deleteReview(id, user.getUserId());
+        return reviewService.deleteReview(id, user.userId());
     }
 
     // レビュー詳細取得
     @PostMapping("/{id}")
     public ResponseEntity<ReviewDetailResponseDto> getReviewDetail(@PathVariable Long id,
                                                                    HttpServletRequest request) {
-        User user = getLoginUser(request);
-        String userId = (user != null) ? user.getUserId() : null;
+        SessionUser user = getLoginUser(request);
+        String userId = (user != null) ? user.userId() : null;
         return reviewService.getReviewDetail(id, userId);
     }
 }
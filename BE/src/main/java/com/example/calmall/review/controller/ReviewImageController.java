@@ -3,6 +3,8 @@ package com.example.calmall.review.controller;
 import com.example.calmall.global.dto.ApiResponseDto;
 import com.example.calmall.review.dto.ImageDeleteRequestDto;
 import com.example.calmall.review.service.ReviewImageService;
+import com.example.calmall.user.session.SessionUser;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -28,13 +30,16 @@ public class ReviewImageController {
 
     // 複数画像アップロードAPI（最大3枚）
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadImages(@RequestParam("files") List<MultipartFile> files) {
+    public ResponseEntity<?> uploadImages(@RequestParam("files") List<MultipartFile> files,
+                                          HttpServletRequest request) {
         log.debug("==== [DEBUG] /upload called, files={}", (files != null ? files.size() : "null"));
         if (files.size() > 3) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ApiResponseDto("画像は最大3枚までアップロードできます"));
         }
-        return reviewImageService.uploadImages(files);
+        // 未ログインでもセッションは作らない（その場合は同じ内容の画像を再利用しない）
+        SessionUser user = SessionUser.of(request);
+        return reviewImageService.uploadImages(files, user != null ? user.userId() : null);
     }
 
     // アップロード済み画像の削除API
@@ -35,6 +35,14 @@ public class ReviewImage {
     @Column(name = "public_id")
     private String publicId;
 
+    // アップロードしたユーザー（未紐付け画像の再利用は本人の画像に限る。未ログイン時は NULL）
+    @Column(name = "user_id", length = 40)
+    private String userId;
+
+    // 元ファイルの SHA-256（hex）。未紐付け画像の重複アップロード判定に使う（紐付け解除時は NULL に戻す）
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     // コンテンツタイプ
     @Column(name = "content_type", nullable = false)
     private String contentType;
@@ -0,0 +1,22 @@
+package com.example.calmall.review.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * レビュー投稿可否の判定材料（ReviewRepository.findEligibility で 1 クエリ取得）
+ *
+ * @param hasDeleted     削除済みレビューがある（再投稿不可）
+ * @param hasActive      未削除のレビューがある（投稿済み）
+ * @param lastPurchaseAt 最後に購入した注文の日時（未購入なら null）
+ */
+public record ReviewEligibility(boolean hasDeleted, boolean hasActive, LocalDateTime lastPurchaseAt) {
+
+    public boolean hasPurchase() {
+        return lastPurchaseAt != null;
+    }
+
+    /** 指定日時より後に購入しているか */
+    public boolean purchasedAfter(LocalDateTime after) {
+        return lastPurchaseAt != null && lastPurchaseAt.isAfter(after);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.calmall.review.repository;
+
+import com.example.calmall.review.entity.ReviewImage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * レビュー画像の一括登録・レビューへの一括紐付け・内容ハッシュによる再利用・未紐付け画像の掃除（JDBC）
+ * ReviewImage は IDENTITY 採番のため JPA の saveAll は 1 行ずつ INSERT になる。
+ * ここでは複数行 INSERT 1 文で登録する。
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReviewImageJdbcRepository {
+
+    // 同じユーザーがアップロードした同じ内容の未紐付け画像を再利用する。created_at を更新して未使用画像の掃除対象から外す
+    private static final String CLAIM_SQL = """
+            UPDATE review_images
+               SET created_at = ?
+             WHERE user_id = ?
+               AND content_hash = ?
+               AND review_id IS NULL
+               AND deleting_at IS NULL
+            RETURNING image_url, public_id, content_type, created_at
+            """;
+
+    private static final String INSERT_PREFIX = """
+            INSERT INTO review_images (review_id, image_url, public_id, content_type, created_at, user_id, content_hash)
+            VALUES\s""";
+
+    // 同じユーザーが同時に同じ内容をアップロードした場合は先に登録された方を残す
+    private static final String INSERT_SUFFIX = """
+
+            ON CONFLICT (user_id, content_hash) WHERE review_id IS NULL AND content_hash IS NOT NULL DO NOTHING
+            RETURNING image_url
+            """;
+
+    // 猶予期間を過ぎた未紐付け画像に削除中の印を付ける（部分インデックス idx_review_images_unbound_created_at を使う）
+    // 複数インスタンスで同時に掃除しても同じ行を取り合わないよう SKIP LOCKED。行ロックはこの 1 文の間だけ
+    // 印が古いまま残った行（削除途中で停止した場合など）は付け直す
+    private static final String MARK_ORPHANS_SQL = """
+            UPDATE review_images
+               SET deleting_at = ?
+             WHERE id IN (SELECT id
+                            FROM review_images
+                           WHERE review_id IS NULL
+                             AND created_at < ?
+                             AND (deleting_at IS NULL OR deleting_at < ?)
+                           ORDER BY created_at
+                           LIMIT ?
+                             FOR UPDATE SKIP LOCKED)
+            RETURNING id, image_url, public_id
+            """;
+
+    // 投稿者本人がアップロードした未紐付け画像、または既にこのレビューに紐付いている画像だけを紐付ける
+    // （他ユーザーの画像・他レビューの画像は対象外）
+    private static final String BIND_SQL = """
+            UPDATE review_images
+               SET review_id = ?
+             WHERE image_url = ANY (?)
+               AND (review_id = ? OR (review_id IS NULL AND user_id = ? AND deleting_at IS NULL))
+            RETURNING image_url
+            """;
+
+    // 自分が付けた印が残っている未紐付けの行だけを削除する
+    private static final String DELETE_UNBOUND_SQL =
+            "DELETE FROM review_images WHERE review_id IS NULL AND deleting_at = ? AND id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** 同じユーザーの内容ハッシュが一致する未紐付け画像があれば、作成日時を更新して返す */
+    public Optional<ReviewImage> claimUnboundByHash(String userId, String contentHash, LocalDateTime now) {
+        if (userId == null) return Optional.empty();
+        List<ReviewImage> rows = jdbcTemplate.query(CLAIM_SQL, (rs, i) -> ReviewImage.builder()
+                        .imageUrl(rs.getString("image_url"))
+                        .publicId(rs.getString("public_id"))
+                        .contentType(rs.getString("content_type"))
+                        .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                        .userId(userId)
+                        .contentHash(contentHash)
+                        .build(),
+                Timestamp.valueOf(now), userId, contentHash);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * URL 一覧の画像をまとめてレビューに紐付ける（1 文）。
+     * @param userId レビューの投稿者（この人がアップロードした画像だけを紐付ける）
+     * @return 紐付いた画像URL（DB に存在しない・他ユーザーの・他レビューに紐付け済みのものは含まない）
+     */
+    public Set<String> bindToReview(Long reviewId, String userId, Collection<String> imageUrls) {
+        if (imageUrls.isEmpty() || userId == null) return Set.of();
+        List<String> bound = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(BIND_SQL);
+            ps.setLong(1, reviewId);
+            ps.setArray(2, con.createArrayOf("text", imageUrls.toArray()));
+            ps.setLong(3, reviewId);
+            ps.setString(4, userId);
+            return ps;
+        }, (rs, i) -> rs.getString(1));
+        return new HashSet<>(bound);
+    }
+
+    /**
+     * 猶予期間を過ぎた未紐付け画像に削除中の印を付けて返す（1 文で完結し、行ロックは持ち越さない）。
+     * 印の付いた行は再利用（claimUnboundByHash）やレビューへの紐付けの対象外になる。
+     * @param markedAt 印（deleteUnboundByIds に同じ値を渡す）
+     * @param staleBefore これより古い印は付け直す
+     */
+    public List<ReviewImage> markUnboundOlderThan(LocalDateTime cutoff, LocalDateTime markedAt,
+                                                  LocalDateTime staleBefore, int limit) {
+        return jdbcTemplate.query(MARK_ORPHANS_SQL, (rs, i) -> ReviewImage.builder()
+                        .id(rs.getLong("id"))
+                        .imageUrl(rs.getString("image_url"))
+                        .publicId(rs.getString("public_id"))
+                        .build(),
+                Timestamp.valueOf(markedAt), Timestamp.valueOf(cutoff), Timestamp.valueOf(staleBefore), limit);
+    }
+
+    /** 印 markedAt が残っている未紐付けの行をまとめて削除する（他の掃除が印を付け直した行は消さない） */
+    public int deleteUnboundByIds(Collection<Long> ids, LocalDateTime markedAt) {
+        if (ids.isEmpty()) return 0;
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(DELETE_UNBOUND_SQL);
+            ps.setTimestamp(1, Timestamp.valueOf(markedAt));
+            ps.setArray(2, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * レビュー未紐付けの画像をまとめて登録する。
+     * @return 実際に登録された画像URL（内容ハッシュの衝突で登録されなかったものは含まない）
+     */
+    public Set<String> insertUnbound(List<ReviewImage> images) {
+        if (images.isEmpty()) return Set.of();
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        List<Object> args = new ArrayList<>(images.size() * 6);
+        for (int i = 0; i < images.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(NULL, ?, ?, ?, ?, ?, ?)");
+            ReviewImage img = images.get(i);
+            args.add(img.getImageUrl());
+            args.add(img.getPublicId());
+            args.add(img.getContentType());
+            args.add(Timestamp.valueOf(img.getCreatedAt()));
+            args.add(img.getUserId());
+            args.add(img.getContentHash());
+        }
+        sql.append(INSERT_SUFFIX);
+        return new HashSet<>(jdbcTemplate.queryForList(sql.toString(), String.class, args.toArray()));
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,9 @@ public interface ReviewImageRepository extends JpaRepository<ReviewImage, Long>
     // imageUrlで1件取得
     Optional<ReviewImage> findByImageUrl(String imageUrl);
 
+    // imageUrlで複数件取得（一括削除用）
+    List<ReviewImage> findAllByImageUrlIn(Collection<String> imageUrls);
+
     // imageUrl完全一致で1件削除
     @Modifying
     @Transactional
@@ -27,15 +31,11 @@ public interface ReviewImageRepository extends JpaRepository<ReviewImage, Long>
     // 指定レビューに紐付いている全画像を取得
     List<ReviewImage> findAllByReview(Review review);
 
-    // 画像をレビューに紐付け
-    @Modifying
-    @Transactional
-    @Query(value = "UPDATE review_images SET review_id = :reviewId WHERE id = :id", nativeQuery = true)
-    void updateReviewBindingNative(@Param("id") Long id, @Param("reviewId") Long reviewId);
+    // 画像のレビューへの紐付けは ReviewImageJdbcRepository.bindToReview（URL 一覧を 1 文で紐付け）
 
-    // 複数画像の紐付け解除
+    // 複数画像の紐付け解除（同じ内容の未紐付け画像と一意制約で衝突しないよう content_hash も外す）
     @Modifying
     @Transactional
-    @Query(value = "UPDATE review_images SET review_id = NULL WHERE review_id = :reviewId AND image_url IN :urls", nativeQuery = true)
+    @Query(value = "UPDATE review_images SET review_id = NULL, content_hash = NULL WHERE review_id = :reviewId AND image_url IN :urls", nativeQuery = true)
     void unbindImagesFromReview(@Param("reviewId") Long reviewId, @Param("urls") List<String> urls);
 }
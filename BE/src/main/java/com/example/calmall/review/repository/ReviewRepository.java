@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Reviewエンティティに対するDBアクセス処理を定義するリポジトリインターフェース
@@ -25,9 +26,31 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     // 対象商品の全レビューを取得（削除されていないレビューのみ、ページングなし）
     List<Review> findByProduct_ItemCodeAndDeletedFalse(String itemCode);
 
+    // マイページ用：対象ユーザーの最新レビュー10件（削除済みも含む。必要な列のみ）
+    List<ReviewSummaryRow> findTop10ByUser_UserIdOrderByCreatedAtDesc(String userId);
+
     // 対象ユーザーのレビューをページング付きで取得（削除されていないレビューのみ）
     Page<Review> findByUser_UserIdAndDeletedFalse(String userId, Pageable pageable);
 
+    /**
+     * レビュー投稿可否の判定材料を 1 クエリで取得する（削除済み・投稿済みレビューの有無と最終購入日時）。
+     * 商品が存在しない場合は空。
+     */
+    @Query("""
+        SELECT new com.example.calmall.review.repository.ReviewEligibility(
+            CASE WHEN EXISTS (SELECT 1 FROM Review r
+                              WHERE r.product = p AND r.user.userId = :userId AND r.deleted = true)
+                 THEN true ELSE false END,
+            CASE WHEN EXISTS (SELECT 1 FROM Review r
+                              WHERE r.product = p AND r.user.userId = :userId AND r.deleted = false)
+                 THEN true ELSE false END,
+            (SELECT MAX(o.createdAt) FROM Orders o JOIN o.orderItems oi
+              WHERE o.user.userId = :userId AND oi.product = p))
+        FROM Product p
+        WHERE p.itemCode = :itemCode
+    """)
+    Optional<ReviewEligibility> findEligibility(@Param("userId") String userId, @Param("itemCode") String itemCode);
+
     // 指定商品・ユーザーのレビュー（削除されていない）→ List で返す（Optional だと複数ヒット時に例外発生するため）
     List<Review> findByProduct_ItemCodeAndUser_UserIdAndDeletedFalse(String itemCode, String userId);
 
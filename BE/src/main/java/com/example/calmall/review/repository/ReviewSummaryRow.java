@@ -0,0 +1,19 @@
+package com.example.calmall.review.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * マイページのレビュー履歴用プロジェクション（本文まで。商品・画像・いいねは引かない）
+ */
+public interface ReviewSummaryRow {
+
+    Long getReviewId();
+
+    String getTitle();
+
+    LocalDateTime getCreatedAt();
+
+    Integer getRating();
+
+    String getComment();
+}
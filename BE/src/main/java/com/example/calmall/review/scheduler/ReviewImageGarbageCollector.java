@@ -0,0 +1,115 @@
+package com.example.calmall.review.scheduler;
+
+import com.example.calmall.review.entity.ReviewImage;
+import com.example.calmall.review.repository.ReviewImageJdbcRepository;
+import com.example.calmall.review.storage.ReviewImageUploader;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * レビューに紐付かないまま残った画像の掃除
+ * - アップロード後に投稿されなかった画像、レビュー更新で外された画像が対象
+ * - 猶予期間（grace-hours）を過ぎたものを batch-size 件ずつ処理する
+ *   1. 削除中の印を付ける（1 文。以降は再利用・紐付けされない）
+ *   2. 保存先から一括削除する（DB 接続・行ロックは持たない）
+ *   3. 印が残っている成功分の行をまとめて削除する
+ * - 保存先の削除に失敗した行・途中で停止して残った行は、印を付けたまま lease-minutes 後に再試行する
+ *   （保存先で実際には消えている可能性があるため、再利用・紐付けには戻さない）
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "calmall.review-image.gc.enabled", havingValue = "true", matchIfMissing = true)
+public class ReviewImageGarbageCollector {
+
+    private final ReviewImageJdbcRepository reviewImageJdbcRepository;
+    private final ReviewImageUploader uploader;
+    private final MeterRegistry meterRegistry;
+
+    private final Duration grace;
+    private final Duration lease;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public ReviewImageGarbageCollector(
+            ReviewImageJdbcRepository reviewImageJdbcRepository,
+            ReviewImageUploader uploader,
+            MeterRegistry meterRegistry,
+            @Value("${calmall.review-image.gc.grace-hours:24}") long graceHours,
+            @Value("${calmall.review-image.gc.lease-minutes:60}") long leaseMinutes,
+            @Value("${calmall.review-image.gc.batch-size:100}") int batchSize,
+            @Value("${calmall.review-image.gc.max-batches:10}") int maxBatches
+    ) {
+        this.reviewImageJdbcRepository = reviewImageJdbcRepository;
+        this.uploader = uploader;
+        this.meterRegistry = meterRegistry;
+        this.grace = Duration.ofHours(graceHours);
+        this.lease = Duration.ofMinutes(leaseMinutes);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    // 既定は 1 時間ごと（起動直後は避ける）
+    @Scheduled(initialDelayString = "${calmall.review-image.gc.initial-delay-ms:300000}",
+            fixedDelayString = "${calmall.review-image.gc.interval-ms:3600000}")
+    public void collect() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(grace);
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            BatchResult result;
+            try {
+                result = collectBatch(cutoff);
+            } catch (RuntimeException e) {
+                log.error("[ReviewImageGC] batch failed: {}", e.toString(), e);
+                break;
+            }
+            total += result.deleted();
+            // 一部でも削除に失敗した、または残りがない場合は次回に回す
+            if (result.locked() < batchSize || result.deleted() < result.locked()) break;
+        }
+        if (total > 0) {
+            log.info("[ReviewImageGC] deleted {} orphaned images (cutoff={})", total, cutoff);
+        }
+    }
+
+    private record BatchResult(int locked, int deleted) {}
+
+    // 1 バッチ分。印を付けた行は再利用・紐付けされないため、保存先の削除中に行ロックを持つ必要はない
+    private BatchResult collectBatch(LocalDateTime cutoff) {
+        // DB に保存される精度に揃え、印の比較に使う
+        LocalDateTime markedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<ReviewImage> orphans = reviewImageJdbcRepository
+                .markUnboundOlderThan(cutoff, markedAt, markedAt.minus(lease), batchSize);
+        if (orphans.isEmpty()) return new BatchResult(0, 0);
+
+        List<String> publicIds = orphans.stream()
+                .map(ReviewImage::getPublicId)
+                .filter(Objects::nonNull)
+                .toList();
+        Set<String> removed = publicIds.isEmpty() ? Set.of() : uploader.deleteAll(publicIds);
+
+        // publicId のない行（保存先で消せないもの）は行だけ削除する
+        List<Long> ids = orphans.stream()
+                .filter(img -> img.getPublicId() == null || removed.contains(img.getPublicId()))
+                .map(ReviewImage::getId)
+                .toList();
+        int deleted = reviewImageJdbcRepository.deleteUnboundByIds(ids, markedAt);
+
+        meterRegistry.counter("review.image.gc", "outcome", "deleted").increment(deleted);
+        meterRegistry.counter("review.image.gc", "outcome", "failed").increment(orphans.size() - ids.size());
+        if (ids.size() < orphans.size()) {
+            log.warn("[ReviewImageGC] storage delete failed for {} of {} images", orphans.size() - ids.size(), orphans.size());
+        }
+        return new BatchResult(orphans.size(), deleted);
+    }
+}
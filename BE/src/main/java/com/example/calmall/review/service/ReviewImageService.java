@@ -12,7 +12,8 @@ import java.util.List;
 //  画像アップロードおよび削除処理
 public interface ReviewImageService {
 
-    ResponseEntity<ImageUploadResponseDto> uploadImages(List<MultipartFile> files);
+    // userId: アップロードしたユーザー（未ログインなら null）
+    ResponseEntity<ImageUploadResponseDto> uploadImages(List<MultipartFile> files, String userId);
 
     ResponseEntity<ApiResponseDto> deleteImages(ImageDeleteRequestDto requestDto);
 }
@@ -4,11 +4,13 @@ import com.example.calmall.global.dto.ApiResponseDto;
 import com.example.calmall.review.dto.ImageUploadResponseDto;
 import com.example.calmall.review.dto.ImageDeleteRequestDto;
 import com.example.calmall.review.entity.ReviewImage;
+import com.example.calmall.review.repository.ReviewImageJdbcRepository;
 import com.example.calmall.review.repository.ReviewImageRepository;
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import com.example.calmall.review.storage.ReviewImageProcessor;
+import com.example.calmall.review.storage.ReviewImageUploader;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,8 +20,22 @@ import org.springframework.web.multipart.MultipartFile;
 
 import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 // レビュー画像のアップロード・削除機能
@@ -32,23 +48,39 @@ public class ReviewImageServiceImpl implements ReviewImageService {
     @Value("${file.upload-dir:uploads}")
     private String uploadDir;
 
-    private static final String FILE_URL_PREFIX = "/uploads/";
+    // 1 リクエスト分のアップロード全体の待ち時間上限
+    @Value("${calmall.review-image.upload-timeout-ms:30000}")
+    private long uploadTimeoutMs;
 
     private final ReviewImageRepository reviewImageRepository;
+    private final ReviewImageJdbcRepository reviewImageJdbcRepository;
 
-    private final Cloudinary cloudinary;
+    // 保存先（Cloudinary / ローカル）
+    private final ReviewImageUploader uploader;
+
+    // アップロード前の変換（縮小・メタデータ除去）
+    private final ReviewImageProcessor processor;
+
+    @Qualifier("reviewImageUploadExecutor")
+    private final Executor uploadExecutor;
+
+    @Qualifier("reviewImageProcessExecutor")
+    private final Executor processExecutor;
 
     @PostConstruct
     public void init() {
-        System.out.println("[CONFIG] file.upload-dir: " + uploadDir);
-        System.out.println("[CONFIG] Cloudinary ready");
+        log.info("[CONFIG] file.upload-dir: {}", uploadDir);
+        log.info("[CONFIG] review image uploader: {} processor: {}",
+                uploader.getClass().getSimpleName(), processor.getClass().getSimpleName());
     }
 
 
     // 複数画像をアップロードする（JPG/PNGのみ最大3枚）
+    // 各ファイルは並列に送信し、所要時間は最も遅い 1 枚分に近づける
+    // userId: アップロードしたユーザー（同じ内容の未紐付け画像の再利用は本人の画像に限る。未ログインなら再利用しない）
     @Override
-    public ResponseEntity<ImageUploadResponseDto> uploadImages(List<MultipartFile> files) {
-        System.out.println("[DEBUG] uploadImages() が呼び出されました (Cloudinary)");
+    public ResponseEntity<ImageUploadResponseDto> uploadImages(List<MultipartFile> files, String userId) {
+        log.debug("[ReviewImage] uploadImages() が呼び出されました files={}", files == null ? 0 : files.size());
 
         // 枚数チェック（最大3枚）
         if (files == null || files.isEmpty()) {
@@ -70,109 +102,244 @@ public class ReviewImageServiceImpl implements ReviewImageService {
                 uniqueFiles.add(file);
             } else {
                 // 同一ファイルが既に存在 → スキップ
-                System.out.println("[SKIP] 同一リクエスト内で重複したファイル: " + file.getOriginalFilename());
+                log.debug("[SKIP] 同一リクエスト内で重複したファイル: {}", file.getOriginalFilename());
             }
         }
 
-        // 実際にアップロードされた画像のURLを格納するリスト
-        List<String> imageUrls = new ArrayList<>();
-
-        // 各ファイルを順に処理
+        // ファイル形式チェック（1 枚でも不正なら何も送らない）
         for (MultipartFile file : uniqueFiles) {
-            // ファイル形式チェック
-            String contentType = file.getContentType();
-            if (!Objects.equals(contentType, "image/jpeg") && !Objects.equals(contentType, "image/png")) {
+            if (!isAllowedType(file.getContentType())) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body(new ImageUploadResponseDto("JPGまたはPNG形式のみアップロード可能です", List.of()));
             }
+        }
 
-            try {
-                // Cloudinaryにアップロードフォルダreviews）
-                Map<?, ?> result = cloudinary.uploader().upload(
-                        file.getBytes(),
-                        ObjectUtils.asMap(
-                                "folder", "reviews",
-                                "resource_type", "image"
-                        )
-                );
-
-                String secureUrl = Objects.toString(result.get("secure_url"), null);
-                String publicId = Objects.toString(result.get("public_id"), null);
-
-                if (secureUrl == null) {
-                    System.out.println("[UPLOAD ERROR] Cloudinary returned null secure_url");
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .body(new ImageUploadResponseDto("画像保存に失敗しました", List.of()));
-                }
-
-                // レスポンス用のURLを追加
-                imageUrls.add(secureUrl);
-
-                // DBに保存（レビュー未紐付け状態で登録）
-                ReviewImage reviewImage = ReviewImage.builder()
-                        .imageUrl(secureUrl)
-                        .publicId(publicId)
-                        .contentType(contentType)
-                        .createdAt(LocalDateTime.now())
-                        .build();
-                reviewImageRepository.save(reviewImage);
-
-                System.out.println("[UPLOAD] 画像保存成功 (Cloudinary): " + secureUrl + " publicId=" + publicId);
-
-            } catch (IOException e) {
-                System.out.println("[UPLOAD ERROR] Cloudinary 送信失敗: " + e.getMessage());
-                e.printStackTrace();
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(new ImageUploadResponseDto("画像保存に失敗しました", List.of()));
-            } catch (Exception e) {
-                System.out.println("[UPLOAD ERROR] 予期せぬ例外: " + e.getMessage());
-                e.printStackTrace();
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(new ImageUploadResponseDto("画像保存に失敗しました", List.of()));
-            }
+        // 並列アップロード（結果はリクエスト順）
+        List<CompletableFuture<Uploaded>> futures = uniqueFiles.stream()
+                .map(file -> uploadOne(file, userId))
+                .toList();
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(uploadTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return uploadFailed(futures, e);
+        } catch (ExecutionException | TimeoutException e) {
+            return uploadFailed(futures, e);
         }
 
+        List<Uploaded> results = futures.stream().map(CompletableFuture::join).toList();
+        List<ReviewImage> created = results.stream().filter(u -> !u.reused()).map(Uploaded::image).toList();
+
+        // DBに保存（レビュー未紐付け状態で 1 文で登録）
+        Map<ReviewImage, ReviewImage> replaced;
+        try {
+            replaced = insertCreated(created, userId);
+        } catch (RuntimeException e) {
+            log.error("[UPLOAD ERROR] DB 登録失敗: {}", e.getMessage(), e);
+            created.forEach(this::deleteQuietly);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ImageUploadResponseDto("画像保存に失敗しました", List.of()));
+        }
+
+        // 同じ内容の画像はリクエスト内でも 1 つの URL にまとめる
+        List<String> imageUrls = results.stream()
+                .map(u -> replaced.getOrDefault(u.image(), u.image()).getImageUrl())
+                .distinct()
+                .toList();
+        long reusedCount = results.stream().filter(Uploaded::reused).count();
+        log.info("[UPLOAD] 画像保存成功 count={} reused={} urls={}", imageUrls.size(), reusedCount, imageUrls);
+
         // 成功したURLのみ返却
         return ResponseEntity.ok(new ImageUploadResponseDto("success", imageUrls));
     }
 
+    // 1 枚分の結果（reused=true は既存の未紐付け画像を再利用したもの。保存先への送信・DB 登録は不要）
+    private record Uploaded(ReviewImage image, boolean reused) {}
+
+    // 一時ファイルと、書き込み中に計算した元ファイルの SHA-256
+    private record HashedTemp(Path file, String contentHash) {}
+
+    // 1 枚分：一時ファイルへ移す（同時にハッシュ計算）・同じユーザーの同じ内容の未紐付け画像があれば再利用（アップロード用プール）
+    //        → なければ変換（CPU プール）→ 送信（アップロード用プール）
+    // 画像全体をヒープの byte[] に載せず、ファイル経由で受け渡す
+    // アップロード用プールは同時実行数の上限付きで、空きが無いと投入側が待たされる。
+    // そのプールのタスク内から同じプールへ投入すると自分の枠を待って詰まるため、送信は CPU プール側（または呼び出し元）から投入する
+    private CompletableFuture<Uploaded> uploadOne(MultipartFile file, String userId) {
+        List<Path> temps = new CopyOnWriteArrayList<>();
+        return CompletableFuture.supplyAsync(() -> saveAndClaim(file, userId, temps), uploadExecutor)
+                .thenApplyAsync(staged -> staged.reused() != null ? staged
+                        : staged.withProcessed(processImage(staged.tmp().file(), file.getContentType(), temps)), processExecutor)
+                .thenCompose(staged -> staged.reused() != null
+                        ? CompletableFuture.completedFuture(new Uploaded(staged.reused(), true))
+                        : CompletableFuture.supplyAsync(() -> new Uploaded(
+                                store(staged.processed(), userId, staged.tmp().contentHash()), false), uploadExecutor))
+                .whenComplete((result, error) -> temps.forEach(this::deleteTemp));
+    }
+
+    // 途中経過（reused があれば再利用、なければ processed を送信する）
+    private record Staged(HashedTemp tmp, ReviewImage reused, ReviewImageProcessor.ProcessedImage processed) {
+        Staged withProcessed(ReviewImageProcessor.ProcessedImage p) {
+            return new Staged(tmp, null, p);
+        }
+    }
+
+    private Staged saveAndClaim(MultipartFile file, String userId, List<Path> temps) {
+        HashedTemp tmp = saveToTemp(file, temps);
+        ReviewImage existing = reviewImageJdbcRepository
+                .claimUnboundByHash(userId, tmp.contentHash(), LocalDateTime.now())
+                .orElse(null);
+        return new Staged(tmp, existing, null);
+    }
+
+    private HashedTemp saveToTemp(MultipartFile file, List<Path> temps) {
+        try {
+            Path tmp = Files.createTempFile("review-upload-", ".tmp");
+            temps.add(tmp);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new HashedTemp(tmp, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 新規アップロード分を登録する。
+     * 同じユーザーの同じ内容の画像が同時に登録されて一意制約で弾かれた場合は、先に登録された画像に置き換え、
+     * こちらで送信した画像は保存先から消す。
+     * @return 置き換えた画像（元の画像 → 登録済みの画像）
+     */
+    private Map<ReviewImage, ReviewImage> insertCreated(List<ReviewImage> created, String userId) {
+        Set<String> inserted = reviewImageJdbcRepository.insertUnbound(created);
+        Map<ReviewImage, ReviewImage> replaced = new IdentityHashMap<>();
+        List<ReviewImage> retry = new ArrayList<>();
+        for (ReviewImage image : created) {
+            if (inserted.contains(image.getImageUrl())) continue;
+            Optional<ReviewImage> existing =
+                    reviewImageJdbcRepository.claimUnboundByHash(userId, image.getContentHash(), LocalDateTime.now());
+            if (existing.isPresent()) {
+                deleteQuietly(image);
+                replaced.put(image, existing.get());
+            } else {
+                // 先の画像が直後に紐付けられた場合など：ハッシュなしで自分の画像を登録する
+                image.setContentHash(null);
+                retry.add(image);
+            }
+        }
+        reviewImageJdbcRepository.insertUnbound(retry);
+        return replaced;
+    }
+
+    private ReviewImageProcessor.ProcessedImage processImage(Path source, String contentType, List<Path> temps) {
+        long start = System.nanoTime();
+        try {
+            ReviewImageProcessor.ProcessedImage processed = processor.process(source, contentType);
+            if (!processed.file().equals(source)) temps.add(processed.file());
+            if (log.isDebugEnabled()) {
+                log.debug("[ReviewImage] processed {} -> {} bytes in {} ms",
+                        Files.size(source), Files.size(processed.file()), (System.nanoTime() - start) / 1_000_000);
+            }
+            return processed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ReviewImage store(ReviewImageProcessor.ProcessedImage processed, String userId, String contentHash) {
+        try {
+            ReviewImageUploader.StoredImage stored = uploader.upload(processed.file(), processed.contentType());
+            return ReviewImage.builder()
+                    .imageUrl(stored.url())
+                    .publicId(stored.publicId())
+                    .contentType(processed.contentType())
+                    .userId(userId)
+                    .contentHash(contentHash)
+                    .createdAt(LocalDateTime.now())
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteTemp(Path tmp) {
+        try {
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            log.warn("[ReviewImage] temp file delete failed: {}", tmp);
+        }
+    }
+
+    // 一部でも失敗した場合は、成功済みの画像を保存先から消して 500 を返す
+    // 再利用した既存画像は他のリクエストが返した URL でもあるため消さない
+    private ResponseEntity<ImageUploadResponseDto> uploadFailed(List<CompletableFuture<Uploaded>> futures, Exception e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        log.error("[UPLOAD ERROR] 画像送信失敗: {}", cause.toString(), cause);
+        for (CompletableFuture<Uploaded> f : futures) {
+            // 未完了のものは完了後に後片付けする
+            f.thenAccept(u -> {
+                if (!u.reused()) deleteQuietly(u.image());
+            });
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ImageUploadResponseDto("画像保存に失敗しました", List.of()));
+    }
+
+    private void deleteQuietly(ReviewImage image) {
+        if (image.getPublicId() == null) return;
+        try {
+            uploader.delete(image.getPublicId());
+        } catch (Exception ex) {
+            log.warn("[ReviewImage] rollback delete failed publicId={} : {}", image.getPublicId(), ex.toString());
+        }
+    }
+
+    private static boolean isAllowedType(String contentType) {
+        return Objects.equals(contentType, "image/jpeg") || Objects.equals(contentType, "image/png");
+    }
+
+    // 保存先からはまとめて削除し（Cloudinary は一括削除 API）、成功分の行を 1 文で削除する
     @Override
     @Transactional
     public ResponseEntity<ApiResponseDto> deleteImages(ImageDeleteRequestDto requestDto) {
+        List<String> urls = requestDto.getImageUrls().stream().distinct().toList();
         List<String> failedUrls = new ArrayList<>();
 
-        for (String url : requestDto.getImageUrls()) {
-            try {
-                Optional<ReviewImage> opt = reviewImageRepository.findByImageUrl(url);
-                if (opt.isPresent()) {
-                    ReviewImage img = opt.get();
-
-                    // Cloudinary側削除
-                    try {
-                        cloudinary.uploader().destroy(img.getPublicId(),
-                                ObjectUtils.asMap("resource_type", "image", "invalidate", true));
-                    } catch (Exception e) {
-                        log.error("Cloudinary delete failed: url={} publicId={}", url, img.getPublicId(), e);
-                        failedUrls.add(url);
-                        continue;
-                    }
-
-                    // DB 側削除
-                    int deleted = reviewImageRepository.deleteByImageUrl(url);
-                    if (deleted == 0) {
-                        failedUrls.add(url);
-                    }
-                } else {
-                    // DB に存在しない場合 → 失敗リストへ
-                    failedUrls.add(url);
-                }
-
-            } catch (Exception e) {
-                log.error("DeleteImages error url={}", url, e);
-                failedUrls.add(url);
+        List<ReviewImage> found = urls.isEmpty() ? List.of() : reviewImageRepository.findAllByImageUrlIn(urls);
+        Set<String> foundUrls = new HashSet<>();
+        found.forEach(img -> foundUrls.add(img.getImageUrl()));
+        for (String url : urls) {
+            // DB に存在しない場合 → 失敗リストへ
+            if (!foundUrls.contains(url)) failedUrls.add(url);
+        }
+
+        // 保存先（Cloudinary 等）から削除
+        List<String> publicIds = found.stream().map(ReviewImage::getPublicId).filter(Objects::nonNull).toList();
+        Set<String> removed = publicIds.isEmpty() ? Set.of() : uploader.deleteAll(publicIds);
+
+        List<Long> ids = new ArrayList<>();
+        for (ReviewImage img : found) {
+            if (img.getPublicId() == null || removed.contains(img.getPublicId())) {
+                ids.add(img.getId());
+            } else {
+                log.error("Image storage delete failed: url={} publicId={}", img.getImageUrl(), img.getPublicId());
+                failedUrls.add(img.getImageUrl());
             }
         }
 
+        // DB 側削除
+        try {
+            reviewImageRepository.deleteAllByIdInBatch(ids);
+        } catch (Exception e) {
+            log.error("DeleteImages error ids={}", ids, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponseDto("fail: 削除できなかったURL -> " + urls));
+        }
+
         if (!failedUrls.isEmpty()) {
             // 部分または全部失敗 → 404
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
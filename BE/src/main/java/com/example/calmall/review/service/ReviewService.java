@@ -2,7 +2,6 @@ package com.example.calmall.review.service;
 
 import com.example.calmall.global.dto.ApiResponseDto;
 import com.example.calmall.review.dto.*;
-import com.example.calmall.user.entity.User;
 import org.springframework.http.ResponseEntity;
 
 
@@ -18,7 +17,7 @@ public interface ReviewService {
 
 
     // ユーザーが投稿したレビュー一覧を取得する
-    ResponseEntity<ReviewListByUserResponseDto> getReviewsByUser(User user, int page, int size);
+    ResponseEntity<ReviewListByUserResponseDto> getReviewsByUser(String userId, int page, int size);
 
 
     //  レビューを編集する
@@ -1,18 +1,19 @@
 package com.example.calmall.review.service;
 
 import com.example.calmall.global.dto.ApiResponseDto;
-import com.example.calmall.orders.entity.Orders;
-import com.example.calmall.orders.repository.OrdersRepository;
 import com.example.calmall.product.entity.Product;
 import com.example.calmall.product.repository.ProductRepository;
 import com.example.calmall.review.dto.*;
 import com.example.calmall.review.entity.Review;
 import com.example.calmall.review.entity.ReviewImage;
+import com.example.calmall.review.repository.ReviewEligibility;
+import com.example.calmall.review.repository.ReviewImageJdbcRepository;
 import com.example.calmall.review.repository.ReviewRepository;
 import com.example.calmall.review.repository.ReviewImageRepository;
 import com.example.calmall.reviewLike.repository.ReviewLikeRepository;
 import com.example.calmall.user.entity.User;
 import com.example.calmall.user.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -37,14 +38,15 @@ public class ReviewServiceImpl implements ReviewService {
 
     private final ReviewRepository reviewRepository;
     private final ReviewImageRepository reviewImageRepository;
+    private final ReviewImageJdbcRepository reviewImageJdbcRepository;
     private final ReviewLikeRepository reviewLikeRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
-    private final OrdersRepository ordersRepository;
 
     // レビュー投稿
     @Override
     @Transactional
+    @Timed(value = "review.post", histogram = true)
     public ResponseEntity<ApiResponseDto> postReview(ReviewRequestDto requestDto, String userId) {
         log.debug("==== [DEBUG] postReview called userId={}", userId);
 
@@ -53,43 +55,42 @@ public class ReviewServiceImpl implements ReviewService {
                 .orElseThrow(() -> new IllegalArgumentException("ユーザーが存在しません"));
         log.debug("==== [DEBUG] user found: {}", user.getUserId());
 
-        // ===== 商品存在チェック =====
-        Product product = productRepository.findByItemCode(requestDto.getItemCode())
+        // ===== 商品存在・投稿可否チェック（1 クエリ） =====
+        // 削除済みレビュー・投稿済みレビューの有無と最終購入日時をまとめて取得する
+        ReviewEligibility eligibility = reviewRepository.findEligibility(userId, requestDto.getItemCode())
                 .orElseThrow(() -> new IllegalArgumentException("商品が存在しません"));
-        log.debug("==== [DEBUG] product found: {}", product.getItemCode());
+        log.debug("==== [DEBUG] eligibility={}", eligibility);
 
         // 再投稿防止チェック（削除済みレビューあり）
-        if (!reviewRepository.findByUser_UserIdAndProduct_ItemCodeAndDeletedTrue(userId, product.getItemCode()).isEmpty()) {
+        if (eligibility.hasDeleted()) {
             log.debug("==== [DEBUG] 再投稿禁止（削除済レビューあり）");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ApiResponseDto("削除済レビューが存在するため再投稿できません"));
         }
 
         // 再投稿防止チェック（既に投稿済み）
-        if (!reviewRepository.findByProduct_ItemCodeAndUser_UserIdAndDeletedFalse(product.getItemCode(), userId).isEmpty()) {
+        if (eligibility.hasActive()) {
             log.debug("==== [DEBUG] 再投稿禁止（既に投稿済み）");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ApiResponseDto("この商品には既にレビューを投稿済みです"));
         }
 
         // 購入履歴チェック
-        List<Orders> orders = ordersRepository.findOrdersByUserAndItemCode(userId, product.getItemCode());
-        log.debug("==== [DEBUG] orders.size={}", orders.size());
-        if (orders.isEmpty()) {
+        if (!eligibility.hasPurchase()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ApiResponseDto("未購入の商品にはレビューできません"));
         }
 
         // 購入1ヶ月以内チェック
         LocalDateTime oneMonthAgo = LocalDateTime.now().minusMonths(1);
-        boolean purchasedWithinOneMonth =
-                ordersRepository.existsPurchaseWithinPeriod(userId, product.getItemCode(), oneMonthAgo);
-        log.debug("==== [DEBUG] purchasedWithinOneMonth={}", purchasedWithinOneMonth);
-        if (!purchasedWithinOneMonth) {
+        if (!eligibility.purchasedAfter(oneMonthAgo)) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ApiResponseDto("購入後1ヶ月以内のユーザーのみレビュー可能です"));
         }
 
+        // 存在確認済みのため商品本体は読み込まない（外部キーの参照のみ）
+        Product product = productRepository.getReferenceById(requestDto.getItemCode());
+
         // レビュー作成（画像は後でセット）
         Review review = Review.builder()
                 .user(user)
@@ -113,32 +114,16 @@ public class ReviewServiceImpl implements ReviewService {
             Set<String> uniqueUrls = new LinkedHashSet<>(requestDto.getImageList());
             log.debug("==== [DEBUG] imageList size={}", uniqueUrls.size());
 
+            // 本人がアップロードした未紐付けの画像だけを 1 文でまとめて紐付ける（存在しない・他ユーザーの・他レビューに紐付け済みの画像はスキップ）
+            Set<String> bound = reviewImageJdbcRepository.bindToReview(savedReview.getReviewId(), userId, uniqueUrls);
             for (String imageUrl : uniqueUrls) {
-                Optional<ReviewImage> optionalReviewImage = reviewImageRepository.findByImageUrl(imageUrl);
-
-                if (optionalReviewImage.isEmpty()) {
-                    log.debug("[SKIP] DBに存在しない画像: {}", imageUrl);
-                    continue;
-                }
-
-                ReviewImage reviewImage = optionalReviewImage.get();
-
-                if (reviewImage.getReview() != null &&
-                        !reviewImage.getReview().getReviewId().equals(savedReview.getReviewId())) {
-                    log.debug("[SKIP] 他のレビューに紐付け済: {}", imageUrl);
-                    continue;
-                }
-
-                if (reviewImage.getReview() != null &&
-                        reviewImage.getReview().getReviewId().equals(savedReview.getReviewId())) {
-                    log.debug("[SKIP] このレビューに既に紐付け済: {}", imageUrl);
-                    continue;
+                if (bound.contains(imageUrl)) {
+                    finalImageList.add(imageUrl);
+                } else {
+                    log.debug("[SKIP] DBに存在しない、他ユーザーの、または他のレビューに紐付け済の画像: {}", imageUrl);
                 }
-
-                reviewImageRepository.updateReviewBindingNative(reviewImage.getId(), savedReview.getReviewId());
-                finalImageList.add(imageUrl);
-                log.debug("[LINKED] 紐付け完了: {}", imageUrl);
             }
+            log.debug("[LINKED] 紐付け完了 count={}", finalImageList.size());
         }
 
         savedReview.setImageList(new ArrayList<>(finalImageList));
@@ -155,6 +140,7 @@ public class ReviewServiceImpl implements ReviewService {
 
     // 商品別レビュー取得
     @Override
+    @Timed(value = "review.list", extraTags = {"by", "item"}, histogram = true)
     public ResponseEntity<ReviewListByItemResponseDto> getReviewsByItem(String itemCode, String userId, int page, int size) {
         log.debug("==== [DEBUG] getReviewsByItem called itemCode={} page={}", itemCode, page);
 
@@ -226,10 +212,11 @@ public class ReviewServiceImpl implements ReviewService {
 
     // ユーザー別レビュー取得
     @Override
-    public ResponseEntity<ReviewListByUserResponseDto> getReviewsByUser(User user, int page, int size) {
-        log.debug("==== [DEBUG] getReviewsByUser called user={}", user.getUserId());
+    @Timed(value = "review.list", extraTags = {"by", "user"}, histogram = true)
+    public ResponseEntity<ReviewListByUserResponseDto> getReviewsByUser(String userId, int page, int size) {
+        log.debug("==== [DEBUG] getReviewsByUser called user={}", userId);
 
-        Page<Review> reviewPage = reviewRepository.findByUserAndDeletedFalse(user, PageRequest.of(page, size));
+        Page<Review> reviewPage = reviewRepository.findByUser_UserIdAndDeletedFalse(userId, PageRequest.of(page, size));
         log.debug("==== [DEBUG] reviewPage.total={}", reviewPage.getTotalElements());
 
         var userReviews = reviewPage.getContent().stream()
@@ -237,13 +224,14 @@ public class ReviewServiceImpl implements ReviewService {
                         .reviewId(r.getReviewId())
                         .itemCode(r.getProduct().getItemCode())
                         .itemName(r.getProduct().getItemName())
-                        .itemImage(r.getProduct().getImages().isEmpty() ? null : r.getProduct().getImages().get(0))
+                        .itemImage(r.getProduct().getImages() == null || r.getProduct().getImages().isEmpty()
+                                ? null : r.getProduct().getImages().get(0))
                         .rating(r.getRating())
                         .title(r.getTitle())
                         .comment(r.getComment())
                         .imageList(currentImages(r))
                         .createdAt(r.getCreatedAt())
-                        .isLike(reviewLikeRepository.existsByUserUserIdAndReviewReviewId(user.getUserId(), r.getReviewId()))
+                        .isLike(reviewLikeRepository.existsByUserUserIdAndReviewReviewId(userId, r.getReviewId()))
                         .likeCount(reviewLikeRepository.countByReviewReviewId(r.getReviewId()))
                         .isOwner(true)
                         .build())
@@ -297,20 +285,13 @@ public class ReviewServiceImpl implements ReviewService {
             throw new IllegalArgumentException("画像は最大3枚まで追加できます）");
         }
 
-        for (String imageUrl : addUrls) {
-            Optional<ReviewImage> optionalImage = reviewImageRepository.findByImageUrl(imageUrl);
-            if (optionalImage.isEmpty()) continue;
+        // 1 文でまとめて紐付け、既存の画像と合わせて返す（再取得しない）
+        Set<String> bound = reviewImageJdbcRepository.bindToReview(reviewId, userId, addUrls);
+        log.debug("==== [DEBUG] linked images={}", bound.size());
 
-            ReviewImage img = optionalImage.get();
-            if (img.getReview() != null && !img.getReview().getReviewId().equals(reviewId)) continue;
-
-            reviewImageRepository.updateReviewBindingNative(img.getId(), reviewId);
-            log.debug("==== [DEBUG] linked imageUrl={}", imageUrl);
-        }
-
-        List<String> finalImageList = reviewImageRepository.findAllByReview(review).stream()
-                .map(ReviewImage::getImageUrl)
-                .collect(Collectors.toList());
+        Set<String> merged = new LinkedHashSet<>(currentImages);
+        addUrls.stream().filter(bound::contains).forEach(merged::add);
+        List<String> finalImageList = new ArrayList<>(merged);
         review.setImageList(finalImageList);
         reviewRepository.save(review);
         log.debug("==== [DEBUG] finalImageList size={}", finalImageList.size());
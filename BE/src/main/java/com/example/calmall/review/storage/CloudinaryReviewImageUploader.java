@@ -0,0 +1,114 @@
+package com.example.calmall.review.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cloudinary にレビュー画像を保存する。
+ * 一時ファイルをそのまま渡すため、画像全体をヒープに読み込まずにストリーム送信される。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "calmall.review-image.uploader", havingValue = "cloudinary", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CloudinaryReviewImageUploader implements ReviewImageUploader {
+
+    // 起動を速くするため初回アップロード・削除時に生成する（CloudinaryConfig で @Lazy）
+    private final ObjectProvider<Cloudinary> cloudinaryProvider;
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public StoredImage upload(Path file, String contentType) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            // Cloudinaryにアップロード（フォルダ reviews）
+            Map<?, ?> result = cloudinaryProvider.getObject().uploader().upload(
+                    file.toFile(),
+                    ObjectUtils.asMap(
+                            "folder", "reviews",
+                            "resource_type", "image"
+                    )
+            );
+            String secureUrl = Objects.toString(result.get("secure_url"), null);
+            if (secureUrl == null) {
+                throw new IOException("Cloudinary returned null secure_url");
+            }
+            outcome = "success";
+            return new StoredImage(secureUrl, Objects.toString(result.get("public_id"), null));
+        } finally {
+            sample.stop(timer("upload", outcome));
+        }
+    }
+
+    @Override
+    public void delete(String publicId) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            cloudinaryProvider.getObject().uploader().destroy(publicId,
+                    ObjectUtils.asMap("resource_type", "image", "invalidate", true));
+            outcome = "success";
+        } finally {
+            sample.stop(timer("destroy", outcome));
+        }
+    }
+
+    // Admin API の一括削除（1 回 100 件まで）
+    private static final int DELETE_BATCH = 100;
+
+    @Override
+    public Set<String> deleteAll(Collection<String> publicIds) {
+        Set<String> deleted = new HashSet<>();
+        List<String> ids = List.copyOf(publicIds);
+        for (int from = 0; from < ids.size(); from += DELETE_BATCH) {
+            List<String> chunk = ids.subList(from, Math.min(from + DELETE_BATCH, ids.size()));
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "error";
+            try {
+                Map<?, ?> result = cloudinaryProvider.getObject().api().deleteResources(chunk,
+                        ObjectUtils.asMap("resource_type", "image", "invalidate", true));
+                // deleted: { publicId: "deleted" | "not_found" }
+                if (result.get("deleted") instanceof Map<?, ?> statuses) {
+                    statuses.forEach((id, status) -> {
+                        if ("deleted".equals(status) || "not_found".equals(status)) {
+                            deleted.add(String.valueOf(id));
+                        }
+                    });
+                }
+                outcome = "success";
+            } catch (Exception e) {
+                log.warn("[Cloudinary] bulk delete failed count={} : {}", chunk.size(), e.toString());
+            } finally {
+                sample.stop(timer("delete_resources", outcome));
+            }
+        }
+        return deleted;
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder("cloudinary.request")
+                .description("Cloudinary API 呼び出し時間")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.calmall.review.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * ImageIO による画像変換（長辺 max-edge までの縮小・EXIF 等のメタデータ除去・再エンコード）
+ *
+ * - 大きな画像はサブサンプリングしながらデコードし、元解像度の全画素をメモリに展開しない
+ * - 画素数が max-pixels を超える画像はデコードせずに拒否する（展開爆弾対策）
+ * - EXIF の向き（Orientation）は画素に反映してからメタデータを捨てる
+ * - 透過のある画像は PNG、それ以外は JPEG で出力する
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "calmall.review-image.processor", havingValue = "imageio", matchIfMissing = true)
+public class ImageIoReviewImageProcessor implements ReviewImageProcessor {
+
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+    private static final int APP1 = 0xE1;
+    private static final int TAG_ORIENTATION = 0x0112;
+
+    private final int maxEdge;
+    private final float jpegQuality;
+    private final long maxPixels;
+
+    public ImageIoReviewImageProcessor(
+            @Value("${calmall.review-image.max-edge:1600}") int maxEdge,
+            @Value("${calmall.review-image.jpeg-quality:0.82}") float jpegQuality,
+            @Value("${calmall.review-image.max-pixels:50000000}") long maxPixels
+    ) {
+        this.maxEdge = maxEdge;
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+    }
+
+    @Override
+    public ProcessedImage process(Path source, String contentType) throws IOException {
+        BufferedImage image;
+        int orientation;
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) throw new IOException("unreadable image");
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) throw new IOException("unsupported image format");
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, false);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("image too large: " + width + "x" + height);
+                }
+                orientation = "jpeg".equalsIgnoreCase(reader.getFormatName()) ? exifOrientation(reader) : 1;
+
+                // 長辺が max-edge 以上を保つ範囲で間引いてデコードする
+                int step = Math.max(1, Math.max(width, height) / maxEdge);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        image = orient(resize(image), orientation);
+
+        boolean alpha = image.getColorModel().hasAlpha();
+        Path out = Files.createTempFile("review-processed-", alpha ? ".png" : ".jpg");
+        try {
+            if (alpha) {
+                if (!ImageIO.write(image, "png", out.toFile())) throw new IOException("no png writer");
+                return new ProcessedImage(out, "image/png");
+            }
+            writeJpeg(image, out);
+            return new ProcessedImage(out, "image/jpeg");
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(out);
+            throw e;
+        }
+    }
+
+    // 長辺を max-edge に収め、同時に RGB / ARGB の標準形式へ描き直す
+    private BufferedImage resize(BufferedImage src) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(w, h));
+        int tw = Math.max(1, (int) Math.round(w * scale));
+        int th = Math.max(1, (int) Math.round(h * scale));
+        int type = src.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        if (tw == w && th == h && src.getType() == type) return src;
+
+        BufferedImage dst = new BufferedImage(tw, th, type);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(src, 0, 0, tw, th, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
+    /** EXIF Orientation（1〜8）に従って画素を並べ替える */
+    static BufferedImage orient(BufferedImage src, int orientation) {
+        if (orientation <= 1 || orientation > 8) return src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        boolean swap = orientation >= 5;
+        int dw = swap ? h : w;
+        int dh = swap ? w : h;
+        int[] in = src.getRGB(0, 0, w, h, null, 0, w);
+        int[] out = new int[in.length];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int dx, dy;
+                switch (orientation) {
+                    case 2 -> { dx = w - 1 - x; dy = y; }
+                    case 3 -> { dx = w - 1 - x; dy = h - 1 - y; }
+                    case 4 -> { dx = x; dy = h - 1 - y; }
+                    case 5 -> { dx = y; dy = x; }
+                    case 6 -> { dx = h - 1 - y; dy = x; }
+                    case 7 -> { dx = h - 1 - y; dy = w - 1 - x; }
+                    default -> { dx = y; dy = w - 1 - x; }
+                }
+                out[dy * dw + dx] = in[y * w + x];
+            }
+        }
+        BufferedImage dst = new BufferedImage(dw, dh, src.getType());
+        dst.setRGB(0, 0, dw, dh, out, 0, dw);
+        return dst;
+    }
+
+    // メタデータを付けずに書き出す（EXIF・位置情報・サムネイル等は含まれない）
+    private void writeJpeg(BufferedImage image, Path out) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) throw new IOException("no jpeg writer");
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream os = ImageIO.createImageOutputStream(out.toFile())) {
+            writer.setOutput(os);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // JPEG の APP1（Exif）から Orientation を読む。読めなければ 1（そのまま）
+    private static int exifOrientation(ImageReader reader) {
+        try {
+            IIOMetadata metadata = reader.getImageMetadata(0);
+            if (metadata == null) return 1;
+            Node root = metadata.getAsTree(JPEG_METADATA_FORMAT);
+            for (Node seq = root.getFirstChild(); seq != null; seq = seq.getNextSibling()) {
+                if (!"markerSequence".equals(seq.getNodeName())) continue;
+                for (Node n = seq.getFirstChild(); n != null; n = n.getNextSibling()) {
+                    if (!"unknown".equals(n.getNodeName())) continue;
+                    Node tag = n.getAttributes().getNamedItem("MarkerTag");
+                    if (tag == null || Integer.parseInt(tag.getNodeValue()) != APP1) continue;
+                    if (((IIOMetadataNode) n).getUserObject() instanceof byte[] app1) {
+                        int o = parseOrientation(app1);
+                        if (o != 0) return o;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.debug("[ReviewImage] exif read failed: {}", e.toString());
+        }
+        return 1;
+    }
+
+    /** APP1 セグメント（"Exif\0\0" + TIFF）の IFD0 から Orientation を取り出す。無ければ 0 */
+    static int parseOrientation(byte[] app1) {
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') return 0;
+        int base = 6;
+        boolean le = app1[base] == 'I';
+        long ifd = u32(app1, base + 4, le);
+        if (ifd < 8 || base + ifd + 2 > app1.length) return 0;
+        int p = (int) (base + ifd);
+        int count = u16(app1, p, le);
+        p += 2;
+        for (int i = 0; i < count; i++) {
+            int e = p + i * 12;
+            if (e + 12 > app1.length) break;
+            if (u16(app1, e, le) == TAG_ORIENTATION) {
+                int v = u16(app1, e + 8, le);
+                return v >= 1 && v <= 8 ? v : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static int u16(byte[] b, int off, boolean le) {
+        int b0 = b[off] & 0xFF;
+        int b1 = b[off + 1] & 0xFF;
+        return le ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static long u32(byte[] b, int off, boolean le) {
+        long v = 0;
+        for (int i = 0; i < 4; i++) {
+            int shift = le ? 8 * i : 8 * (3 - i);
+            v |= (long) (b[off + i] & 0xFF) << shift;
+        }
+        return v;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.calmall.review.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * レビュー画像を file.upload-dir/reviews に保存する（Cloudinary の代替。外部通信なし）
+ * - URL は /uploads/reviews/... （WebConfig の静的リソースで配信）
+ * - calmall.review-image.local-latency-ms で 1 枚あたりの疑似的な送信時間を付けられる（負荷試験用）
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "calmall.review-image.uploader", havingValue = "local")
+public class LocalReviewImageUploader implements ReviewImageUploader {
+
+    private static final String DIR = "reviews";
+
+    private final Path baseDir;
+    private final long latencyMs;
+
+    public LocalReviewImageUploader(
+            @Value("${file.upload-dir:uploads}") String uploadDir,
+            @Value("${calmall.review-image.local-latency-ms:0}") long latencyMs
+    ) throws IOException {
+        this.baseDir = Path.of(uploadDir).toAbsolutePath().normalize();
+        this.latencyMs = latencyMs;
+        Files.createDirectories(baseDir.resolve(DIR));
+        log.info("[ReviewImage] local uploader dir={} latencyMs={}", baseDir.resolve(DIR), latencyMs);
+    }
+
+    @Override
+    public StoredImage upload(Path file, String contentType) throws IOException {
+        simulateLatency();
+        String publicId = DIR + "/" + UUID.randomUUID() + ("image/png".equals(contentType) ? ".png" : ".jpg");
+        Files.copy(file, resolve(publicId), StandardCopyOption.REPLACE_EXISTING);
+        return new StoredImage("/uploads/" + publicId, publicId);
+    }
+
+    @Override
+    public void delete(String publicId) throws IOException {
+        simulateLatency();
+        Files.deleteIfExists(resolve(publicId));
+    }
+
+    // upload-dir の外を指す publicId は拒否する
+    private Path resolve(String publicId) throws IOException {
+        Path path = baseDir.resolve(publicId).normalize();
+        if (!path.startsWith(baseDir)) {
+            throw new IOException("invalid publicId: " + publicId);
+        }
+        return path;
+    }
+
+    private void simulateLatency() throws IOException {
+        if (latencyMs <= 0) return;
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.calmall.review.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * 画像を変換せずにそのままアップロードする
+ */
+@Component
+@ConditionalOnProperty(name = "calmall.review-image.processor", havingValue = "none")
+public class PassThroughReviewImageProcessor implements ReviewImageProcessor {
+
+    @Override
+    public ProcessedImage process(Path source, String contentType) {
+        return new ProcessedImage(source, contentType);
+    }
+}
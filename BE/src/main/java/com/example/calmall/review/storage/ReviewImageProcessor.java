@@ -0,0 +1,21 @@
+package com.example.calmall.review.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * アップロード前の画像変換（calmall.review-image.processor で切り替える）
+ * - imageio … 長辺の縮小・メタデータ除去・再エンコード（既定）
+ * - none    … 変換しない
+ */
+public interface ReviewImageProcessor {
+
+    /**
+     * 画像を変換する。変換しない場合は入力をそのまま返してよい。
+     * 新しいファイルを返した場合、その削除は呼び出し側が行う。
+     */
+    ProcessedImage process(Path source, String contentType) throws IOException;
+
+    /** 変換結果（ファイルと Content-Type） */
+    record ProcessedImage(Path file, String contentType) {}
+}
@@ -0,0 +1,45 @@
+package com.example.calmall.review.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * レビュー画像の保存先（calmall.review-image.uploader で切り替える）
+ * - cloudinary … Cloudinary にアップロード（既定）
+ * - local      … file.upload-dir 配下に保存（オフラインでの動作確認・負荷試験用）
+ */
+public interface ReviewImageUploader {
+
+    /**
+     * 一時ファイルの内容をアップロードする（呼び出し側で一時ファイルを削除する）。
+     * 複数スレッドから同時に呼ばれる。
+     */
+    StoredImage upload(Path file, String contentType) throws IOException;
+
+    /** upload で返した publicId の画像を削除する */
+    void delete(String publicId) throws IOException;
+
+    /**
+     * 複数画像をまとめて削除する（既定は 1 件ずつ delete）。
+     * 保存先に既に存在しないものも削除済みとして扱う。
+     * @return 削除できた publicId（失敗分は含まない）
+     */
+    default Set<String> deleteAll(Collection<String> publicIds) {
+        Set<String> deleted = new HashSet<>();
+        for (String publicId : publicIds) {
+            try {
+                delete(publicId);
+                deleted.add(publicId);
+            } catch (IOException | RuntimeException e) {
+                // 失敗分は呼び出し側で残し、次回に回す
+            }
+        }
+        return deleted;
+    }
+
+    /** アップロード結果（公開URLと削除用ID） */
+    record StoredImage(String url, String publicId) {}
+}
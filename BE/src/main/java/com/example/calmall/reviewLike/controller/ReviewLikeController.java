@@ -4,7 +4,7 @@ import com.example.calmall.global.dto.ApiResponseDto;
 import com.example.calmall.reviewLike.dto.ReviewLikeListResponseDto;
 import com.example.calmall.reviewLike.dto.ReviewLikeRequestDto;
 import com.example.calmall.reviewLike.service.ReviewLikeService;
-import com.example.calmall.user.entity.User;
+import com.example.calmall.user.session.SessionUser;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -28,7 +28,7 @@ public class ReviewLikeController {
             HttpSession session) {
 
         // セッションからログインユーザーを取得
-        User loginUser = (User) session.getAttribute("user");
+        SessionUser loginUser = SessionUser.of(session);
 
         // 未ログインの場合は401
         if (loginUser == null) {
@@ -37,7 +37,7 @@ public class ReviewLikeController {
         }
 
         // ログインユーザーと指定レビューIDでトグル処理を実行
-        boolean result = reviewLikeService.toggleLike(loginUser, requestDto.getReviewId());
+        boolean result = reviewLikeService.toggleLike(loginUser.userId(), requestDto.getReviewId());
 
         if (result) {
             return ResponseEntity.ok(new ApiResponseDto("success"));
@@ -1,7 +1,6 @@
 package com.example.calmall.reviewLike.service;
 
 import com.example.calmall.reviewLike.dto.ReviewLikeListResponseDto;
-import com.example.calmall.user.entity.User;
 
 import java.util.List;
 
@@ -11,7 +10,7 @@ public interface ReviewLikeService {
 
 
     // 指定ユーザーが指定レビューに対していいねトグルを行う（追加または削除）
-    boolean toggleLike(User user, Long reviewId);
+    boolean toggleLike(String userId, Long reviewId);
 
 
     // 指定されたレビューに「いいね」したユーザーの一覧を取得
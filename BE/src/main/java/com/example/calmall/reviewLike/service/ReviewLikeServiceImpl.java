@@ -6,6 +6,7 @@ import com.example.calmall.reviewLike.dto.ReviewLikeListResponseDto;
 import com.example.calmall.reviewLike.entity.ReviewLike;
 import com.example.calmall.reviewLike.repository.ReviewLikeRepository;
 import com.example.calmall.user.entity.User;
+import com.example.calmall.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,11 +22,12 @@ public class ReviewLikeServiceImpl implements ReviewLikeService {
 
     private final ReviewLikeRepository reviewLikeRepository;
     private final ReviewRepository reviewRepository;
+    private final UserRepository userRepository;
 
     // いいねのトグル処理を行う
     @Override
     @Transactional
-    public boolean toggleLike(User user, Long reviewId) {
+    public boolean toggleLike(String userId, Long reviewId) {
         // 対象レビューを取得（存在しない場合は失敗）
         Review review = reviewRepository.findById(reviewId).orElse(null);
         if (review == null) {
@@ -33,13 +35,17 @@ public class ReviewLikeServiceImpl implements ReviewLikeService {
         }
 
         // 既にいいねしているかを確認
-        boolean alreadyLiked = reviewLikeRepository.existsByUserUserIdAndReviewReviewId(user.getUserId(), reviewId);
+        boolean alreadyLiked = reviewLikeRepository.existsByUserUserIdAndReviewReviewId(userId, reviewId);
 
         if (alreadyLiked) {
             // 既にいいねしている場合は削除
-            reviewLikeRepository.deleteByUserUserIdAndReviewReviewId(user.getUserId(), reviewId);
+            reviewLikeRepository.deleteByUserUserIdAndReviewReviewId(userId, reviewId);
         } else {
-            // いいねしていない場合は新規登録
+            // いいねしていない場合は新規登録（セッションには ID しか無いため User を引く）
+            User user = userRepository.findByUserId(userId).orElse(null);
+            if (user == null) {
+                return false;
+            }
             ReviewLike like = ReviewLike.builder()
                     .user(user)
                     .review(review)
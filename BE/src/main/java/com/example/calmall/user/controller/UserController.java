@@ -4,6 +4,7 @@ import com.example.calmall.global.dto.ApiResponseDto;
 import com.example.calmall.user.dto.*;
 import com.example.calmall.user.entity.User;
 import com.example.calmall.user.service.UserService;
+import com.example.calmall.user.session.SessionUser;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -39,7 +40,7 @@ public class UserController {
         if (user != null) {
             // セッション作成（true：なければ作成）
             HttpSession session = request.getSession(true);
-            session.setAttribute("user", user); // セッションにユーザー情報保存
+            session.setAttribute(SessionUser.ATTRIBUTE, SessionUser.from(user)); // セッションにはIDとニックネームのみ保存
 
             //  デバッグログ出力（セッションIDとユーザー名）
             System.out.println(" セッションが作成されました");
@@ -76,16 +77,14 @@ public class UserController {
     // ユーザー詳細取得API（HeaderからuserId取得）
     @GetMapping("/users/me")
     public ResponseEntity<UserDetailResponseDto> getUserDetail(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        if (session == null || session.getAttribute("user") == null) {
+        SessionUser user = SessionUser.of(request);
+        if (user == null) {
             return ResponseEntity.status(401).body(
                     UserDetailResponseDto.builder().message("fail").build());
         }
 
-        User user = (User) session.getAttribute("user");
-
         // UserServiceの getUserDetail(String userId) を呼び出し
-        return userService.getUserDetail(user.getUserId());
+        return userService.getUserDetail(user.userId());
     }
 
 
@@ -95,14 +94,13 @@ public class UserController {
             @RequestBody @Valid UserAddressRequestDto requestDto,
             HttpServletRequest request) {
 
-        HttpSession session = request.getSession(false);
-        User user = (User) (session != null ? session.getAttribute("user") : null);
+        SessionUser user = SessionUser.of(request);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponseDto("ログインが必要です"));
         }
 
-        String userId = user.getUserId();
+        String userId = user.userId();
         return userService.addAddress(userId, requestDto);
     }
 
@@ -113,15 +111,14 @@ public class UserController {
             HttpServletRequest request) {
 
         // セッションからログインユーザーを取得
-        HttpSession session = request.getSession(false);
-        User user = (session != null) ? (User) session.getAttribute("user") : null;
+        SessionUser user = SessionUser.of(request);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponseDto("ログインが必要です"));
         }
 
         // ユーザーIDとリクエストDTOを使って削除処理を呼び出す
-        return userService.deleteAddress(user.getUserId(), requestDto);
+        return userService.deleteAddress(user.userId(), requestDto);
     }
 
 
@@ -155,7 +152,7 @@ public class UserController {
             return ResponseEntity.ok(" session 不存在");
         }
 
-        Object user = session.getAttribute("user");
+        SessionUser user = SessionUser.of(session);
         return ResponseEntity.ok("session 存在，user: " + (user != null ? user.toString() : "null"));
     }
 }
\ No newline at end of file
@@ -88,7 +88,7 @@ public class UserDetailResponseDto {
         // 本文コメント
         private String content;
 
-        // 配送先住所リスト
+        // 配送先住所リスト（互換のため残す。住所はトップレベルの deliveryAddresses を使う）
         private List<String> deliveryAddresses;
     }
 }
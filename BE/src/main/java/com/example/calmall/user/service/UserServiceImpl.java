@@ -1,12 +1,9 @@
 package com.example.calmall.user.service;
 
 import com.example.calmall.global.dto.ApiResponseDto;
-import com.example.calmall.orders.entity.Orders;
-import com.example.calmall.orders.entity.OrderItems;
 import com.example.calmall.orders.repository.OrdersRepository;
-import com.example.calmall.product.entity.Product;
 import com.example.calmall.product.repository.ProductRepository;
-import com.example.calmall.review.entity.Review;
+import com.example.calmall.review.repository.ReviewRepository;
 import com.example.calmall.user.dto.*;
 import com.example.calmall.user.entity.DeliveryAddress;
 import com.example.calmall.user.entity.User;
@@ -33,6 +30,7 @@ public class UserServiceImpl implements UserService {
     // 各種リポジトリを依存注入
     private final UserRepository userRepository;
     private final OrdersRepository ordersRepository;
+    private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final DeliveryAddressRepository addressRepository;
 
@@ -100,6 +98,7 @@ public class UserServiceImpl implements UserService {
     }
 
     //ユーザー詳細情報の取得
+    // クエリ数はアカウントの履歴件数によらず固定（ユーザー+住所 / 注文10件 / レビュー10件）
     @Override
     public ResponseEntity<UserDetailResponseDto> getUserDetail(String userId) {
         // ユーザー取得（存在しなければ例外）
@@ -129,58 +128,26 @@ public class UserServiceImpl implements UserService {
                                 .build())
                         .collect(Collectors.toList());
 
-        // 注文履歴（最新10件）id + 画像URL
+        // 注文履歴（最新10件）id + 画像URL（明細・商品は JOIN 済みの 1 クエリ）
         List<UserDetailResponseDto.OrderSummary> orderSummaries =
-                Optional.ofNullable(ordersRepository.findTop10ByUserOrderByCreatedAtDesc(user))
-                        .orElse(Collections.emptyList())
-                        .stream()
-                        .map(order -> {
-                            String imageUrl = null;
-
-                            // 最初の明細（存在すれば）
-                            List<OrderItems> items = order.getOrderItems();
-                            if (items != null && !items.isEmpty()) {
-                                OrderItems first = items.get(0);
-
-                                String urls = first.getImageListUrls();
-                                if (urls != null && !urls.isBlank()) {
-                                    String[] parts = urls.split(",");
-                                    if (parts.length > 0) {
-                                        imageUrl = parts[0].trim();
-                                    }
-                                }
-
-                                if (imageUrl == null || imageUrl.isBlank()) {
-                                    Product product = first.getProduct();
-                                    if (product != null && product.getImages() != null && !product.getImages().isEmpty()) {
-                                        imageUrl = product.getImages().get(0);
-                                    }
-                                }
-                            }
-
-                            return UserDetailResponseDto.OrderSummary.builder()
-                                    .id(order.getId())
-                                    .imageUrl(imageUrl)
-                                    .build();
-                        })
+                ordersRepository.findRecentSummariesByUserId(userId).stream()
+                        .map(row -> UserDetailResponseDto.OrderSummary.builder()
+                                .id(row.getId())
+                                .imageUrl(row.getImageUrl())
+                                .build())
                         .collect(Collectors.toList());
 
-        // レビュー履歴（最新10件）
-        List<UserDetailResponseDto.ReviewSummary> reviewSummaries = new ArrayList<>();
-        if (user.getReviews() != null) {
-            reviewSummaries = user.getReviews().stream()
-                    .sorted(Comparator.comparing(Review::getCreatedAt).reversed())
-                    .limit(10)
-                    .map(review -> UserDetailResponseDto.ReviewSummary.builder()
-                            .id(review.getReviewId())
-                            .title(review.getTitle())
-                            .createdAt(review.getCreatedAt())
-                            .score(review.getRating())
-                            .content(review.getComment())
-                            .deliveryAddresses(addressList)
-                            .build())
-                    .collect(Collectors.toList());
-        }
+        // レビュー履歴（最新10件、LIMIT 付きクエリ）
+        List<UserDetailResponseDto.ReviewSummary> reviewSummaries =
+                reviewRepository.findTop10ByUser_UserIdOrderByCreatedAtDesc(userId).stream()
+                        .map(row -> UserDetailResponseDto.ReviewSummary.builder()
+                                .id(row.getReviewId())
+                                .title(row.getTitle())
+                                .createdAt(row.getCreatedAt())
+                                .score(Optional.ofNullable(row.getRating()).orElse(0))
+                                .content(row.getComment())
+                                .build())
+                        .collect(Collectors.toList());
 
         // DTOを構築して返却
         UserDetailResponseDto responseDto = UserDetailResponseDto.builder()
@@ -0,0 +1,39 @@
+package com.example.calmall.user.session;
+
+import com.example.calmall.user.entity.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.Serializable;
+
+/**
+ * セッションに保存するログインユーザー情報（不変）
+ * - User エンティティ（遅延ロードのコレクションを含む）ではなく、識別に必要な値だけを持つ
+ * - 共有セッションストア（JDBC）へシリアライズして保存されるため Serializable
+ */
+public record SessionUser(String userId, String nickname) implements Serializable {
+
+    /** セッション属性名 */
+    public static final String ATTRIBUTE = "user";
+
+    public static SessionUser from(User user) {
+        return new SessionUser(user.getUserId(), user.getNickname());
+    }
+
+    /** セッションからログインユーザーを取得する（未ログインなら null） */
+    public static SessionUser of(HttpSession session) {
+        if (session == null) return null;
+        return session.getAttribute(ATTRIBUTE) instanceof SessionUser user ? user : null;
+    }
+
+    /** リクエストのセッション（無ければ作らない）からログインユーザーを取得する */
+    public static SessionUser of(HttpServletRequest request) {
+        return of(request.getSession(false));
+    }
+
+    /** ログイン中のユーザーID（未ログインなら null） */
+    public static String userIdOf(HttpSession session) {
+        SessionUser user = of(session);
+        return user != null ? user.userId() : null;
+    }
+}
@@ -0,0 +1,5 @@
+-- 未紐付けレビュー画像の掃除（ReviewImageGarbageCollector）で削除中の印
+-- 短いトランザクションで印を付けてから保存先を削除し（行ロックは持たない）、印が残っている行だけを削除する
+-- 印の付いた行は再利用・レビューへの紐付けの対象外
+
+ALTER TABLE review_images ADD COLUMN IF NOT EXISTS deleting_at timestamp(6);
@@ -0,0 +1,15 @@
+-- 商品検索（V3 の pg_trgm GIN インデックス）の前提: データベースの LC_CTYPE が日本語を文字として扱うこと
+-- LC_CTYPE が C / POSIX（環境によっては C.UTF-8 も）の場合、pg_trgm はマルチバイト文字を捨てるため
+-- 日本語のキーワードでは索引が効かず全件走査になる（例: show_trgm('緑茶') が空になる）
+-- 作成時に指定する: CREATE DATABASE ... ENCODING 'UTF8' LC_CTYPE 'ja_JP.UTF-8' TEMPLATE template0
+-- 既存データベースの LC_CTYPE は変更できないため、ここでは移行を止めずに WARNING を Flyway のログに出す
+-- （3 文字未満のキーワードは LC_CTYPE に関係なくアプリのインメモリ索引で検索する）
+DO $$
+DECLARE
+    ctype text;
+BEGIN
+    IF cardinality(show_trgm('日本語')) = 0 THEN
+        SELECT datctype INTO ctype FROM pg_database WHERE datname = current_database();
+        RAISE WARNING 'pg_trgm ignores Japanese characters with LC_CTYPE "%"; product search by Japanese keywords will not use the trigram indexes. Recreate the database with a Japanese-capable LC_CTYPE (e.g. ja_JP.UTF-8).', ctype;
+    END IF;
+END $$;
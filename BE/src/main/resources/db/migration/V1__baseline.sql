@@ -0,0 +1,93 @@
+-- 既存スキーマ（hibernate.ddl-auto=update で作られていた状態）のベースライン
+-- 既存 DB では spring.flyway.baseline-on-migrate によりこのファイルは実行されず、バージョン 1 として記録される
+
+CREATE TABLE IF NOT EXISTS users (
+    id       bigserial PRIMARY KEY,
+    user_id  varchar(40)  NOT NULL UNIQUE,
+    nickname varchar(10),
+    email    varchar(128) UNIQUE,
+    password varchar(64),
+    birth    date,
+    point    integer
+);
+
+CREATE TABLE IF NOT EXISTS user_delivery_addresses (
+    id          bigserial PRIMARY KEY,
+    postal_code varchar(255) NOT NULL,
+    address1    varchar(255) NOT NULL,
+    address2    varchar(255) NOT NULL,
+    user_id     varchar(40)  NOT NULL REFERENCES users (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS product (
+    item_code                   varchar(255) PRIMARY KEY,
+    item_name                   text,
+    item_caption                text,
+    catchcopy                   text,
+    price                       integer,
+    inventory                   integer,
+    status                      boolean,
+    item_url                    text,
+    created_at                  timestamp(6),
+    description_plain           text,
+    description_html            text
+);
+
+-- 商品画像（V2 で product.image_urls へ移す。切り戻し用に残す）
+CREATE TABLE IF NOT EXISTS product_images (
+    item_code varchar(255) NOT NULL REFERENCES product (item_code),
+    image_url text
+);
+
+CREATE TABLE IF NOT EXISTS cart_item (
+    id        bigserial PRIMARY KEY,
+    user_id   varchar(255) NOT NULL,
+    item_code varchar(255) NOT NULL,
+    quantity  integer,
+    option    varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    id               bigserial PRIMARY KEY,
+    user_id          varchar(40)  NOT NULL REFERENCES users (user_id),
+    delivery_address varchar(255) NOT NULL,
+    created_at       timestamp(6) NOT NULL,
+    status           varchar(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id              bigserial PRIMARY KEY,
+    order_id        bigint       NOT NULL REFERENCES orders (id),
+    item_code       varchar(255) NOT NULL REFERENCES product (item_code),
+    quantity        integer,
+    price_at_order  float(53),
+    image_list_urls varchar(1000),
+    item_name       varchar(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS review (
+    review_id  bigserial PRIMARY KEY,
+    user_id    varchar(40)  NOT NULL REFERENCES users (user_id),
+    item_code  varchar(255) NOT NULL REFERENCES product (item_code),
+    rating     integer,
+    title      varchar(255),
+    comment    text,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    deleted    boolean      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS review_images (
+    id           bigserial PRIMARY KEY,
+    review_id    bigint REFERENCES review (review_id),
+    image_url    varchar(255) NOT NULL,
+    public_id    varchar(255),
+    content_type varchar(255) NOT NULL,
+    created_at   timestamp(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS review_like (
+    id        bigserial PRIMARY KEY,
+    user_id   varchar(40) NOT NULL REFERENCES users (user_id),
+    review_id bigint      NOT NULL REFERENCES review (review_id)
+);
@@ -0,0 +1,21 @@
+-- 商品画像を product_images（別テーブル）から product.image_urls（text[]）へ移す
+-- image_urls が NULL の行だけを埋めるため、起動時移行で移行済みの DB でも安全に実行できる
+-- 旧 product_images テーブルは切り戻し用に残す
+
+ALTER TABLE product ADD COLUMN IF NOT EXISTS image_urls text[];
+
+DO $$
+BEGIN
+    IF to_regclass('product_images') IS NOT NULL THEN
+        UPDATE product p
+           SET image_urls = sub.urls
+          FROM (SELECT item_code, array_agg(image_url ORDER BY ctid) AS urls
+                  FROM product_images
+                 WHERE image_url IS NOT NULL
+                 GROUP BY item_code) sub
+         WHERE p.item_code = sub.item_code
+           AND p.image_urls IS NULL;
+    END IF;
+END $$;
+
+UPDATE product SET image_urls = '{}' WHERE image_urls IS NULL;
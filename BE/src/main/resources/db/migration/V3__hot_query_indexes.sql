@@ -0,0 +1,41 @@
+-- よく使うクエリ向けのインデックス
+
+-- カート一覧（user_id で絞り込み）
+CREATE INDEX IF NOT EXISTS idx_cart_item_user_id ON cart_item (user_id);
+
+-- 商品ごとのレビュー一覧（未削除・新着順）
+CREATE INDEX IF NOT EXISTS idx_review_item_code_deleted_created_at ON review (item_code, deleted, created_at);
+
+-- レビューごとのいいね数
+CREATE INDEX IF NOT EXISTS idx_review_like_review_id ON review_like (review_id);
+
+-- 同じユーザーが同じレビューに二重にいいねできないようにする
+-- 注意: 既存の重複いいねは最古の 1 件を残して削除する（削除件数は Flyway のログに NOTICE として出る）
+DO $$
+DECLARE
+    removed integer;
+BEGIN
+    DELETE FROM review_like a
+     USING review_like b
+     WHERE a.user_id = b.user_id
+       AND a.review_id = b.review_id
+       AND a.id > b.id;
+    GET DIAGNOSTICS removed = ROW_COUNT;
+    IF removed > 0 THEN
+        RAISE NOTICE 'review_like: removed % duplicate likes (kept the oldest per user and review)', removed;
+    END IF;
+END $$;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_review_like_user_id_review_id ON review_like (user_id, review_id);
+
+-- 注文履歴（ユーザーごと・新着順）
+CREATE INDEX IF NOT EXISTS idx_orders_user_id_created_at ON orders (user_id, created_at);
+
+-- 注文明細（注文ごと）
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+
+-- 商品検索（部分一致 ILIKE）
+-- 日本語は単語区切りが無く to_tsvector('simple') では検索できないため、pg_trgm（3文字 n-gram）の GIN インデックスを使う
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_product_item_name_trgm ON product USING gin (item_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_product_catchcopy_trgm ON product USING gin (catchcopy gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_product_description_plain_trgm ON product USING gin (description_plain gin_trgm_ops);
@@ -0,0 +1,8 @@
+-- レビュー画像の内容ハッシュ（SHA-256 hex）による重複アップロードの抑止
+-- 未紐付け（review_id IS NULL）の画像の中で一意。レビューに紐付いた画像は共有しない（削除時に他レビューへ影響するため）
+
+ALTER TABLE review_images ADD COLUMN IF NOT EXISTS content_hash varchar(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_review_images_content_hash_unbound
+    ON review_images (content_hash)
+    WHERE review_id IS NULL AND content_hash IS NOT NULL;
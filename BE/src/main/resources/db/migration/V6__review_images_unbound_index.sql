@@ -0,0 +1,6 @@
+-- 未紐付けレビュー画像の掃除（ReviewImageGarbageCollector）用
+-- review_id IS NULL の行だけを created_at 順に引けるようにする部分インデックス
+
+CREATE INDEX IF NOT EXISTS idx_review_images_unbound_created_at
+    ON review_images (created_at)
+    WHERE review_id IS NULL;
@@ -0,0 +1,5 @@
+-- レビュー投稿・編集時の画像紐付け（image_url = ANY(...)）と画像削除（image_url IN ...）用
+-- 既存データに重複 URL が残っている可能性があるため一意にはしない
+
+CREATE INDEX IF NOT EXISTS idx_review_images_image_url
+    ON review_images (image_url);
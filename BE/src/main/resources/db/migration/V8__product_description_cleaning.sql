@@ -0,0 +1,4 @@
+-- 商品説明の再整形スキップ用（整形元テキストのハッシュと整形時のプロンプトバージョン）
+-- 既存 DB は V1 を実行しないため、ここで追加する
+ALTER TABLE product ADD COLUMN IF NOT EXISTS source_hash varchar(64);
+ALTER TABLE product ADD COLUMN IF NOT EXISTS cleaned_with_prompt_version varchar(32);
@@ -0,0 +1,11 @@
+-- レビュー画像をアップロードしたユーザー
+-- 内容ハッシュによる未紐付け画像の再利用をアップロード者本人の画像に限る（他ユーザーの未投稿画像を渡さない）
+-- 既存行は NULL のまま（NULL 同士は一意制約で衝突せず、再利用の対象にもならない）
+
+ALTER TABLE review_images ADD COLUMN IF NOT EXISTS user_id varchar(40);
+
+DROP INDEX IF EXISTS uq_review_images_content_hash_unbound;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_review_images_user_id_content_hash_unbound
+    ON review_images (user_id, content_hash)
+    WHERE review_id IS NULL AND content_hash IS NOT NULL;
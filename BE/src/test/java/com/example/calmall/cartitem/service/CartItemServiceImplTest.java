@@ -0,0 +1,66 @@
+package com.example.calmall.cartitem.service;
+
+import com.example.calmall.cartitem.dto.CartItemForOrderPageDto;
+import com.example.calmall.cartitem.dto.CartListForOrderResponseDto;
+import com.example.calmall.cartitem.entity.CartItem;
+import com.example.calmall.cartitem.repository.CartItemRepository;
+import com.example.calmall.product.dto.ProductDetailResponseDto;
+import com.example.calmall.product.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * カートの商品詳細はまとめて非同期で取得する（同じ商品は 1 回、取得失敗は代替表示）
+ */
+class CartItemServiceImplTest {
+
+    private final CartItemRepository cartItemRepository = mock(CartItemRepository.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final CartItemServiceImpl service = new CartItemServiceImpl(cartItemRepository, productService);
+
+    @Test
+    void fetchesDetailsConcurrentlyAndFallsBackPerItem() {
+        when(cartItemRepository.findByUserIdAndIdIn("alice", List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(cartItem(1L, "shop:a"), cartItem(2L, "shop:b"), cartItem(3L, "shop:a")));
+        // 1 件目の完了を待たずに 2 件目も要求されること（未完了の future を返しておく）
+        CompletableFuture<ResponseEntity<ProductDetailResponseDto>> slow = new CompletableFuture<>();
+        when(productService.getProductDetailAsync("shop:a")).thenReturn(slow);
+        when(productService.getProductDetailAsync("shop:b"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("rakuten down")));
+
+        CompletableFuture<CartListForOrderResponseDto> result = CompletableFuture.supplyAsync(
+                () -> service.getCartItemsForOrderPage("alice", List.of(1L, 2L, 3L)));
+        verify(productService, timeout(5_000)).getProductDetailAsync("shop:b");
+        slow.complete(ResponseEntity.ok(ProductDetailResponseDto.builder()
+                .product(ProductDetailResponseDto.ProductDto.builder()
+                        .itemCode("shop:a").itemName("緑茶").price(500).imageUrls(List.of("https://img/a")).build())
+                .build()));
+
+        CartListForOrderResponseDto dto = result.join();
+        assertEquals(List.of("緑茶", "不明な商品", "緑茶"),
+                dto.getCartList().stream().map(CartItemForOrderPageDto::getItemName).toList());
+        verify(productService, times(1)).getProductDetailAsync("shop:a");
+        verify(productService, never()).getProductDetail(anyString());
+    }
+
+    private static CartItem cartItem(Long id, String itemCode) {
+        CartItem item = new CartItem();
+        item.setId(id);
+        item.setUserId("alice");
+        item.setItemCode(itemCode);
+        item.setQuantity(1);
+        return item;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.calmall.global.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.session.MapSession;
+import org.springframework.session.MapSessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * メモリ保存のセッションの期限切れ掃除
+ */
+class InMemorySessionPurgeTest {
+
+    @Test
+    void purgesOnlyExpiredSessions() {
+        SessionConfig.InMemorySessionConfig config = new SessionConfig.InMemorySessionConfig();
+        MapSessionRepository repository = config.sessionRepository(Duration.ofMinutes(30));
+
+        MapSession live = repository.createSession();
+        repository.save(live);
+        MapSession expired = repository.createSession();
+        expired.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+        repository.save(expired);
+        assertEquals(2, config.sessions.size());
+
+        config.purgeExpiredSessions();
+
+        assertEquals(1, config.sessions.size());
+        assertTrue(config.sessions.containsKey(live.getId()));
+    }
+}
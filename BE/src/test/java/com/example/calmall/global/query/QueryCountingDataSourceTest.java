@@ -0,0 +1,84 @@
+package com.example.calmall.global.query;
+
+import com.example.calmall.support.QueryCountAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * DataSource レベルでの SQL 件数計測（JdbcTemplate 経由の SQL も数えること）
+ */
+class QueryCountingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        when(ps.executeUpdate()).thenReturn(1);
+        when(ps.executeBatch()).thenReturn(new int[]{1, 1, 1});
+        Statement st = mock(Statement.class);
+        when(st.executeQuery(anyString())).thenReturn(rs);
+
+        Connection con = mock(Connection.class);
+        DatabaseMetaData meta = mock(DatabaseMetaData.class);
+        when(meta.supportsBatchUpdates()).thenReturn(true);
+        when(con.getMetaData()).thenReturn(meta);
+        when(con.prepareStatement(anyString())).thenReturn(ps);
+        when(con.createStatement()).thenReturn(st);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(con);
+
+        jdbcTemplate = new JdbcTemplate(new QueryCountingDataSource(target));
+    }
+
+    @Test
+    void countsJdbcTemplateStatements() {
+        QueryCountHolder.start();
+        jdbcTemplate.query("SELECT 1", (r, i) -> 1);
+        jdbcTemplate.query("SELECT ?", (r, i) -> 1, 1);
+        jdbcTemplate.update("UPDATE t SET a = ?", 1);
+        QueryCountHolder.Stats stats = QueryCountHolder.stop();
+
+        assertEquals(3, stats.getStatements());
+    }
+
+    @Test
+    void batchIsOneRoundTrip() {
+        QueryCountAssertions.assertMaxQueries(1, () -> {
+            jdbcTemplate.batchUpdate("INSERT INTO t VALUES (?)", List.of(new Object[]{1}, new Object[]{2}, new Object[]{3}));
+        });
+    }
+
+    @Test
+    void assertMaxQueriesFailsWhenExceeded() {
+        assertThrows(AssertionFailedError.class, () -> QueryCountAssertions.assertMaxQueries(1, () -> {
+            jdbcTemplate.update("UPDATE t SET a = ?", 1);
+            jdbcTemplate.update("UPDATE t SET a = ?", 2);
+        }));
+    }
+
+    @Test
+    void notCountedOutsideMeasurement() {
+        jdbcTemplate.update("UPDATE t SET a = ?", 1);
+        assertNull(QueryCountHolder.current());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.calmall.global.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AimdLimiter の上限調整と空き待ち
+ */
+class AimdLimiterTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void rejectsImmediatelyWithoutWaitWhenFull() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 0.5, 3.0);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertEquals(2, limiter.getInflight());
+    }
+
+    @Test
+    void waiterIsGrantedWhenSlotIsReleased() {
+        AimdLimiter limiter = new AimdLimiter(1, 1, 1, 0.5, 3.0);
+        assertTrue(limiter.tryAcquire());
+
+        CompletableFuture<Boolean> waiter = limiter.acquireAsync(5, TimeUnit.SECONDS);
+        assertFalse(waiter.isDone());
+        assertEquals(1, limiter.getWaiting());
+
+        limiter.onIgnored();
+
+        assertTrue(waiter.getNow(false));
+        assertEquals(1, limiter.getInflight());
+        assertEquals(0, limiter.getWaiting());
+    }
+
+    @Test
+    void waitersAreServedInFifoOrder() {
+        AimdLimiter limiter = new AimdLimiter(1, 1, 1, 0.5, 3.0);
+        assertTrue(limiter.tryAcquire());
+        CompletableFuture<Boolean> first = limiter.acquireAsync(5, TimeUnit.SECONDS);
+        CompletableFuture<Boolean> second = limiter.acquireAsync(5, TimeUnit.SECONDS);
+
+        // 待ちがいる間は割り込みで確保できない
+        limiter.onIgnored();
+        assertTrue(first.getNow(false));
+        assertFalse(second.isDone());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.onIgnored();
+        assertTrue(second.getNow(false));
+    }
+
+    @Test
+    void waiterTimesOutAndDoesNotLeakSlot() {
+        AimdLimiter limiter = new AimdLimiter(1, 1, 1, 0.5, 3.0);
+        assertTrue(limiter.tryAcquire());
+
+        assertFalse(limiter.tryAcquire(30, TimeUnit.MILLISECONDS));
+        assertEquals(0, limiter.getWaiting());
+
+        limiter.onIgnored();
+        assertEquals(0, limiter.getInflight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void blockingAcquireWakesUpOnRelease() throws Exception {
+        AimdLimiter limiter = new AimdLimiter(1, 1, 1, 0.5, 3.0);
+        assertTrue(limiter.tryAcquire());
+
+        CompletableFuture<Boolean> acquired =
+                CompletableFuture.supplyAsync(() -> limiter.tryAcquire(5, TimeUnit.SECONDS));
+        while (limiter.getWaiting() == 0) Thread.sleep(1);
+        limiter.onSuccess(10 * MS);
+
+        assertTrue(acquired.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInflight());
+    }
+
+    @Test
+    void increasesWhenUtilizedAndFast() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 0.5, 3.0);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        limiter.onSuccess(10 * MS);
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void decreasesOnDropAndOnSlowResponse() {
+        AimdLimiter limiter = new AimdLimiter(8, 1, 10, 0.5, 3.0);
+        assertTrue(limiter.tryAcquire());
+        limiter.onDropped();
+        assertEquals(4, limiter.getLimit());
+
+        assertTrue(limiter.tryAcquire());
+        limiter.onSuccess(10 * MS);   // minRtt = 10ms
+        assertTrue(limiter.tryAcquire());
+        limiter.onSuccess(100 * MS);  // 10 倍 → 悪化
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void longerOutputIsNotTreatedAsSlowWhenNormalizedByCost() {
+        AimdLimiter limiter = new AimdLimiter(4, 1, 10, 0.5, 3.0);
+        assertTrue(limiter.tryAcquire());
+        limiter.onSuccess(500 * MS, 1);       // 短い出力: 500ms
+        assertTrue(limiter.tryAcquire());
+        limiter.onSuccess(8_000 * MS, 20);    // 長い出力: 8s だが 1 単位あたり 400ms
+        assertTrue(limiter.tryAcquire());
+        limiter.onSuccess(600 * MS, 1);
+        assertEquals(4, limiter.getLimit());
+
+        // コストで割らなければ 8s は minRtt の 3 倍超で上限が下がる
+        assertTrue(limiter.tryAcquire());
+        limiter.onSuccess(8_000 * MS);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void neverBelowMinimum() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 0.5, 3.0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onDropped();
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.calmall.global.resilience;
+
+import com.example.calmall.global.resilience.CircuitBreaker.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CircuitBreaker の状態遷移（CLOSED → OPEN → HALF_OPEN → CLOSED / OPEN）
+ */
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final List<String> transitions = new ArrayList<>();
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        // 直近 10 件・最低 4 件・失敗率 50% で OPEN、OPEN 1 秒、HALF_OPEN の試行 2 件
+        breaker = new CircuitBreaker(10, 4, 0.5, 1000, 2,
+                (from, to) -> transitions.add(from + "->" + to), now::get);
+    }
+
+    private void fail(int n) {
+        for (int i = 0; i < n; i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.onFailure();
+        }
+    }
+
+    private void succeed(int n) {
+        for (int i = 0; i < n; i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.onSuccess();
+        }
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        fail(3);
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        succeed(2);
+        fail(1);
+        assertEquals(State.CLOSED, breaker.getState()); // 1/3 かつ最低件数未満
+        fail(1);
+        assertEquals(State.OPEN, breaker.getState());   // 2/4 = 50%
+        assertEquals(List.of("CLOSED->OPEN"), transitions);
+    }
+
+    @Test
+    void oldResultsLeaveTheWindow() {
+        fail(1);
+        succeed(9);
+        // 失敗 1 件は窓から押し出され、その後の 4 失敗でも 4/10 < 50%
+        succeed(1);
+        fail(4);
+        assertEquals(State.CLOSED, breaker.getState());
+        fail(1);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void openRejectsUntilDurationElapses() {
+        fail(4);
+        assertFalse(breaker.tryAcquirePermission());
+        assertFalse(breaker.isCallPermitted());
+
+        now.addAndGet(999);
+        assertFalse(breaker.tryAcquirePermission());
+
+        now.addAndGet(1);
+        assertTrue(breaker.isCallPermitted());
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenLimitsTrialsAndClosesAfterAllSucceed() {
+        fail(4);
+        now.addAndGet(1000);
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission()); // 試行枠は 2 件まで
+
+        breaker.onSuccess();
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess();
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+
+        // CLOSED に戻ったら窓はリセットされている
+        fail(3);
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenFailureReopens() {
+        fail(4);
+        now.addAndGet(1000);
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+
+        assertEquals(State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN"), transitions);
+    }
+
+    @Test
+    void releasedPermissionCanBeReused() {
+        fail(4);
+        now.addAndGet(1000);
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.releasePermission();
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.calmall.global.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DependencyGuard: 同時実行上限での待機・拒否と、失敗によるサーキットの OPEN
+ */
+class DependencyGuardTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private DependencyGuard guard(int limit, long acquireTimeoutMs) {
+        return new DependencyGuard("test",
+                new DependencyGuard.CircuitBreakerSettings(4, 4, 0.5, 60_000, 1),
+                new AimdLimiter(limit, 1, limit, 0.7, 3.0),
+                acquireTimeoutMs,
+                t -> false, t -> false, registry);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void callWaitsForFreeSlotInsteadOfFailing() throws Exception {
+        DependencyGuard guard = guard(1, 5_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> guard.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+            return "first";
+        }));
+        started.await();
+
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> guard.execute(() -> "second"));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, registry.counter("resilience.rejected", "name", "test", "reason", "limit").count());
+    }
+
+    @Test
+    void rejectsAfterAcquireTimeout() throws Exception {
+        DependencyGuard guard = guard(1, 30);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> guard.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+            return "first";
+        }));
+        started.await();
+
+        CallNotPermittedException e = assertThrows(CallNotPermittedException.class,
+                () -> guard.execute(() -> "second"));
+        assertTrue(e.getReason().startsWith("concurrency limit"));
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(1.0, registry.counter("resilience.rejected", "name", "test", "reason", "limit").count());
+    }
+
+    @Test
+    void asyncCallWaitsWithoutBlockingCaller() throws Exception {
+        DependencyGuard guard = guard(1, 5_000);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = guard.executeAsync(() -> pending);
+        CompletableFuture<String> second = guard.executeAsync(() -> CompletableFuture.completedFuture("second"));
+
+        assertFalse(second.isDone());
+        pending.complete("first");
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failuresOpenCircuitAndRejectImmediately() {
+        DependencyGuard guard = guard(4, 0);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IOException.class, () -> guard.execute(() -> {
+                throw new IOException("boom");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.getState());
+
+        assertThrows(CallNotPermittedException.class, () -> guard.execute(() -> "never"));
+        ExecutionException async = assertThrows(ExecutionException.class,
+                () -> guard.executeAsync(() -> CompletableFuture.completedFuture("never")).get());
+        assertInstanceOf(CallNotPermittedException.class, async.getCause());
+    }
+}
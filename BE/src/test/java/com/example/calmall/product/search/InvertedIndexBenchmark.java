@@ -0,0 +1,121 @@
+package com.example.calmall.product.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * InvertedIndex のメモリ使用量と検索レイテンシを測るベンチマーク（JUnit ではなく main で実行する）。
+ *
+ * 実行例:
+ *   gradle compileTestJava
+ *   java -Xmx2g -cp build/classes/java/main:build/classes/java/test \
+ *        com.example.calmall.product.search.InvertedIndexBenchmark 100000
+ */
+public class InvertedIndexBenchmark {
+
+    private static final String[] NAMES = {
+            "国産", "無添加", "オーガニック", "北海道", "天然", "訳あり", "送料無料", "ギフト", "大容量", "限定",
+            "ハンドクリーム", "緑茶", "コーヒー豆", "はちみつ", "シャンプー", "タオル", "マグカップ", "米", "みかん", "チョコレート",
+            "セット", "詰め合わせ", "お試し", "プレミアム", "ミニ", "500g", "1kg", "2個入り", "10本", "Lサイズ"
+    };
+    private static final String[] COPY = {
+            "今だけポイント10倍", "楽天ランキング1位", "あす楽対応", "母の日に", "人気No.1", "数量限定"
+    };
+    private static final String[] QUERIES = {
+            "緑茶", "ハンドクリーム", "北海道 はちみつ", "送料無料 コーヒー", "オーガニックシャンプー", "み", "タオルセット"
+    };
+
+    // 実データに近い語彙の多様さを出すため、かな・漢字をランダムに組み合わせた語を混ぜる
+    private static final int VOCAB_SIZE = 5000;
+    private static final String[] VOCAB = new String[VOCAB_SIZE];
+
+    public static void main(String[] args) {
+        int docs = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        Random rnd = new Random(42);
+        for (int i = 0; i < VOCAB_SIZE; i++) {
+            VOCAB[i] = i < NAMES.length ? NAMES[i] : randomWord(rnd);
+        }
+        String[] queryTerms = new String[64];
+        for (int i = 0; i < queryTerms.length; i++) {
+            queryTerms[i] = i < QUERIES.length ? QUERIES[i]
+                    : VOCAB[rnd.nextInt(VOCAB_SIZE)] + (i % 2 == 0 ? "" : " " + NAMES[rnd.nextInt(NAMES.length)]);
+        }
+
+        long heapBefore = usedHeap();
+        InvertedIndex index = new InvertedIndex();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < docs; i++) {
+            index.upsert("shop:" + i, words(rnd, 4), COPY[rnd.nextInt(COPY.length)], words(rnd, 40));
+        }
+        index.trim();
+        long buildMs = (System.nanoTime() - t0) / 1_000_000;
+        long heapAfter = usedHeap();
+
+        System.out.printf("docs=%d tokens=%d build=%dms%n", index.size(), index.tokenCount(), buildMs);
+        System.out.printf("heap delta≈%.1f MB, postings≈%.1f MB (%.0f bytes/doc)%n",
+                (heapAfter - heapBefore) / 1e6, index.estimatedPostingBytes() / 1e6,
+                (double) index.estimatedPostingBytes() / docs);
+
+        for (InvertedIndex.Mode mode : InvertedIndex.Mode.values()) {
+            // ウォームアップ
+            for (int i = 0; i < queries / 4; i++) index.search(queryTerms[i % queryTerms.length], mode, 10);
+
+            long[] lat = new long[queries];
+            int hits = 0;
+            for (int i = 0; i < queries; i++) {
+                long s = System.nanoTime();
+                List<InvertedIndex.Hit> r = index.search(queryTerms[i % queryTerms.length], mode, 10);
+                lat[i] = System.nanoTime() - s;
+                hits += r.size();
+            }
+            Arrays.sort(lat);
+            System.out.printf("%-3s p50=%.1fus p95=%.1fus p99=%.1fus max=%.1fus (avg hits %.1f)%n", mode,
+                    lat[queries / 2] / 1e3, lat[queries * 95 / 100] / 1e3, lat[queries * 99 / 100] / 1e3,
+                    lat[queries - 1] / 1e3, (double) hits / queries);
+        }
+
+        // 更新（tombstone）と詰め直し
+        long t1 = System.nanoTime();
+        for (int i = 0; i < docs / 2; i++) {
+            index.upsert("shop:" + i, words(rnd, 4), COPY[rnd.nextInt(COPY.length)], words(rnd, 40));
+        }
+        long updateMs = (System.nanoTime() - t1) / 1_000_000;
+        long t2 = System.nanoTime();
+        index.compact();
+        System.out.printf("update %d docs=%dms compact=%dms docs=%d%n",
+                docs / 2, updateMs, (System.nanoTime() - t2) / 1_000_000, index.size());
+    }
+
+    private static String words(Random rnd, int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(i % 5 == 0 ? "。" : "");
+            // 定番語を 3 割、生成語を 7 割
+            sb.append(rnd.nextInt(10) < 3 ? NAMES[rnd.nextInt(NAMES.length)] : VOCAB[rnd.nextInt(VOCAB_SIZE)]);
+            if (rnd.nextInt(3) == 0) sb.append(' ');
+        }
+        return sb.toString();
+    }
+
+    private static String randomWord(Random rnd) {
+        int len = 2 + rnd.nextInt(3);
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) {
+            // ひらがな・カタカナ・常用漢字付近から選ぶ
+            switch (rnd.nextInt(3)) {
+                case 0 -> sb.append((char) ('ぁ' + rnd.nextInt(83)));
+                case 1 -> sb.append((char) ('ァ' + rnd.nextInt(86)));
+                default -> sb.append((char) ('一' + rnd.nextInt(3000)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.calmall.product.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * InvertedIndex の AND / OR 検索を総当たりの結果と突き合わせる
+ */
+class InvertedIndexTest {
+
+    // 文字種を絞って転置リストを長くし（スキップ情報を使わせる）、まれな文字で AND の読み飛ばしも起こす
+    private static final String COMMON = "あいうえおかき";
+    private static final String RARE = "xyz緑茶";
+
+    private record Doc(String name, String catchcopy, String description) {}
+
+    @Test
+    void andAndOrMatchBruteForce() {
+        Random rnd = new Random(42);
+        InvertedIndex index = new InvertedIndex();
+        Map<String, Doc> docs = new LinkedHashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            put(index, docs, "shop:" + i, randomDoc(rnd));
+        }
+        assertMatchesOracle(index, docs, rnd);
+    }
+
+    @Test
+    void upsertAfterDeleteAndCompactMatchBruteForce() {
+        Random rnd = new Random(1);
+        InvertedIndex index = new InvertedIndex();
+        Map<String, Doc> docs = new LinkedHashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            put(index, docs, "shop:" + i, randomDoc(rnd));
+        }
+        // 削除・再登録・更新を混ぜる
+        for (int i = 0; i < 2000; i++) {
+            String code = "shop:" + rnd.nextInt(2500);
+            switch (rnd.nextInt(3)) {
+                case 0 -> {
+                    index.remove(code);
+                    docs.remove(code);
+                }
+                default -> put(index, docs, code, randomDoc(rnd));
+            }
+        }
+        assertEquals(docs.size(), index.size());
+        assertTrue(index.deletedRatio() > 0);
+        assertMatchesOracle(index, docs, rnd);
+
+        index.compact();
+        assertEquals(0.0, index.deletedRatio());
+        assertEquals(docs.size(), index.size());
+        assertMatchesOracle(index, docs, rnd);
+
+        // compact 後の追加・更新も反映される
+        for (int i = 0; i < 300; i++) {
+            put(index, docs, "shop:" + rnd.nextInt(3000), randomDoc(rnd));
+        }
+        assertMatchesOracle(index, docs, rnd);
+    }
+
+    @Test
+    void upsertAfterRemoveReplacesOldText() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert("a", "緑茶 ティーバッグ", null, null);
+        index.remove("a");
+        assertTrue(index.search("緑茶", InvertedIndex.Mode.AND, 10).isEmpty());
+
+        index.upsert("a", "ほうじ茶", null, null);
+        index.upsert("a", "コーヒー豆", null, null);
+        assertTrue(index.search("ほうじ茶", InvertedIndex.Mode.OR, 10).isEmpty());
+        // コー・ーヒ・ヒー の 3 トークンが商品名に一致
+        assertEquals(List.of(new InvertedIndex.Hit("a", "コーヒー豆", InvertedIndex.WEIGHT_NAME * 3)),
+                index.search("コーヒー", InvertedIndex.Mode.AND, 10));
+        assertEquals(1, index.size());
+
+        index.compact();
+        assertEquals(List.of(new InvertedIndex.Hit("a", "コーヒー豆", InvertedIndex.WEIGHT_NAME * 3)),
+                index.search("コーヒー", InvertedIndex.Mode.AND, 10));
+    }
+
+    @Test
+    void addIfAbsentDoesNotOverwrite() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert("a", "新しい名前", null, null);
+        assertFalse(index.addIfAbsent("a", "古い名前", null, null));
+        assertTrue(index.search("古い", InvertedIndex.Mode.AND, 10).isEmpty());
+        assertEquals("a", index.search("新しい", InvertedIndex.Mode.AND, 10).get(0).itemCode());
+    }
+
+    @Test
+    void searchContainingMatchesSingleCharAnywhere() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert("tail", "緑茶", null, null);
+        index.upsert("head", "茶葉", null, null);
+        index.upsert("alone", "お 茶", null, null);
+        index.upsert("none", "コーヒー", null, null);
+
+        // 入力補完（OR）は「茶」で始まる bi-gram だけ、部分一致は末尾・単独の「茶」も拾う
+        assertEquals(Set.of("head", "alone"), codes(index.search("茶", InvertedIndex.Mode.OR, 10)));
+        assertEquals(Set.of("tail", "head", "alone"), codes(index.searchContaining("茶", 10)));
+        assertEquals(Set.of("tail"), codes(index.searchContaining("緑茶", 10)));
+        assertTrue(index.searchContaining("紅茶", 10).isEmpty());
+    }
+
+    @Test
+    void limitKeepsHighestScoresWithOlderDocsFirstOnTies() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert("desc", "ほか", null, "緑茶");
+        index.upsert("name1", "緑茶", null, null);
+        index.upsert("copy", "ほか", "緑茶", null);
+        index.upsert("name2", "緑茶", null, null);
+
+        List<InvertedIndex.Hit> hits = index.search("緑茶", InvertedIndex.Mode.OR, 3);
+        assertEquals(List.of("name1", "name2", "copy"), hits.stream().map(InvertedIndex.Hit::itemCode).toList());
+    }
+
+    private static Set<String> codes(List<InvertedIndex.Hit> hits) {
+        Set<String> codes = new HashSet<>();
+        for (InvertedIndex.Hit hit : hits) codes.add(hit.itemCode());
+        return codes;
+    }
+
+    // ---- 総当たり ----
+
+    private static void put(InvertedIndex index, Map<String, Doc> docs, String code, Doc doc) {
+        index.upsert(code, doc.name(), doc.catchcopy(), doc.description());
+        docs.remove(code);
+        docs.put(code, doc);
+    }
+
+    private static void assertMatchesOracle(InvertedIndex index, Map<String, Doc> docs, Random rnd) {
+        for (int q = 0; q < 300; q++) {
+            String query = randomWord(rnd, 2 + rnd.nextInt(3)) + (rnd.nextBoolean() ? "" : " " + randomWord(rnd, 2));
+            for (InvertedIndex.Mode mode : InvertedIndex.Mode.values()) {
+                Map<String, Integer> expected = oracle(docs, query, mode);
+                Map<String, Integer> actual = new HashMap<>();
+                for (InvertedIndex.Hit hit : index.search(query, mode, docs.size() + 1)) {
+                    actual.put(hit.itemCode(), hit.score());
+                    assertEquals(docs.get(hit.itemCode()).name(), hit.itemName());
+                }
+                assertEquals(expected, actual, mode + " '" + query + "'");
+            }
+        }
+    }
+
+    private static Map<String, Integer> oracle(Map<String, Doc> docs, String query, InvertedIndex.Mode mode) {
+        // クエリ内の重複トークンは 1 回だけ数える
+        Set<Integer> queryTokens = new HashSet<>();
+        for (int t : BigramTokenizer.tokens(BigramTokenizer.normalize(query))) queryTokens.add(t);
+        Map<String, Integer> result = new HashMap<>();
+        for (Map.Entry<String, Doc> e : docs.entrySet()) {
+            Map<Integer, Integer> weights = weights(e.getValue());
+            int score = 0;
+            boolean all = true;
+            for (int t : queryTokens) {
+                Integer w = weights.get(t);
+                if (w == null) {
+                    all = false;
+                } else {
+                    score += w;
+                }
+            }
+            if (score > 0 && (mode == InvertedIndex.Mode.OR || all)) result.put(e.getKey(), score);
+        }
+        return result;
+    }
+
+    private static Map<Integer, Integer> weights(Doc doc) {
+        Map<Integer, Integer> w = new HashMap<>();
+        add(w, doc.name(), InvertedIndex.WEIGHT_NAME);
+        add(w, doc.catchcopy(), InvertedIndex.WEIGHT_CATCHCOPY);
+        add(w, doc.description(), InvertedIndex.WEIGHT_DESCRIPTION);
+        w.replaceAll((t, v) -> Math.min(v, InvertedIndex.MAX_WEIGHT));
+        return w;
+    }
+
+    private static void add(Map<Integer, Integer> w, String text, int weight) {
+        for (int t : BigramTokenizer.tokens(BigramTokenizer.normalize(text))) w.merge(t, weight, Integer::sum);
+    }
+
+    private static Doc randomDoc(Random rnd) {
+        return new Doc(randomWord(rnd, 2 + rnd.nextInt(6)),
+                rnd.nextInt(3) == 0 ? null : randomWord(rnd, 2 + rnd.nextInt(4)),
+                rnd.nextInt(3) == 0 ? null : randomWord(rnd, 3 + rnd.nextInt(8)) + " " + randomWord(rnd, 3));
+    }
+
+    private static String randomWord(Random rnd, int len) {
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) {
+            String pool = rnd.nextInt(10) == 0 ? RARE : COMMON;
+            sb.append(pool.charAt(rnd.nextInt(pool.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.calmall.product.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PostingList の varint 符号化とスキップ情報を使った advance
+ */
+class PostingListTest {
+
+    private static final int N = PostingList.SKIP_INTERVAL;
+
+    @Test
+    void nextReadsAllPostingsInOrder() {
+        PostingList pl = build(0, 3 * N + 5, 7);
+        PostingList.Cursor c = pl.cursor();
+        for (int i = 0; i < pl.count(); i++) {
+            assertTrue(c.next());
+            assertEquals(i * 7, c.doc);
+            assertEquals(weight(i), c.weight);
+        }
+        assertFalse(c.next());
+        assertEquals(Integer.MAX_VALUE, c.doc);
+    }
+
+    @Test
+    void advanceLandsOnEachSkipBoundary() {
+        // doc-id = 添字 * 2（奇数の target は直後の要素に止まる）
+        PostingList pl = build(0, 4 * N + 1, 2);
+        int[] indexes = {0, 1, N - 1, N, N + 1, 2 * N - 1, 2 * N, 2 * N + 1, 3 * N, 4 * N - 1, 4 * N};
+        for (int idx : indexes) {
+            PostingList.Cursor exact = pl.cursor();
+            assertTrue(exact.advance(idx * 2), "index " + idx);
+            assertEquals(idx * 2, exact.doc);
+            assertEquals(weight(idx), exact.weight);
+
+            PostingList.Cursor between = pl.cursor();
+            assertTrue(between.advance(idx * 2 - 1), "index " + idx);
+            assertEquals(idx * 2, between.doc);
+        }
+    }
+
+    @Test
+    void advanceFromMiddleOfBlockOnlyMovesForward() {
+        PostingList pl = build(0, 3 * N, 1);
+        PostingList.Cursor c = pl.cursor();
+        assertTrue(c.advance(N + 3));
+        assertEquals(N + 3, c.doc);
+
+        // 現在位置以下の target では動かない
+        assertTrue(c.advance(5));
+        assertEquals(N + 3, c.doc);
+
+        assertTrue(c.advance(2 * N + 1));
+        assertEquals(2 * N + 1, c.doc);
+        assertTrue(c.next());
+        assertEquals(2 * N + 2, c.doc);
+    }
+
+    @Test
+    void advancePastEndReturnsFalse() {
+        PostingList pl = build(10, 2 * N, 3);
+        PostingList.Cursor c = pl.cursor();
+        assertFalse(c.advance(10 + 2 * N * 3));
+        assertFalse(c.advance(0));
+
+        assertFalse(new PostingList().cursor().advance(0));
+    }
+
+    @Test
+    void advanceMatchesLinearScanOnRandomGaps() {
+        Random rnd = new Random(7);
+        PostingList pl = new PostingList();
+        int[] docs = new int[10 * N + 13];
+        int doc = -1;
+        for (int i = 0; i < docs.length; i++) {
+            // 1 バイトに収まらない差分も混ぜる
+            doc += 1 + (rnd.nextInt(10) == 0 ? rnd.nextInt(100_000) : rnd.nextInt(5));
+            docs[i] = doc;
+            pl.append(doc, 1 + i % 200);
+        }
+
+        for (int trial = 0; trial < 200; trial++) {
+            PostingList.Cursor c = pl.cursor();
+            int target = 0;
+            while (true) {
+                target += rnd.nextInt(3 * N * 4);
+                int expected = firstAtLeast(docs, target);
+                boolean found = c.advance(target);
+                if (expected < 0) {
+                    assertFalse(found);
+                    break;
+                }
+                assertTrue(found);
+                assertEquals(docs[expected], c.doc);
+                assertEquals(1 + expected % 200, c.weight);
+                target = c.doc;
+            }
+        }
+    }
+
+    @Test
+    void decodeAfterTrimReturnsSamePostings() {
+        PostingList pl = build(3, 2 * N + 9, 130);
+        pl.trim();
+        int[] docs = new int[pl.count()];
+        int[] weights = new int[pl.count()];
+        assertEquals(pl.count(), pl.decode(docs, weights));
+        for (int i = 0; i < docs.length; i++) {
+            assertEquals(3 + i * 130, docs[i]);
+            assertEquals(weight(i), weights[i]);
+        }
+    }
+
+    @Test
+    void rejectsNonIncreasingDocId() {
+        PostingList pl = new PostingList();
+        pl.append(5, 1);
+        assertThrows(IllegalArgumentException.class, () -> pl.append(5, 1));
+        assertThrows(IllegalArgumentException.class, () -> pl.append(4, 1));
+    }
+
+    private static PostingList build(int first, int count, int step) {
+        PostingList pl = new PostingList();
+        for (int i = 0; i < count; i++) pl.append(first + i * step, weight(i));
+        return pl;
+    }
+
+    private static int weight(int i) {
+        return 1 + i % InvertedIndex.MAX_WEIGHT;
+    }
+
+    private static int firstAtLeast(int[] docs, int target) {
+        for (int i = 0; i < docs.length; i++) {
+            if (docs[i] >= target) return i;
+        }
+        return -1;
+    }
+}
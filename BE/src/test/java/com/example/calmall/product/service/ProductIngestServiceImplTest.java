@@ -0,0 +1,60 @@
+package com.example.calmall.product.service;
+
+import com.example.calmall.global.resilience.DependencyGuard;
+import com.example.calmall.product.dto.ProductIngestRequestDto;
+import com.example.calmall.product.dto.ProductIngestResponseDto;
+import com.example.calmall.product.repository.ProductJdbcRepository;
+import com.example.calmall.product.repository.ProductRepository;
+import com.example.calmall.product.text.DescriptionCleanerFacade;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 商品一括取り込みはジョブとして受け付け、楽天 API のページングはリクエストスレッドで行わない
+ */
+class ProductIngestServiceImplTest {
+
+    private final DependencyGuard rakutenGuard = mock(DependencyGuard.class);
+    private final List<Runnable> queued = new ArrayList<>();
+    private final ProductIngestServiceImpl service = new ProductIngestServiceImpl(mock(RestTemplate.class), rakutenGuard,
+            mock(ProductJdbcRepository.class), mock(ProductRepository.class), mock(DescriptionCleanerFacade.class),
+            queued::add, Runnable::run);
+
+    @Test
+    void acceptsJobWithoutCallingRakutenOnRequestThread() throws Exception {
+        ReflectionTestUtils.setField(service, "maxPagesLimit", 10);
+        when(rakutenGuard.execute(any())).thenReturn(null);
+
+        ResponseEntity<ProductIngestResponseDto> accepted = service.ingest(new ProductIngestRequestDto("緑茶", null, 30, 3));
+
+        assertEquals(HttpStatus.ACCEPTED, accepted.getStatusCode());
+        String jobId = accepted.getBody().getJobId();
+        assertEquals("/api/admin/ingest/" + jobId, accepted.getHeaders().getLocation().toString());
+        assertEquals("queued", service.getJob(jobId).getBody().getStatus());
+        verifyNoInteractions(rakutenGuard);
+
+        // 取り込み用スレッドでの実行（楽天の応答が空なら 1 ページで終わる）
+        queued.forEach(Runnable::run);
+        ProductIngestResponseDto done = service.getJob(jobId).getBody();
+        assertEquals("done", done.getStatus());
+        assertEquals("success", done.getMessage());
+        assertEquals(1, done.getPages());
+    }
+
+    @Test
+    void unknownJobIsNotFound() {
+        assertEquals(HttpStatus.NOT_FOUND, service.getJob("missing").getStatusCode());
+    }
+}
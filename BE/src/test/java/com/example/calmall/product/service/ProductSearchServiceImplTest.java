@@ -0,0 +1,86 @@
+package com.example.calmall.product.service;
+
+import com.example.calmall.product.dto.ProductSearchResponseDto;
+import com.example.calmall.product.repository.ProductRepository;
+import com.example.calmall.product.repository.ProductSearchRow;
+import com.example.calmall.product.search.InvertedIndex;
+import com.example.calmall.product.search.ProductIndexService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 商品検索の振り分け（3 文字未満はインメモリ索引、それ以外は pg_trgm）
+ */
+class ProductSearchServiceImplTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductIndexService productIndexService = mock(ProductIndexService.class);
+    private final ProductSearchServiceImpl service = new ProductSearchServiceImpl(productRepository, productIndexService);
+
+    @Test
+    void shortKeywordUsesIndexAndKeepsIndexOrder() {
+        when(productIndexService.isReady()).thenReturn(true);
+        when(productIndexService.searchContaining(eq("茶"), anyInt())).thenReturn(List.of(
+                new InvertedIndex.Hit("a", "緑茶", 9), new InvertedIndex.Hit("b", "紅茶", 6),
+                new InvertedIndex.Hit("c", "麦茶", 3)));
+        // DB の返す順は索引の順と違ってよい
+        List<ProductSearchRow> firstPage = List.of(row("b"), row("a"));
+        List<ProductSearchRow> secondPage = List.of(row("c"));
+        when(productRepository.findSearchRowsByItemCodeIn(List.of("a", "b"))).thenReturn(firstPage);
+        when(productRepository.findSearchRowsByItemCodeIn(List.of("c"))).thenReturn(secondPage);
+
+        ResponseEntity<ProductSearchResponseDto> first = service.search(" 茶 ", 0, 2);
+        assertEquals(List.of("a", "b"), first.getBody().getProducts().stream()
+                .map(ProductSearchResponseDto.ProductSummary::getItemCode).toList());
+        assertEquals(3, first.getBody().getTotalElements());
+        assertTrue(first.getBody().isHasNext());
+
+        ResponseEntity<ProductSearchResponseDto> second = service.search("茶", 1, 2);
+        assertEquals(List.of("c"), second.getBody().getProducts().stream()
+                .map(ProductSearchResponseDto.ProductSummary::getItemCode).toList());
+        assertFalse(second.getBody().isHasNext());
+
+        verify(productRepository, never()).searchByKeyword(anyString(), anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void longerKeywordOrUnreadyIndexUsesDatabase() {
+        Page<ProductSearchRow> empty = new PageImpl<>(List.of());
+        when(productRepository.searchByKeyword(anyString(), anyString(), any(Pageable.class))).thenReturn(empty);
+        when(productIndexService.isReady()).thenReturn(true);
+
+        service.search("ほうじ茶", 0, 10);
+        verify(productRepository).searchByKeyword(eq("ほうじ茶"), eq("%ほうじ茶%"), any(Pageable.class));
+
+        when(productIndexService.isReady()).thenReturn(false);
+        service.search("緑茶", 0, 10);
+        verify(productRepository).searchByKeyword(eq("緑茶"), eq("%緑茶%"), any(Pageable.class));
+
+        verify(productIndexService, never()).searchContaining(anyString(), anyInt());
+        verify(productRepository, never()).findSearchRowsByItemCodeIn(anyList());
+    }
+
+    private static ProductSearchRow row(String itemCode) {
+        ProductSearchRow row = mock(ProductSearchRow.class);
+        when(row.getItemCode()).thenReturn(itemCode);
+        return row;
+    }
+}
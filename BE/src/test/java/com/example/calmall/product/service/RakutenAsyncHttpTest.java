@@ -0,0 +1,70 @@
+package com.example.calmall.product.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * RakutenAsyncHttp.timed の http.client.requests 計測
+ */
+class RakutenAsyncHttpTest {
+
+    private static final String PATH = RakutenApiServiceImpl.ITEM_SEARCH_PATH;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HttpRequest request = HttpRequest
+            .newBuilder(URI.create("https://app.rakuten.co.jp" + PATH + "?keyword=abc")).GET().build();
+
+    @Test
+    void recordsStatusAndOutcomeOnResponse() {
+        HttpResponse<String> resp = response(503);
+        RakutenAsyncHttp.timed(registry, request, PATH, () -> CompletableFuture.completedFuture(resp)).join();
+
+        Timer timer = registry.find("http.client.requests")
+                .tags("uri", PATH, "status", "503", "outcome", "SERVER_ERROR", "method", "GET",
+                        "client.name", "app.rakuten.co.jp", "exception", "none")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void recordsExceptionWhenSendFails() {
+        CompletableFuture<HttpResponse<String>> result = RakutenAsyncHttp.timed(registry, request, PATH,
+                () -> CompletableFuture.failedFuture(new IOException("reset")));
+        assertTrue(result.isCompletedExceptionally());
+
+        Timer timer = registry.find("http.client.requests")
+                .tags("uri", PATH, "status", "CLIENT_ERROR", "outcome", "UNKNOWN", "exception", "IOException")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void queryStringIsNotPartOfUriTag() {
+        RakutenAsyncHttp.timed(registry, request, PATH, () -> CompletableFuture.completedFuture(response(200))).join();
+
+        assertEquals(1, registry.find("http.client.requests").timers().size());
+        assertEquals(PATH, registry.find("http.client.requests").timer().getId().getTag("uri"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<String> response(int status) {
+        HttpResponse<String> resp = mock(HttpResponse.class);
+        when(resp.statusCode()).thenReturn(status);
+        return resp;
+    }
+}
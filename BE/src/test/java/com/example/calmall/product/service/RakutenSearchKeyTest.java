@@ -0,0 +1,54 @@
+package com.example.calmall.product.service;
+
+import com.example.calmall.product.service.RakutenSearchServiceImpl.SearchKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 検索キャッシュのキー（正規化した表記で共有し、楽天には元の表記を送る）
+ */
+class RakutenSearchKeyTest {
+
+    @Test
+    void normalizedFormsShareCacheEntry() {
+        SearchKey a = SearchKey.of("  ＡＢＣ　緑茶 ", null, null);
+        SearchKey b = SearchKey.of("abc 緑茶", "", 10);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals("abc 緑茶", a.normalized());
+    }
+
+    @Test
+    void originalTrimmedKeywordIsKeptForRequest() {
+        SearchKey key = SearchKey.of("  ＡＢＣ　緑茶 ", " shop ", 50);
+
+        assertEquals("ＡＢＣ　緑茶", key.keyword());
+        assertEquals("shop", key.shopCode());
+        assertEquals(30, key.hits());
+    }
+
+    @Test
+    void shopCodeAndHitsAreStillPartOfKey() {
+        assertNotEquals(SearchKey.of("緑茶", "a", 10), SearchKey.of("緑茶", "b", 10));
+        assertNotEquals(SearchKey.of("緑茶", null, 10), SearchKey.of("緑茶", null, 20));
+    }
+
+    @Test
+    void requestUriEncodesOriginalKeyword() {
+        RakutenSearchServiceImpl service = new RakutenSearchServiceImpl(null, null, null, null);
+        ReflectionTestUtils.setField(service, "appId", "app");
+        ReflectionTestUtils.setField(service, "affiliateId", "aff");
+
+        URI uri = service.buildSearchUri(SearchKey.of(" 緑茶 ティー&セット ", "shop", 10));
+
+        assertTrue(uri.getRawQuery().contains("keyword=%E7%B7%91%E8%8C%B6%20%E3%83%86%E3%82%A3%E3%83%BC%26%E3%82%BB%E3%83%83%E3%83%88&"));
+        assertTrue(uri.getRawQuery().endsWith("&shopCode=shop"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.calmall.product.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * バッチ応答（[[ITEM n]] ... [[END n]]）の取り出し
+ */
+class LlmDescriptionFormatterBatchParseTest {
+
+    private static String item(int n, String body) {
+        return "[[ITEM " + n + "]]\n" + body + "\n[[END " + n + "]]\n";
+    }
+
+    private static String section(String text) {
+        return "<section class=\"desc-section body\"><p>" + text + "</p></section>";
+    }
+
+    @Test
+    void allItemsInOrder() {
+        String response = item(1, section("a")) + item(2, section("b")) + item(3, section("c"));
+
+        Map<Integer, String> parsed = LlmDescriptionFormatter.parseBatchSections(response, 3);
+
+        assertEquals(Map.of(1, section("a"), 2, section("b"), 3, section("c")), parsed);
+    }
+
+    @Test
+    void missingItemIsAbsent() {
+        String response = item(1, section("a")) + item(3, section("c"));
+
+        Map<Integer, String> parsed = LlmDescriptionFormatter.parseBatchSections(response, 3);
+
+        assertEquals(2, parsed.size());
+        assertFalse(parsed.containsKey(2));
+        assertEquals(section("c"), parsed.get(3));
+    }
+
+    @Test
+    void reorderedItemsAreMatchedByNumber() {
+        String response = item(3, section("c")) + item(1, section("a")) + item(2, section("b"));
+
+        Map<Integer, String> parsed = LlmDescriptionFormatter.parseBatchSections(response, 3);
+
+        assertEquals(section("a"), parsed.get(1));
+        assertEquals(section("b"), parsed.get(2));
+        assertEquals(section("c"), parsed.get(3));
+    }
+
+    @Test
+    void extraAndDuplicateItemsAreIgnored() {
+        String response = item(1, section("a")) + item(1, section("dup"))
+                + item(2, section("b")) + item(4, section("extra")) + item(0, section("zero"));
+
+        Map<Integer, String> parsed = LlmDescriptionFormatter.parseBatchSections(response, 2);
+
+        assertEquals(Map.of(1, section("a"), 2, section("b")), parsed);
+    }
+
+    @Test
+    void mismatchedEndMarkerOrChatterOutsideIsNotTaken() {
+        String response = "以下が結果です。\n"
+                + "[[ITEM 1]]\n" + section("a") + "\n[[END 2]]\n"
+                + item(2, section("b"));
+
+        Map<Integer, String> parsed = LlmDescriptionFormatter.parseBatchSections(response, 2);
+
+        assertFalse(parsed.containsKey(1));
+        assertTrue(parsed.containsKey(2));
+        assertEquals(section("b"), parsed.get(2));
+    }
+
+    @Test
+    void nullOrEmptyResponse() {
+        assertTrue(LlmDescriptionFormatter.parseBatchSections(null, 2).isEmpty());
+        assertTrue(LlmDescriptionFormatter.parseBatchSections("", 2).isEmpty());
+    }
+}
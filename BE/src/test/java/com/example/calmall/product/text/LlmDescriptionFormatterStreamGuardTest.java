@@ -0,0 +1,55 @@
+package com.example.calmall.product.text;
+
+import com.example.calmall.ai.GroqClient;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * ストリーミング応答の早期打ち切り（前置きは許し、HTML を返さない応答は打ち切る）
+ */
+class LlmDescriptionFormatterStreamGuardTest {
+
+    private static final String CHUNK = "原文".repeat(200);
+
+    // 受信途中の各時点で検査する（実際のストリーミングと同じく、伸びていく content を渡す）
+    private static String firstAbort(GroqClient.StreamGuard guard, String reply) {
+        StringBuilder content = new StringBuilder();
+        for (char c : reply.toCharArray()) {
+            content.append(c);
+            String reason = guard.check(content);
+            if (reason != null) return reason;
+        }
+        return null;
+    }
+
+    @Test
+    void acceptsReplyWithPreamble() {
+        String reply = "Here is the formatted HTML:\n\n"
+                + "<section class=\"desc-section body\"><p>" + "原文の説明".repeat(30) + "</p></section>";
+
+        assertNull(firstAbort(LlmDescriptionFormatter.streamGuardFor(CHUNK), reply));
+    }
+
+    @Test
+    void acceptsReplyStartingWithSection() {
+        String reply = "  <section class=\"desc-section body\"><p>" + "原文の説明".repeat(30) + "</p></section>";
+
+        assertNull(firstAbort(LlmDescriptionFormatter.streamGuardFor(CHUNK), reply));
+    }
+
+    @Test
+    void abortsReplyWithoutMarkup() {
+        String reply = "申し訳ありませんが、このリクエストにはお応えできません。".repeat(20);
+
+        assertNotNull(firstAbort(LlmDescriptionFormatter.streamGuardFor(CHUNK), reply));
+    }
+
+    @Test
+    void abortsReplyWhoseFirstTagIsNotSection() {
+        String reply = "Sure!\n<div>" + "x".repeat(200) + "</div>";
+
+        assertNotNull(firstAbort(LlmDescriptionFormatter.streamGuardFor(CHUNK), reply));
+    }
+}
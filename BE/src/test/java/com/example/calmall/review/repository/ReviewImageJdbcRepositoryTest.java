@@ -0,0 +1,103 @@
+package com.example.calmall.review.repository;
+
+import com.example.calmall.review.entity.ReviewImage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * レビュー画像の紐付け・掃除の SQL（PostgreSQL の RETURNING・配列を使うため実 DB で確認する）
+ * 実行: CALMALL_TEST_DB_URL=jdbc:postgresql://localhost:5432/test CALMALL_TEST_DB_USER=... CALMALL_TEST_DB_PASSWORD=... gradle test
+ * 本番・共有 DB は指定しないこと（一時テーブルのみ使うが、接続先の既存テーブルと同名になる）
+ */
+@EnabledIfEnvironmentVariable(named = "CALMALL_TEST_DB_URL", matches = "jdbc:postgresql:.*")
+class ReviewImageJdbcRepositoryTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ReviewImageJdbcRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        // 一時テーブルは接続ごとのため、1 接続を使い回す
+        dataSource = new SingleConnectionDataSource(System.getenv("CALMALL_TEST_DB_URL"),
+                System.getenv("CALMALL_TEST_DB_USER"), System.getenv("CALMALL_TEST_DB_PASSWORD"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TEMP TABLE review_images (
+                    id           bigserial PRIMARY KEY,
+                    review_id    bigint,
+                    image_url    varchar(255) NOT NULL,
+                    public_id    varchar(255),
+                    content_type varchar(255) NOT NULL,
+                    created_at   timestamp(6) NOT NULL,
+                    content_hash varchar(64),
+                    user_id      varchar(40),
+                    deleting_at  timestamp(6)
+                )""");
+        jdbcTemplate.execute("""
+                CREATE UNIQUE INDEX ON review_images (user_id, content_hash)
+                    WHERE review_id IS NULL AND content_hash IS NOT NULL""");
+        repository = new ReviewImageJdbcRepository(jdbcTemplate);
+
+        repository.insertUnbound(List.of(image("https://img/alice", "alice"), image("https://img/bob", "bob")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void bindsOnlyOwnUnboundImages() {
+        assertTrue(repository.bindToReview(1L, "bob", List.of("https://img/alice")).isEmpty());
+        assertEquals(Set.of("https://img/bob"), repository.bindToReview(1L, "bob", List.of("https://img/alice", "https://img/bob")));
+
+        // alice の画像は未紐付けのまま
+        assertEquals(Set.of("https://img/alice"), repository.bindToReview(2L, "alice", List.of("https://img/alice")));
+    }
+
+    @Test
+    void keepsImagesAlreadyBoundToSameReview() {
+        repository.bindToReview(1L, "bob", List.of("https://img/bob"));
+
+        assertEquals(Set.of("https://img/bob"), repository.bindToReview(1L, "bob", List.of("https://img/bob")));
+        assertTrue(repository.bindToReview(2L, "bob", List.of("https://img/bob")).isEmpty());
+    }
+
+    @Test
+    void markedImagesAreNotClaimedOrBoundAndOnlyOwnMarkIsDeleted() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<ReviewImage> marked = repository.markUnboundOlderThan(now.plusSeconds(1), now, now.minusHours(1), 10);
+        assertEquals(2, marked.size());
+
+        // 保存先の削除中は再利用・紐付けされない
+        assertTrue(repository.claimUnboundByHash("alice", "https://img/alice", now).isEmpty());
+        assertTrue(repository.bindToReview(1L, "alice", List.of("https://img/alice")).isEmpty());
+        // 印が新しいうちは他の掃除が取り直さない
+        assertTrue(repository.markUnboundOlderThan(now.plusSeconds(1), now.plusSeconds(1), now.minusHours(1), 10).isEmpty());
+
+        // 印が古くなって付け直された行は、元の掃除からは削除されない
+        LocalDateTime later = now.plusHours(2);
+        assertEquals(2, repository.markUnboundOlderThan(now.plusSeconds(1), later, later.minusHours(1), 10).size());
+        List<Long> ids = marked.stream().map(ReviewImage::getId).toList();
+        assertEquals(0, repository.deleteUnboundByIds(ids, now));
+        assertEquals(2, repository.deleteUnboundByIds(ids, later));
+    }
+
+    private static ReviewImage image(String url, String userId) {
+        return ReviewImage.builder().imageUrl(url).publicId("pid").contentType("image/jpeg")
+                .createdAt(LocalDateTime.now()).userId(userId).contentHash(url).build();
+    }
+}
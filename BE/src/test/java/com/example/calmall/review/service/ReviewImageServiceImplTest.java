@@ -0,0 +1,112 @@
+package com.example.calmall.review.service;
+
+import com.example.calmall.review.dto.ImageUploadResponseDto;
+import com.example.calmall.review.entity.ReviewImage;
+import com.example.calmall.review.repository.ReviewImageJdbcRepository;
+import com.example.calmall.review.repository.ReviewImageRepository;
+import com.example.calmall.review.storage.ReviewImageProcessor;
+import com.example.calmall.review.storage.ReviewImageUploader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * レビュー画像アップロードの並列処理と、同じ内容の画像の再利用
+ */
+class ReviewImageServiceImplTest {
+
+    private final ReviewImageJdbcRepository jdbcRepository = mock(ReviewImageJdbcRepository.class);
+    private final ReviewImageUploader uploader = mock(ReviewImageUploader.class);
+    private final ReviewImageProcessor processor = mock(ReviewImageProcessor.class);
+    private ReviewImageServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 仮想スレッド有効時と同じ、同時実行数の上限付き SimpleAsyncTaskExecutor（上限 1 で詰まりを再現しやすくする）
+        SimpleAsyncTaskExecutor uploadExecutor = new SimpleAsyncTaskExecutor("test-upload-");
+        uploadExecutor.setConcurrencyLimit(1);
+        // 詰まった場合もテスト JVM を終了できるように
+        uploadExecutor.setDaemon(true);
+        service = new ReviewImageServiceImpl(mock(ReviewImageRepository.class), jdbcRepository, uploader, processor,
+                uploadExecutor, Executors.newFixedThreadPool(2));
+        ReflectionTestUtils.setField(service, "uploadTimeoutMs", 5_000L);
+
+        when(processor.process(any(), anyString()))
+                .thenAnswer(inv -> new ReviewImageProcessor.ProcessedImage(inv.getArgument(0), "image/jpeg"));
+        when(uploader.upload(any(Path.class), anyString()))
+                .thenAnswer(inv -> new ReviewImageUploader.StoredImage("https://img/" + inv.getArgument(0, Path.class).getFileName(), "pid"));
+        when(jdbcRepository.insertUnbound(anyList())).thenAnswer(inv -> Set.copyOf(
+                inv.<List<ReviewImage>>getArgument(0).stream().map(ReviewImage::getImageUrl).toList()));
+    }
+
+    @Test
+    void reusesOwnUnboundImageWithoutBlockingBoundedExecutor() throws Exception {
+        ReviewImage existing = ReviewImage.builder().imageUrl("https://img/existing").userId("alice")
+                .createdAt(LocalDateTime.now()).build();
+        when(jdbcRepository.claimUnboundByHash(eq("alice"), anyString(), any())).thenReturn(Optional.of(existing));
+
+        ResponseEntity<ImageUploadResponseDto> response = CompletableFuture
+                .supplyAsync(() -> service.uploadImages(List.of(jpeg("a.jpg", 1)), "alice"))
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of("https://img/existing"), response.getBody().getImageUrls());
+        verify(uploader, never()).upload(any(), anyString());
+    }
+
+    @Test
+    void uploadsInParallelUnderConcurrencyLimit() throws Exception {
+        when(jdbcRepository.claimUnboundByHash(any(), anyString(), any())).thenReturn(Optional.empty());
+
+        // 変換が即座に終わる場合（送信の投入がアップロード用スレッド上で起きやすい）を繰り返し確認する
+        for (int round = 0; round < 20; round++) {
+            ResponseEntity<ImageUploadResponseDto> response = CompletableFuture
+                    .supplyAsync(() -> service.uploadImages(
+                            List.of(jpeg("a.jpg", 1), jpeg("b.jpg", 2), jpeg("c.jpg", 3)), "alice"))
+                    .get(10, TimeUnit.SECONDS);
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(3, response.getBody().getImageUrls().size());
+        }
+    }
+
+    @Test
+    void claimIsScopedToUploader() throws Exception {
+        when(jdbcRepository.claimUnboundByHash(any(), anyString(), any())).thenReturn(Optional.empty());
+
+        service.uploadImages(List.of(jpeg("a.jpg", 1)), "bob");
+        service.uploadImages(List.of(jpeg("b.jpg", 2)), null);
+
+        verify(jdbcRepository).claimUnboundByHash(eq("bob"), anyString(), any());
+        verify(jdbcRepository).claimUnboundByHash(isNull(), anyString(), any());
+        verify(jdbcRepository, never()).claimUnboundByHash(eq("alice"), anyString(), any());
+    }
+
+    private static MockMultipartFile jpeg(String name, int seed) {
+        return new MockMultipartFile("files", name, "image/jpeg", new byte[]{(byte) 0xff, (byte) 0xd8, (byte) seed});
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.calmall.review.storage;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ImageIoReviewImageProcessor の削減バイト数と 1 枚あたりの処理時間を測るベンチマーク（JUnit ではなく main で実行する）。
+ *
+ * フィクスチャは引数のディレクトリ（*.jpg / *.jpeg / *.png）から読む。省略時は写真・スクリーンショットに近い画像を生成する。
+ *
+ * 実行例:
+ *   gradle compileTestJava
+ *   java -Xmx512m -Djava.awt.headless=true \
+ *        -cp build/classes/java/main:build/classes/java/test:$(find ~/.gradle -name 'slf4j-api-2*.jar' | head -1) \
+ *        com.example.calmall.review.storage.ReviewImageProcessorBenchmark [fixtureDir] [iterations]
+ *
+ * 参考（生成フィクスチャ, -Xmx512m, 1 vCPU, max-edge=1600, quality=0.82）:
+ *   12MP JPEG 4.1MB → 約260KB（94% 減, p50 約 0.4〜0.5 秒）、48MP JPEG 10.7MB → 約350KB（p50 約 1.1 秒）
+ *   合計 20.2MB → 1.6MB（92% 減）。縮小不要な小さい JPEG / PNG は 13〜15% 減、透過 PNG は増えることがある
+ */
+public class ReviewImageProcessorBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        Path fixtureDir = args.length > 0 && !args[0].isBlank() ? Path.of(args[0]) : generateFixtures();
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        ImageIoReviewImageProcessor processor = new ImageIoReviewImageProcessor(1600, 0.82f, 50_000_000L);
+
+        List<Path> fixtures = listFixtures(fixtureDir);
+        System.out.printf("fixtures=%s iterations=%d maxHeap=%dMB%n",
+                fixtureDir, iterations, Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        System.out.printf("%-28s %10s %10s %7s %9s %9s %11s%n",
+                "file", "in(KB)", "out(KB)", "saved", "p50(ms)", "max(ms)", "out size");
+
+        long totalIn = 0;
+        long totalOut = 0;
+        for (Path fixture : fixtures) {
+            String type = fixture.toString().toLowerCase().endsWith(".png") ? "image/png" : "image/jpeg";
+            long[] nanos = new long[iterations];
+            long outBytes = 0;
+            String outSize = "";
+            // 1 回目は JIT のウォームアップとして捨てる
+            for (int i = -1; i < iterations; i++) {
+                long t0 = System.nanoTime();
+                ReviewImageProcessor.ProcessedImage result = processor.process(fixture, type);
+                long elapsed = System.nanoTime() - t0;
+                if (i >= 0) nanos[i] = elapsed;
+                outBytes = Files.size(result.file());
+                BufferedImage out = ImageIO.read(result.file().toFile());
+                outSize = out.getWidth() + "x" + out.getHeight();
+                Files.deleteIfExists(result.file());
+            }
+            Arrays.sort(nanos);
+            long inBytes = Files.size(fixture);
+            totalIn += inBytes;
+            totalOut += outBytes;
+            System.out.printf("%-28s %10d %10d %6.0f%% %9.1f %9.1f %11s%n",
+                    fixture.getFileName(), inBytes / 1024, outBytes / 1024,
+                    100.0 * (inBytes - outBytes) / inBytes,
+                    nanos[nanos.length / 2] / 1e6, nanos[nanos.length - 1] / 1e6, outSize);
+        }
+        System.out.printf("total in=%dKB out=%dKB saved=%.0f%%%n",
+                totalIn / 1024, totalOut / 1024, 100.0 * (totalIn - totalOut) / totalIn);
+    }
+
+    private static List<Path> listFixtures(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.{jpg,jpeg,png,JPG,JPEG,PNG}")) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    // スマートフォン写真・SNS 向け縮小済み写真・スクリーンショット・透過 PNG を想定した画像を生成する
+    private static Path generateFixtures() throws IOException {
+        Path dir = Files.createTempDirectory("review-image-fixtures-");
+        Random rnd = new Random(42);
+        writeJpeg(photo(4032, 3024, rnd), dir.resolve("photo-12mp.jpg"), 0.92f);
+        writeJpeg(photo(3024, 4032, rnd), dir.resolve("photo-12mp-portrait.jpg"), 0.92f);
+        writeJpeg(photo(8000, 6000, rnd), dir.resolve("photo-48mp.jpg"), 0.85f);
+        writeJpeg(photo(1920, 1080, rnd), dir.resolve("photo-fhd.jpg"), 0.90f);
+        writeJpeg(photo(1200, 900, rnd), dir.resolve("photo-small.jpg"), 0.85f);
+        ImageIO.write(screenshot(1170, 2532, rnd, false), "png", dir.resolve("screenshot.png").toFile());
+        ImageIO.write(screenshot(2048, 2048, rnd, true), "png", dir.resolve("sticker-alpha.png").toFile());
+        return dir;
+    }
+
+    // グラデーション + 図形 + ノイズ（JPEG で写真並みのサイズになるように）
+    private static BufferedImage photo(int w, int h, Random rnd) {
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setPaint(new GradientPaint(0, 0, new Color(rnd.nextInt()), w, h, new Color(rnd.nextInt())));
+        g.fillRect(0, 0, w, h);
+        for (int i = 0; i < 60; i++) {
+            g.setColor(new Color(rnd.nextInt(256), rnd.nextInt(256), rnd.nextInt(256), 120));
+            int s = rnd.nextInt(Math.max(w, h) / 4) + 20;
+            g.fillOval(rnd.nextInt(w), rnd.nextInt(h), s, s);
+        }
+        g.dispose();
+        int[] row = new int[w];
+        for (int y = 0; y < h; y++) {
+            img.getRGB(0, y, w, 1, row, 0, w);
+            for (int x = 0; x < w; x++) {
+                int n = rnd.nextInt(25) - 12;
+                int p = row[x];
+                row[x] = (clamp(((p >> 16) & 0xFF) + n) << 16) | (clamp(((p >> 8) & 0xFF) + n) << 8) | clamp((p & 0xFF) + n);
+            }
+            img.setRGB(0, y, w, 1, row, 0, w);
+        }
+        return img;
+    }
+
+    private static BufferedImage screenshot(int w, int h, Random rnd, boolean alpha) {
+        BufferedImage img = new BufferedImage(w, h, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (!alpha) {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, w, h);
+        }
+        g.setStroke(new BasicStroke(3));
+        for (int i = 0; i < 400; i++) {
+            g.setColor(new Color(rnd.nextInt(256), rnd.nextInt(256), rnd.nextInt(256)));
+            int x = rnd.nextInt(w);
+            int y = rnd.nextInt(h);
+            if (i % 3 == 0) g.fillRoundRect(x, y, rnd.nextInt(300) + 20, rnd.nextInt(80) + 10, 12, 12);
+            else g.drawString("レビュー画像 " + i, x, y);
+        }
+        g.dispose();
+        return img;
+    }
+
+    private static void writeJpeg(BufferedImage img, Path out, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream os = ImageIO.createImageOutputStream(out.toFile())) {
+            writer.setOutput(os);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(img, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static int clamp(int v) {
+        return Math.max(0, Math.min(255, v));
+    }
+}
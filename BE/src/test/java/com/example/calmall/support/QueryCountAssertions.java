@@ -0,0 +1,66 @@
+package com.example.calmall.support;
+
+import com.example.calmall.global.query.QueryCountFilter;
+import com.example.calmall.global.query.QueryCountHolder;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL 発行件数の上限を検証するテスト用ユーティリティ（N+1 の回帰検出）。
+ * 件数は QueryCountingDataSource で数えるため、JPA と JdbcTemplate の SQL を両方含む。
+ *
+ * <pre>
+ * // サービス呼び出しを直接計測
+ * QueryCountAssertions.assertMaxQueries(3, () -> reviewService.getReviewsByItem(code, null, 0, 10));
+ *
+ * // MockMvc（calmall.query-count.header-enabled=true のとき）
+ * mockMvc.perform(get("/api/reviews/item/{code}", code))
+ *        .andExpect(QueryCountAssertions.maxQueries(3));
+ * </pre>
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {}
+
+    /** action 実行中に発行された SQL が max 件以下であることを検証し、戻り値を返す */
+    public static <T> T assertMaxQueries(int max, Supplier<T> action) {
+        QueryCountHolder.start();
+        T result;
+        QueryCountHolder.Stats stats;
+        try {
+            result = action.get();
+        } finally {
+            stats = QueryCountHolder.stop();
+        }
+        assertNotNull(stats, "query count was not recorded");
+        assertTrue(stats.getStatements() <= max,
+                () -> "expected at most " + max + " queries but was " + stats.getStatements()
+                        + " (jdbc " + stats.getJdbcMillis() + "ms)");
+        return result;
+    }
+
+    /** 戻り値の無い処理向け */
+    public static void assertMaxQueries(int max, Runnable action) {
+        assertMaxQueries(max, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /** MockMvc のレスポンスヘッダ X-Query-Count を検証する */
+    public static ResultMatcher maxQueries(int max) {
+        return (MvcResult result) -> {
+            String header = result.getResponse().getHeader(QueryCountFilter.HEADER_QUERY_COUNT);
+            assertNotNull(header, QueryCountFilter.HEADER_QUERY_COUNT + " header is missing"
+                    + " (is calmall.query-count.header-enabled=true?)");
+            int count = Integer.parseInt(header);
+            assertTrue(count <= max, () -> "expected at most " + max + " queries but was " + count
+                    + " for " + result.getRequest().getRequestURI());
+        };
+    }
+}